@@ -0,0 +1,39 @@
+#!/usr/bin/env bash
+# Время от запуска JVM до первого успешного ответа GET /films.
+#
+# Использование: scripts/startup-benchmark.sh <число запусков> <аргументы java...>
+#   scripts/startup-benchmark.sh 5 -jar target/filmorate-0.0.1-SNAPSHOT.jar
+#   scripts/startup-benchmark.sh 5 -XX:SharedArchiveFile=target/filmorate.jsa -Dspring.aot.enabled=true \
+#       -jar target/filmorate.jar
+set -euo pipefail
+
+if [ "$#" -lt 2 ]; then
+    sed -n '4,7p' "$0"
+    exit 1
+fi
+
+runs=$1
+shift
+java_bin=${JAVA_HOME:+$JAVA_HOME/bin/}java
+port=${PORT:-18080}
+total=0
+
+for run in $(seq 1 "$runs"); do
+    start=$(date +%s%N)
+    "$java_bin" -Dserver.port="$port" -Dlogging.level.root=WARN "$@" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "http://localhost:$port/films"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "Приложение завершилось до первого ответа" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    total=$(( total + elapsed ))
+    echo "Запуск $run: ${elapsed} мс"
+done
+
+echo "Среднее: $(( total / runs )) мс"
@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.jcstress;
+
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.ApproximatePopularity;
+
+import java.time.LocalDate;
+
+/**
+ * Общие данные стресс-тестов. jcstress создаёт тысячи состояний, поэтому компоненты
+ * с собственными потоками, не влияющие на проверяемые инварианты, общие на все состояния.
+ * Сервисам же нужна своя шина на состояние: они регистрируют на ней слушателей публикации,
+ * и на общей шине слушатели копились бы со всех состояний.
+ */
+final class Fixtures {
+
+    static final DomainEventBus EVENT_BUS = new DomainEventBus();
+    static final ApproximatePopularity POPULARITY = new ApproximatePopularity(EVENT_BUS, 16);
+
+    private Fixtures() {
+    }
+
+    static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription(name);
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+
+    static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@mail.ru");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,138 @@
+package ru.yandex.practicum.filmorate.jcstress;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Description;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.III_Result;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.service.FriendGraph;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.Arrays;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * Дружба через UserService: связь всегда симметрична, граф дружбы совпадает с хранилищем,
+ * а у удалённого пользователя не остаётся друзей и подписчиков.
+ */
+public class FriendshipStress {
+
+    /**
+     * Общее состояние: пользователи 1 и 2, граф без фонового слияния в пределах теста.
+     * Граф закрывается в арбитре, иначе каждое состояние оставляло бы поток слияния.
+     */
+    abstract static class Users {
+        final InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        final FriendGraph friendGraph;
+        final UserService userService;
+
+        Users() {
+            userStorage.addUser(Fixtures.user("first"));
+            userStorage.addUser(Fixtures.user("second"));
+            friendGraph = new FriendGraph(userStorage, 60_000, 6);
+            userService = new UserService(userStorage, new InMemoryFilmStorage(), new DomainEventBus(),
+                    friendGraph);
+        }
+
+        int friends(int userId, int friendId) {
+            return userStorage.getUserById(userId).map(u -> u.getFriends().contains(friendId) ? 1 : 0).orElse(0);
+        }
+
+        /**
+         * 1, если граф для обоих пользователей совпадает с хранилищем.
+         */
+        int graphMatchesStorage() {
+            boolean first = (Arrays.binarySearch(friendGraph.friends(1), 2) >= 0) == (friends(1, 2) == 1);
+            boolean second = (Arrays.binarySearch(friendGraph.friends(2), 1) >= 0) == (friends(2, 1) == 1);
+            friendGraph.close();
+            return first && second ? 1 : 0;
+        }
+    }
+
+    @JCStressTest
+    @Description("Добавление и удаление одной дружбы с разных сторон оставляют её симметричной")
+    @Outcome(id = {"1, 1, 1", "0, 0, 1"}, expect = ACCEPTABLE, desc = "Дружба есть у обоих или ни у кого")
+    @Outcome(expect = FORBIDDEN, desc = "Односторонняя дружба или граф разошёлся с хранилищем")
+    @State
+    public static class AddVersusRemove extends Users {
+
+        @Actor
+        public void add() {
+            userService.addFriend(1, 2);
+        }
+
+        @Actor
+        public void remove() {
+            userService.removeFriend(2, 1);
+        }
+
+        @Arbiter
+        public void state(III_Result r) {
+            r.r1 = friends(1, 2);
+            r.r2 = friends(2, 1);
+            r.r3 = graphMatchesStorage();
+        }
+    }
+
+    @JCStressTest
+    @Description("Встречные addFriend приводят к одной симметричной дружбе")
+    @Outcome(id = "1, 1, 1", expect = ACCEPTABLE, desc = "Дружба у обоих, граф согласован")
+    @Outcome(expect = FORBIDDEN, desc = "Потерянная сторона или устаревший граф")
+    @State
+    public static class AddVersusAdd extends Users {
+
+        @Actor
+        public void first() {
+            userService.addFriend(1, 2);
+        }
+
+        @Actor
+        public void second() {
+            userService.addFriend(2, 1);
+        }
+
+        @Arbiter
+        public void state(III_Result r) {
+            r.r1 = friends(1, 2);
+            r.r2 = friends(2, 1);
+            r.r3 = graphMatchesStorage();
+        }
+    }
+
+    @JCStressTest
+    @Description("addFriend одновременно с удалением друга не оставляет ссылку на удалённого")
+    @Outcome(id = {"0, 0, 1", "1, 0, 1"}, expect = ACCEPTABLE,
+            desc = "Дружба не создана (1 — друг уже не найден) или удалена вместе с пользователем")
+    @Outcome(expect = FORBIDDEN, desc = "Висячая ссылка на удалённого пользователя")
+    @State
+    public static class AddVersusDeleteUser extends Users {
+
+        @Actor
+        public void add(III_Result r) {
+            try {
+                userService.addFriend(1, 2);
+            } catch (NotFoundException e) {
+                r.r1 = 1;
+            }
+        }
+
+        @Actor
+        public void delete() {
+            userService.deleteUser(2);
+        }
+
+        @Arbiter
+        public void state(III_Result r) {
+            r.r2 = friends(1, 2);
+            r.r3 = graphMatchesStorage();
+        }
+    }
+}
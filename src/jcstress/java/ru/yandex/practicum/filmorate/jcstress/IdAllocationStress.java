@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.jcstress;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Description;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.III_Result;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * Выдача id при одновременном добавлении: id различны, идут подряд с 1,
+ * и обе записи видны после добавления. Порядок между потоками не гарантируется.
+ */
+public class IdAllocationStress {
+
+    @JCStressTest
+    @Description("Два одновременных addFilm получают разные id, и оба фильма сохранены")
+    @Outcome(id = {"1, 2, 2", "2, 1, 2"}, expect = ACCEPTABLE, desc = "Разные id, оба фильма в хранилище")
+    @Outcome(expect = FORBIDDEN, desc = "Повтор id, пропуск или потерянный фильм")
+    @State
+    public static class Films {
+        private final InMemoryFilmStorage storage = new InMemoryFilmStorage();
+
+        @Actor
+        public void first(III_Result r) {
+            r.r1 = storage.addFilm(Fixtures.film("first")).getId();
+        }
+
+        @Actor
+        public void second(III_Result r) {
+            r.r2 = storage.addFilm(Fixtures.film("second")).getId();
+        }
+
+        @Arbiter
+        public void count(III_Result r) {
+            r.r3 = storage.getAllFilms().size();
+        }
+    }
+
+    @JCStressTest
+    @Description("Два одновременных addUser получают разные id, и оба пользователя сохранены")
+    @Outcome(id = {"1, 2, 2", "2, 1, 2"}, expect = ACCEPTABLE, desc = "Разные id, оба пользователя в хранилище")
+    @Outcome(expect = FORBIDDEN, desc = "Повтор id, пропуск или потерянный пользователь")
+    @State
+    public static class Users {
+        private final InMemoryUserStorage storage = new InMemoryUserStorage();
+
+        @Actor
+        public void first(III_Result r) {
+            r.r1 = storage.addUser(Fixtures.user("first")).getId();
+        }
+
+        @Actor
+        public void second(III_Result r) {
+            r.r2 = storage.addUser(Fixtures.user("second")).getId();
+        }
+
+        @Arbiter
+        public void count(III_Result r) {
+            r.r3 = storage.getAllUsers().size();
+        }
+    }
+}
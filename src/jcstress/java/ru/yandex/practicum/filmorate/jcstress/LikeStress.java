@@ -0,0 +1,163 @@
+package ru.yandex.practicum.filmorate.jcstress;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Description;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.IIII_Result;
+import org.openjdk.jcstress.infra.results.II_Result;
+import org.openjdk.jcstress.infra.results.ZZ_Result;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.FriendGraph;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * Лайки: изменения одного фильма не теряются, счётчик rate и обратный индекс
+ * «пользователь → фильмы» всегда согласованы с множеством лайков.
+ */
+public class LikeStress {
+
+    /**
+     * 1, если rate и обратный индекс совпадают с множеством лайков фильма 1.
+     */
+    static int consistent(InMemoryFilmStorage storage, int userId) {
+        Film film = storage.getFilmById(1).orElseThrow();
+        boolean liked = film.getLikes().contains(userId);
+        boolean indexed = storage.getLikedFilmIds(userId).contains(1);
+        return film.getRate() == film.getLikes().size() && liked == indexed ? 1 : 0;
+    }
+
+    @JCStressTest
+    @Description("addLike и removeLike одного лайка: результат соответствует одному из порядков")
+    @Outcome(id = "1, 1, 0, 1", expect = ACCEPTABLE, desc = "Лайк поставлен, затем снят")
+    @Outcome(id = "1, 0, 1, 1", expect = ACCEPTABLE, desc = "Снимать было нечего, затем лайк поставлен")
+    @Outcome(expect = FORBIDDEN, desc = "Результаты вызовов расходятся с итоговым состоянием или индексом")
+    @State
+    public static class AddVersusRemove {
+        private final InMemoryFilmStorage storage = new InMemoryFilmStorage();
+
+        public AddVersusRemove() {
+            storage.addFilm(Fixtures.film("film"));
+        }
+
+        @Actor
+        public void add(IIII_Result r) {
+            r.r1 = storage.addLike(1, 7) ? 1 : 0;
+        }
+
+        @Actor
+        public void remove(IIII_Result r) {
+            r.r2 = storage.removeLike(1, 7) ? 1 : 0;
+        }
+
+        @Arbiter
+        public void state(IIII_Result r) {
+            r.r3 = storage.getFilmById(1).orElseThrow().getLikes().size();
+            r.r4 = consistent(storage, 7);
+        }
+    }
+
+    @JCStressTest
+    @Description("Лайки разных пользователей одному фильму не затирают друг друга")
+    @Outcome(id = "2, 2", expect = ACCEPTABLE, desc = "Оба лайка сохранены, rate верен")
+    @Outcome(expect = FORBIDDEN, desc = "Потерянное обновление")
+    @State
+    public static class DifferentUsers {
+        private final InMemoryFilmStorage storage = new InMemoryFilmStorage();
+
+        public DifferentUsers() {
+            storage.addFilm(Fixtures.film("film"));
+        }
+
+        @Actor
+        public void first() {
+            storage.addLike(1, 1);
+        }
+
+        @Actor
+        public void second() {
+            storage.addLike(1, 2);
+        }
+
+        @Arbiter
+        public void state(II_Result r) {
+            Film film = storage.getFilmById(1).orElseThrow();
+            r.r1 = film.getLikes().size();
+            r.r2 = film.getRate();
+        }
+    }
+
+    @JCStressTest
+    @Description("Повторный лайк того же пользователя засчитывается ровно один раз")
+    @Outcome(id = {"true, false", "false, true"}, expect = ACCEPTABLE, desc = "Изменил состояние ровно один вызов")
+    @Outcome(expect = FORBIDDEN, desc = "Оба или ни один вызов не сообщили об изменении")
+    @State
+    public static class SameUserTwice {
+        private final InMemoryFilmStorage storage = new InMemoryFilmStorage();
+
+        public SameUserTwice() {
+            storage.addFilm(Fixtures.film("film"));
+        }
+
+        @Actor
+        public void first(ZZ_Result r) {
+            r.r1 = storage.addLike(1, 1);
+        }
+
+        @Actor
+        public void second(ZZ_Result r) {
+            r.r2 = storage.addLike(1, 1);
+        }
+    }
+
+    @JCStressTest
+    @Description("FilmService.addLike одновременно с удалением пользователя не оставляет его лайк")
+    @Outcome(id = {"0, 0", "1, 0"}, expect = ACCEPTABLE,
+            desc = "Лайк не поставлен (1 — пользователь уже не найден) или снят удалением")
+    @Outcome(expect = FORBIDDEN, desc = "Висячий лайк удалённого пользователя")
+    @State
+    public static class LikeVersusUserDeletion {
+        private final InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        private final InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        private final DomainEventBus eventBus = new DomainEventBus();
+        private final FilmService filmService = new FilmService(filmStorage, userStorage, eventBus,
+                Fixtures.POPULARITY);
+        private final FriendGraph friendGraph = new FriendGraph(userStorage, 60_000, 6);
+        private final UserService userService = new UserService(userStorage, filmStorage, eventBus, friendGraph);
+
+        public LikeVersusUserDeletion() {
+            filmStorage.addFilm(Fixtures.film("film"));
+            userStorage.addUser(Fixtures.user("user"));
+        }
+
+        @Actor
+        public void like(II_Result r) {
+            try {
+                filmService.addLike(1, 1);
+            } catch (NotFoundException e) {
+                r.r1 = 1;
+            }
+        }
+
+        @Actor
+        public void delete() {
+            userService.deleteUser(1);
+        }
+
+        @Arbiter
+        public void state(II_Result r) {
+            r.r2 = filmStorage.getFilmById(1).orElseThrow().getLikes().size();
+            friendGraph.close();
+        }
+    }
+}
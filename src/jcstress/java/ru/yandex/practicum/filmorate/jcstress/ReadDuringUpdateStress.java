@@ -0,0 +1,100 @@
+package ru.yandex.practicum.filmorate.jcstress;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Description;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import static org.openjdk.jcstress.annotations.Expect.ACCEPTABLE;
+import static org.openjdk.jcstress.annotations.Expect.FORBIDDEN;
+
+/**
+ * Чтение во время записи: хранилища публикуют неизменяемые версии, поэтому читатель
+ * видит объект целиком старым или целиком новым, но не смесь полей.
+ */
+public class ReadDuringUpdateStress {
+
+    @JCStressTest
+    @Description("getFilmById во время updateFilm не видит наполовину обновлённый фильм")
+    @Outcome(id = {"0, 0", "1, 1"}, expect = ACCEPTABLE, desc = "Старая или новая версия целиком")
+    @Outcome(expect = FORBIDDEN, desc = "Смесь полей двух версий")
+    @State
+    public static class FilmUpdate {
+        private final InMemoryFilmStorage storage = new InMemoryFilmStorage();
+
+        public FilmUpdate() {
+            storage.addFilm(Fixtures.film("old"));
+        }
+
+        @Actor
+        public void update() {
+            Film film = Fixtures.film("new");
+            film.setId(1);
+            storage.updateFilm(film);
+        }
+
+        @Actor
+        public void read(II_Result r) {
+            Film film = storage.getFilmById(1).orElseThrow();
+            r.r1 = film.getName().equals("new") ? 1 : 0;
+            r.r2 = film.getDescription().equals("new") ? 1 : 0;
+        }
+    }
+
+    @JCStressTest
+    @Description("getPopularFilms во время addLike видит rate, согласованный с лайками")
+    @Outcome(id = {"0, 0", "1, 1"}, expect = ACCEPTABLE, desc = "Версия до или после лайка")
+    @Outcome(expect = FORBIDDEN, desc = "rate не совпадает с числом лайков")
+    @State
+    public static class PopularDuringLike {
+        private final InMemoryFilmStorage storage = new InMemoryFilmStorage();
+
+        public PopularDuringLike() {
+            storage.addFilm(Fixtures.film("film"));
+        }
+
+        @Actor
+        public void like() {
+            storage.addLike(1, 1);
+        }
+
+        @Actor
+        public void read(II_Result r) {
+            Film film = storage.getPopularFilms(1).get(0);
+            r.r1 = film.getRate();
+            r.r2 = film.getLikes().size();
+        }
+    }
+
+    @JCStressTest
+    @Description("getUserById во время addFriend видит друзей целиком до или после изменения")
+    @Outcome(id = {"0, 0", "1, 1"}, expect = ACCEPTABLE, desc = "Версия до или после добавления друга")
+    @Outcome(expect = FORBIDDEN, desc = "Друг виден в одной версии множества и не виден в другой")
+    @State
+    public static class UserFriendsRead {
+        private final InMemoryUserStorage storage = new InMemoryUserStorage();
+
+        public UserFriendsRead() {
+            storage.addUser(Fixtures.user("first"));
+            storage.addUser(Fixtures.user("second"));
+        }
+
+        @Actor
+        public void add() {
+            storage.addFriend(1, 2);
+        }
+
+        @Actor
+        public void read(II_Result r) {
+            User user = storage.getUserById(1).orElseThrow();
+            r.r1 = user.getFriends().size();
+            r.r2 = user.getFriends().contains(2) ? 1 : 0;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.profiling.ResourceAccounting;
+import ru.yandex.practicum.filmorate.profiling.SlowRequestDetector;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.SingleFlight;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Служебные показатели сервисов. Отдают параметры запросов и стеки потоков и не проверяют,
+ * кто спрашивает, поэтому включаются только явно — filmorate.admin.enabled=true — и только
+ * там, где порт приложения закрыт от внешних клиентов.
+ */
+@RestController
+@Profile("!reactive")
+@ConditionalOnProperty(name = "filmorate.admin.enabled", havingValue = "true")
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final FilmService filmService;
+    private final UserService userService;
+    private final ResourceAccounting resourceAccounting;
+    private final SlowRequestDetector slowRequestDetector;
+
+    @GetMapping("/single-flight")
+    public List<SingleFlight.Stats> getSingleFlightStats() {
+        List<SingleFlight.Stats> stats = new ArrayList<>(filmService.singleFlightStats());
+        stats.addAll(userService.singleFlightStats());
+        return stats;
+    }
+
+    /**
+     * Выделенная память и процессорное время запросов по маршрутам, по выборке запросов.
+     */
+    @GetMapping("/resources")
+    public ResourceAccounting.Report getResourceUsage() {
+        return resourceAccounting.report();
+    }
+
+    @DeleteMapping("/resources")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void resetResourceUsage() {
+        resourceAccounting.reset();
+    }
+
+    /**
+     * Последние запросы, превысившие порог маршрута, новые первыми.
+     */
+    @GetMapping("/slow-requests")
+    public List<SlowRequestDetector.SlowRequest> getSlowRequests(@RequestParam(defaultValue = "50") int limit) {
+        return slowRequestDetector.recent(limit);
+    }
+
+    @DeleteMapping("/slow-requests")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void clearSlowRequests() {
+        slowRequestDetector.clear();
+    }
+}
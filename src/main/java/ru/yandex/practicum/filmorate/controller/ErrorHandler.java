@@ -6,39 +6,96 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
+import org.springframework.web.util.DisconnectedClientHelper;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @RestControllerAdvice
 @Slf4j
 public class ErrorHandler {
 
+    private static final ErrorResponse INTERNAL_ERROR = new ErrorResponse("Внутренняя ошибка сервера");
+    private static final int MAX_CACHED_BODIES = 256;
+
+    // Ошибки 400 и 404 — ответ на действия клиента, и сканеры несуществующих id не должны заливать лог.
+    private final LogThrottle validationLog = new LogThrottle(10, 20);
+    private final LogThrottle notFoundLog = new LogThrottle(10, 20);
+    // Тексты ошибок валидации берутся из аннотаций и сервисов, поэтому их конечное число.
+    private final Map<String, ErrorResponse> validationBodies = new ConcurrentHashMap<>();
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidationException(final ValidationException e) {
-        log.error("Ошибка валидации: {}", e.getMessage());
-        return new ErrorResponse(e.getMessage());
+        return validationError(e.getMessage());
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleMethodArgumentNotValidException(final MethodArgumentNotValidException e) {
         String message = e.getBindingResult().getAllErrors().get(0).getDefaultMessage();
-        log.error("Ошибка валидации: {}", message);
-        return new ErrorResponse(message);
+        return validationError(message);
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleWebExchangeBindException(final WebExchangeBindException e) {
+        String message = e.getBindingResult().getAllErrors().get(0).getDefaultMessage();
+        return validationError(message);
     }
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleNotFoundException(final NotFoundException e) {
-        log.error("Ресурс не найден: {}", e.getMessage());
+        long suppressed = notFoundLog.tryLog();
+        if (suppressed >= 0) {
+            log.warn("Ресурс не найден: {} (пропущено похожих сообщений: {})", e.getMessage(), suppressed);
+        }
         return new ErrorResponse(e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ErrorResponse handleNoResourceFoundException(final NoResourceFoundException e) {
+        // Неизвестный путь, в том числе выключенные /admin/*, — 404, а не внутренняя ошибка
+        long suppressed = notFoundLog.tryLog();
+        if (suppressed >= 0) {
+            log.warn("Ресурс не найден: /{} (пропущено похожих сообщений: {})", e.getResourcePath(), suppressed);
+        }
+        return new ErrorResponse("Ресурс /" + e.getResourcePath() + " не найден");
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleServerException(final Exception e) {
+        if (DisconnectedClientHelper.isClientDisconnectedException(e)) {
+            // Клиент ушёл посреди ответа (обычно при закрытии ленты изменений) — писать уже некуда
+            log.debug("Клиент отключился: {}", e.getMessage());
+            return null;
+        }
         log.error("Внутренняя ошибка сервера: {}", e.getMessage());
-        return new ErrorResponse("Внутренняя ошибка сервера");
+        return INTERNAL_ERROR;
+    }
+
+    private ErrorResponse validationError(String message) {
+        long suppressed = validationLog.tryLog();
+        if (suppressed >= 0) {
+            log.warn("Ошибка валидации: {} (пропущено похожих сообщений: {})", message, suppressed);
+        }
+        if (message == null) {
+            return new ErrorResponse(null);
+        }
+        ErrorResponse body = validationBodies.get(message);
+        if (body != null) {
+            return body;
+        }
+        if (validationBodies.size() >= MAX_CACHED_BODIES) {
+            return new ErrorResponse(message);
+        }
+        return validationBodies.computeIfAbsent(message, ErrorResponse::new);
     }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.yandex.practicum.filmorate.event.ChangeFeed;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Лента изменений по SSE. Продолжить после разрыва можно с заголовком Last-Event-ID
+ * или параметром after; без них поток начинается с текущего момента.
+ * Каждого клиента обслуживает свой виртуальный поток, так что медленное соединение
+ * блокирует только его.
+ */
+@RestController
+@Profile("!reactive")
+@Slf4j
+@RequiredArgsConstructor
+public class FeedController {
+
+    static final int BATCH_SIZE = 256;
+    static final long HEARTBEAT_MILLIS = 15_000;
+    static final long RETRY_MILLIS = 1000;
+
+    private final ChangeFeed changeFeed;
+
+    @GetMapping(value = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                    @RequestParam(required = false) Long after) {
+        long start = lastEventId != null ? lastEventId : after != null ? after : changeFeed.head();
+        log.info("Подписка на ленту изменений после смещения {}", start);
+        SseEmitter emitter = new SseEmitter(0L);
+        Thread sender = Thread.ofVirtual().name("change-feed-client").unstarted(() -> stream(emitter, start));
+        emitter.onCompletion(sender::interrupt);
+        emitter.onError(error -> sender.interrupt());
+        sender.start();
+        return emitter;
+    }
+
+    private void stream(SseEmitter emitter, long start) {
+        long cursor = start;
+        try {
+            // Первая запись сразу отдаёт клиенту заголовки и задержку переподключения
+            emitter.send(SseEmitter.event().reconnectTime(RETRY_MILLIS));
+            while (!Thread.currentThread().isInterrupted()) {
+                List<ChangeFeed.Entry> entries = changeFeed.read(cursor, BATCH_SIZE, HEARTBEAT_MILLIS);
+                if (entries.isEmpty()) {
+                    // Комментарий держит соединение и обнаруживает ушедших клиентов
+                    emitter.send(SseEmitter.event().comment("ping"));
+                    continue;
+                }
+                // Вся пачка уходит одной записью в сокет
+                Set<ResponseBodyEmitter.DataWithMediaType> batch = new LinkedHashSet<>();
+                for (ChangeFeed.Entry entry : entries) {
+                    batch.addAll(SseEmitter.event()
+                            .id(Long.toString(entry.offset()))
+                            .name(entry.name())
+                            .data(entry.data(), MediaType.APPLICATION_JSON)
+                            .build());
+                }
+                emitter.send(batch);
+                cursor = entries.get(entries.size() - 1).offset();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Клиент ленты изменений отключился: {}", e.getMessage());
+        }
+    }
+}
@@ -3,16 +3,17 @@ package ru.yandex.practicum.filmorate.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
-import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.PopularFilmEstimate;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
-import java.time.LocalDate;
 import java.util.List;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/films")
 @Slf4j
 @RequiredArgsConstructor
@@ -24,14 +25,12 @@ public class FilmController {
     @ResponseStatus(HttpStatus.CREATED)
     public Film addFilm(@Valid @RequestBody Film film) {
         log.info("Добавление фильма: {}", film.getName());
-        validateReleaseDate(film.getReleaseDate());
         return filmService.addFilm(film);
     }
 
     @PutMapping
     public Film updateFilm(@Valid @RequestBody Film film) {
         log.info("Обновление фильма с id: {}", film.getId());
-        validateReleaseDate(film.getReleaseDate());
         return filmService.updateFilm(film);
     }
 
@@ -72,9 +71,9 @@ public class FilmController {
         return filmService.getPopularFilms(count);
     }
 
-    private void validateReleaseDate(LocalDate releaseDate) {
-        if (releaseDate.isBefore(LocalDate.of(1895, 12, 28))) {
-            throw new ValidationException("Дата релиза не может быть раньше 28 декабря 1895 года");
-        }
+    @GetMapping(value = "/popular", params = "approx=true")
+    public List<PopularFilmEstimate> getApproximatePopularFilms(@RequestParam(defaultValue = "10") Integer count) {
+        log.info("Получение {} популярных фильмов по приближённому рейтингу", count);
+        return filmService.getApproximatePopularFilms(count);
     }
-}
\ No newline at end of file
+}
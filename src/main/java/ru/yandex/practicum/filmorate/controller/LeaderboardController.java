@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.yandex.practicum.filmorate.service.PopularityLeaderboard;
+
+import java.io.IOException;
+
+/**
+ * Живая таблица популярных фильмов по SSE: сначала снимок (snapshot), затем только
+ * изменённые позиции (diff). Если клиент пропустил версию, он получает новый снимок.
+ */
+@RestController
+@Profile("!reactive")
+@Slf4j
+@RequiredArgsConstructor
+public class LeaderboardController {
+
+    private final PopularityLeaderboard leaderboard;
+
+    @GetMapping(value = "/films/popular/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPopularFilms(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        log.info("Подписка на таблицу популярных фильмов");
+        long known = knownVersion(leaderboard, lastEventId);
+        SseEmitter emitter = new SseEmitter(0L);
+        Thread sender = Thread.ofVirtual().name("leaderboard-client").unstarted(() -> stream(emitter, known));
+        emitter.onCompletion(sender::interrupt);
+        emitter.onError(error -> sender.interrupt());
+        sender.start();
+        return emitter;
+    }
+
+    /**
+     * Версия из Last-Event-ID, если она относится к текущей жизни процесса, иначе 0.
+     */
+    static long knownVersion(PopularityLeaderboard leaderboard, Long lastEventId) {
+        return lastEventId != null && lastEventId <= leaderboard.current().version() ? lastEventId : 0;
+    }
+
+    static boolean isDiff(PopularityLeaderboard.Update update, long known) {
+        return known > 0 && update.version() == known + 1;
+    }
+
+    private void stream(SseEmitter emitter, long known) {
+        try {
+            emitter.send(SseEmitter.event().reconnectTime(FeedController.RETRY_MILLIS));
+            while (!Thread.currentThread().isInterrupted()) {
+                PopularityLeaderboard.Update update = leaderboard.awaitNewer(known, FeedController.HEARTBEAT_MILLIS);
+                if (update == null) {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                    continue;
+                }
+                boolean diff = isDiff(update, known);
+                // Готовая JSON-строка уходит как есть, без повторной сериализации
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(update.version()))
+                        .name(diff ? "diff" : "snapshot")
+                        .data(diff ? update.diffJson() : update.snapshotJson()));
+                known = update.version();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Клиент таблицы популярных фильмов отключился: {}", e.getMessage());
+        }
+    }
+}
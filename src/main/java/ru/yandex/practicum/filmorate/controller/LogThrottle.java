@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import ru.yandex.practicum.filmorate.ratelimit.TokenBucket;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ограничивает частоту однотипных записей в лог. Пропущенные записи считаются,
+ * и их число выводится вместе со следующей разрешённой записью.
+ */
+class LogThrottle {
+
+    private final TokenBucket bucket;
+    private final AtomicLong suppressed = new AtomicLong();
+
+    LogThrottle(double messagesPerSecond, int burst) {
+        this.bucket = new TokenBucket(messagesPerSecond, burst);
+    }
+
+    /**
+     * Число пропущенных с прошлой записи сообщений, если сейчас можно писать в лог, иначе -1.
+     */
+    long tryLog() {
+        if (bucket.tryAcquire(System.nanoTime())) {
+            return suppressed.getAndSet(0);
+        }
+        suppressed.incrementAndGet();
+        return -1;
+    }
+}
@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import ru.yandex.practicum.filmorate.model.User;
@@ -11,6 +12,7 @@ import ru.yandex.practicum.filmorate.service.UserService;
 import java.util.List;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/users")
 @Slf4j
 @RequiredArgsConstructor
@@ -73,4 +75,10 @@ public class UserController {
         log.info("Получение общих друзей пользователей {} и {}", id, otherId);
         return userService.getCommonFriends(id, otherId);
     }
+
+    @GetMapping("/{id}/path/{otherId}")
+    public List<User> getFriendshipPath(@PathVariable Integer id, @PathVariable Integer otherId) {
+        log.info("Поиск цепочки друзей от пользователя {} до {}", id, otherId);
+        return userService.getFriendshipPath(id, otherId);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+package ru.yandex.practicum.filmorate.event;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Лента изменений для внешних потребителей: последние события шины в кольцевом буфере
+ * с монотонными смещениями. Буфер наполняет отдельный подписчик шины, поэтому пишущие
+ * потоки ленту не ждут. Каждый читатель ведёт собственный курсор; медленный читатель
+ * ничего не задерживает, а отстав больше чем на ёмкость буфера, получает запись сброса.
+ */
+@Component
+@Slf4j
+public class ChangeFeed {
+
+    private static final int QUEUE_CAPACITY = 65_536;
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * Событие ленты. Запись без события — сброс: события до её смещения частично потеряны,
+     * и читателю нужно перечитать состояние целиком.
+     */
+    public record Entry(long offset, DomainEvent event) {
+
+        public boolean isReset() {
+            return event == null;
+        }
+
+        public String name() {
+            return isReset() ? "reset" : event.type().name();
+        }
+
+        public Object data() {
+            return isReset() ? Map.of("offset", offset) : event;
+        }
+    }
+
+    private final Entry[] ring;
+    private final int mask;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final DomainEventBus eventBus;
+    private final DomainEventBus.Subscription subscription;
+    private long head;
+    private long seenDropped;
+
+    public ChangeFeed(DomainEventBus eventBus, @Value("${filmorate.feed.capacity:4096}") int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ёмкость ленты должна быть положительной");
+        }
+        int size = Integer.highestOneBit(capacity);
+        size = size < capacity ? size << 1 : size;
+        this.ring = new Entry[size];
+        this.mask = size - 1;
+        this.eventBus = eventBus;
+        this.subscription = eventBus.subscribe("change-feed", QUEUE_CAPACITY, BATCH_SIZE, this::append);
+    }
+
+    /**
+     * Смещение последней записи, 0 — лента пуста.
+     */
+    public long head() {
+        lock.lock();
+        try {
+            return head;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return ring.length;
+    }
+
+    /**
+     * До max записей со смещением больше after. Если таких ещё нет, ждёт их не дольше
+     * timeoutMillis и возвращает пустой список. Если часть записей после after уже вытеснена
+     * (или after из прошлой жизни процесса), первой идёт запись сброса.
+     */
+    public List<Entry> read(long after, int max, long timeoutMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            if (after > head) {
+                return List.of(new Entry(head, null));
+            }
+            long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (head == after) {
+                if (remaining <= 0) {
+                    return List.of();
+                }
+                remaining = appended.awaitNanos(remaining);
+            }
+            long oldest = Math.max(1, head - ring.length + 1);
+            List<Entry> result = new ArrayList<>((int) Math.min(max, head - after + 1));
+            long from = after + 1;
+            if (from < oldest) {
+                result.add(new Entry(oldest - 1, null));
+                from = oldest;
+            }
+            for (long offset = from; offset <= head && result.size() < max; offset++) {
+                result.add(ring[(int) (offset & mask)]);
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        eventBus.unsubscribe(subscription);
+    }
+
+    private void append(List<DomainEvent> events) {
+        lock.lock();
+        try {
+            // Подписка присваивается после запуска её потока, первая пачка может прийти раньше
+            long dropped = subscription != null ? subscription.droppedEvents() : 0;
+            if (dropped != seenDropped) {
+                // Очередь шины переполнялась: где-то перед этой пачкой есть пропуски
+                seenDropped = dropped;
+                put(null);
+                log.warn("Лента изменений потеряла события, читателям отправлен сброс");
+            }
+            for (DomainEvent event : events) {
+                put(event);
+            }
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(DomainEvent event) {
+        head++;
+        ring[(int) (head & mask)] = new Entry(head, event);
+    }
+}
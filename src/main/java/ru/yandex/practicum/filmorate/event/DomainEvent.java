@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.event;
+
+/**
+ * Доменное событие сервисов. Для лайков entityId — фильм, relatedId — пользователь,
+ * для дружбы entityId — пользователь, relatedId — его друг. У событий самих фильмов
+ * и пользователей relatedId равен null.
+ */
+public record DomainEvent(Type type, Integer entityId, Integer relatedId) {
+
+    public enum Type {
+        FILM_ADDED,
+        FILM_UPDATED,
+        FILM_DELETED,
+        USER_ADDED,
+        USER_UPDATED,
+        USER_DELETED,
+        LIKE_ADDED,
+        LIKE_REMOVED,
+        FRIEND_ADDED,
+        FRIEND_REMOVED
+    }
+}
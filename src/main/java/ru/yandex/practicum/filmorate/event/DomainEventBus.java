@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate.event;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Внутрипроцессная шина доменных событий. У каждого подписчика своя ограниченная очередь
+ * и свой поток, который забирает события пачками. Публикация никогда не блокирует
+ * пишущий поток: если очередь подписчика заполнена, событие для него отбрасывается
+ * и учитывается в счётчике потерь.
+ */
+@Component
+@Slf4j
+public class DomainEventBus {
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final List<Consumer<DomainEvent>> publishListeners = new CopyOnWriteArrayList<>();
+
+    public void publish(DomainEvent event) {
+        for (Consumer<DomainEvent> listener : publishListeners) {
+            listener.accept(event);
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    public Subscription subscribe(String name, int capacity, int batchSize, Consumer<List<DomainEvent>> consumer) {
+        Subscription subscription = new Subscription(name, capacity, batchSize, consumer);
+        subscriptions.add(subscription);
+        subscription.worker.start();
+        return subscription;
+    }
+
+    /**
+     * Слушатель, вызываемый синхронно в потоке публикации, до раздачи подписчикам.
+     * Должен быть быстрым: он задерживает пишущий поток.
+     */
+    public void addPublishListener(Consumer<DomainEvent> listener) {
+        publishListeners.add(listener);
+    }
+
+    public void unsubscribe(Subscription subscription) {
+        subscriptions.remove(subscription);
+        subscription.worker.interrupt();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.forEach(this::unsubscribe);
+    }
+
+    public static final class Subscription {
+        private final String name;
+        private final BlockingQueue<DomainEvent> queue;
+        private final int batchSize;
+        private final Consumer<List<DomainEvent>> consumer;
+        private final Thread worker;
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+
+        private Subscription(String name, int capacity, int batchSize, Consumer<List<DomainEvent>> consumer) {
+            this.name = name;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.batchSize = batchSize;
+            this.consumer = consumer;
+            this.worker = new Thread(this::run, "event-bus-" + name);
+            this.worker.setDaemon(true);
+        }
+
+        public long deliveredEvents() {
+            return delivered.get();
+        }
+
+        public long droppedEvents() {
+            return dropped.get();
+        }
+
+        public int pendingEvents() {
+            return queue.size();
+        }
+
+        private void offer(DomainEvent event) {
+            if (!queue.offer(event) && dropped.incrementAndGet() % 1000 == 1) {
+                log.warn("Очередь подписчика {} переполнена, потеряно событий: {}", name, dropped.get());
+            }
+        }
+
+        private void run() {
+            List<DomainEvent> batch = new ArrayList<>(batchSize);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                queue.drainTo(batch, batchSize - 1);
+                try {
+                    consumer.accept(List.copyOf(batch));
+                } catch (RuntimeException e) {
+                    log.error("Ошибка обработки событий подписчиком {}: {}", name, e.getMessage());
+                }
+                delivered.addAndGet(batch.size());
+                batch.clear();
+            }
+        }
+    }
+}
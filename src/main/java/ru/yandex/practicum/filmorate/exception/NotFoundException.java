@@ -1,7 +1,11 @@
 package ru.yandex.practicum.filmorate.exception;
 
+/**
+ * Без стека и подавленных исключений: исключение описывает ответ клиенту, а не сбой,
+ * и обход стека при каждом запросе к несуществующему id ничего не даёт.
+ */
 public class NotFoundException extends RuntimeException {
     public NotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,10 @@
 package ru.yandex.practicum.filmorate.exception;
 
+/**
+ * Некорректные данные запроса, ответ 400. Создаётся без стека: это ошибка клиента, а не сбой сервера.
+ */
 public class ValidationException extends RuntimeException {
     public ValidationException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.*;
 import lombok.Data;
 
@@ -19,5 +20,19 @@ public class Film {
     @Positive(message = "Продолжительность фильма должна быть положительной")
     private int duration;
     private Set<Integer> likes = new HashSet<>();
+    // Число лайков, которое хранилище пересчитывает в каждой новой версии фильма
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private Integer rate;
+
+    public Film withLikes(Set<Integer> likes) {
+        Film copy = new Film();
+        copy.setId(id);
+        copy.setName(name);
+        copy.setDescription(description);
+        copy.setReleaseDate(releaseDate);
+        copy.setDuration(duration);
+        copy.setLikes(likes);
+        copy.setRate(likes.size());
+        return copy;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.model;
+
+/**
+ * Позиция в таблице популярных фильмов; rank начинается с 1.
+ */
+public record LeaderboardEntry(int rank, int filmId, String name, int likes) {
+}
@@ -0,0 +1,8 @@
+package ru.yandex.practicum.filmorate.model;
+
+/**
+ * Фильм из приближённого рейтинга: истинное число лайков лежит в диапазоне
+ * [estimatedLikes - maxError, estimatedLikes].
+ */
+public record PopularFilmEstimate(Film film, long estimatedLikes, long maxError) {
+}
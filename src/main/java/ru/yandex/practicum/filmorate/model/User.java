@@ -25,4 +25,15 @@ public class User {
     public String getName() {
         return (name == null || name.isBlank()) ? login : name;
     }
+
+    public User withFriends(Set<Integer> friends) {
+        User copy = new User();
+        copy.setId(id);
+        copy.setEmail(email);
+        copy.setLogin(login);
+        copy.setName(name);
+        copy.setBirthday(birthday);
+        copy.setFriends(friends);
+        return copy;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import lombok.RequiredArgsConstructor;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Хранилище фильмов, отмечающее вызовы событиями {@link StorageOperationEvent}.
+ */
+@RequiredArgsConstructor
+class ProfilingFilmStorage implements FilmStorage {
+
+    private static final String STORAGE = "film";
+
+    private final FilmStorage delegate;
+
+    @Override
+    public Film addFilm(Film film) {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        Film added = delegate.addFilm(film);
+        event.finish(STORAGE, "addFilm", added.getId(), 0, 1);
+        return added;
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        Film updated = delegate.updateFilm(film);
+        event.finish(STORAGE, "updateFilm", film.getId(), 0, 1);
+        return updated;
+    }
+
+    @Override
+    public void deleteFilm(Integer id) {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        delegate.deleteFilm(id);
+        event.finish(STORAGE, "deleteFilm", id, 0, 0);
+    }
+
+    @Override
+    public Optional<Film> getFilmById(Integer id) {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        Optional<Film> film = delegate.getFilmById(id);
+        event.finish(STORAGE, "getFilmById", id, 0, film.isPresent() ? 1 : 0);
+        return film;
+    }
+
+    @Override
+    public List<Film> getAllFilms() {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        List<Film> films = delegate.getAllFilms();
+        event.finish(STORAGE, "getAllFilms", 0, 0, films.size());
+        return films;
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        List<Film> films = delegate.getPopularFilms(count);
+        event.finish(STORAGE, "getPopularFilms", 0, 0, films.size());
+        return films;
+    }
+
+    @Override
+    public boolean addLike(Integer filmId, Integer userId) {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        boolean changed = delegate.addLike(filmId, userId);
+        event.finish(STORAGE, "addLike", filmId, userId, changed ? 1 : 0);
+        return changed;
+    }
+
+    @Override
+    public boolean removeLike(Integer filmId, Integer userId) {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        boolean changed = delegate.removeLike(filmId, userId);
+        event.finish(STORAGE, "removeLike", filmId, userId, changed ? 1 : 0);
+        return changed;
+    }
+
+    @Override
+    public Set<Integer> getLikedFilmIds(Integer userId) {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        Set<Integer> ids = delegate.getLikedFilmIds(userId);
+        event.finish(STORAGE, "getLikedFilmIds", userId, 0, ids.size());
+        return ids;
+    }
+
+    @Override
+    public void reserveIds(int lastId) {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        delegate.reserveIds(lastId);
+        event.finish(STORAGE, "reserveIds", lastId, 0, 0);
+    }
+}
@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+/**
+ * Оборачивает хранилища событиями JFR. Пока запись не идёт или события выключены,
+ * обёртка стоит один лишний вызов: JFR не инструментирует отключённые события.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.jfr.enabled", havingValue = "true", matchIfMissing = true)
+public class ProfilingStoragePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof FilmStorage filmStorage) {
+            return new ProfilingFilmStorage(filmStorage);
+        }
+        if (bean instanceof UserStorage userStorage) {
+            return new ProfilingUserStorage(userStorage);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import lombok.RequiredArgsConstructor;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Хранилище пользователей, отмечающее вызовы событиями {@link StorageOperationEvent}.
+ */
+@RequiredArgsConstructor
+class ProfilingUserStorage implements UserStorage {
+
+    private static final String STORAGE = "user";
+
+    private final UserStorage delegate;
+
+    @Override
+    public User addUser(User user) {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        User added = delegate.addUser(user);
+        event.finish(STORAGE, "addUser", added.getId(), 0, 1);
+        return added;
+    }
+
+    @Override
+    public User updateUser(User user) {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        User updated = delegate.updateUser(user);
+        event.finish(STORAGE, "updateUser", user.getId(), 0, 1);
+        return updated;
+    }
+
+    @Override
+    public void deleteUser(Integer id) {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        delegate.deleteUser(id);
+        event.finish(STORAGE, "deleteUser", id, 0, 0);
+    }
+
+    @Override
+    public Optional<User> getUserById(Integer id) {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        Optional<User> user = delegate.getUserById(id);
+        event.finish(STORAGE, "getUserById", id, 0, user.isPresent() ? 1 : 0);
+        return user;
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        List<User> users = delegate.getAllUsers();
+        event.finish(STORAGE, "getAllUsers", 0, 0, users.size());
+        return users;
+    }
+
+    @Override
+    public boolean addFriend(Integer userId, Integer friendId) {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        boolean changed = delegate.addFriend(userId, friendId);
+        event.finish(STORAGE, "addFriend", userId, friendId, changed ? 1 : 0);
+        return changed;
+    }
+
+    @Override
+    public boolean removeFriend(Integer userId, Integer friendId) {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        boolean changed = delegate.removeFriend(userId, friendId);
+        event.finish(STORAGE, "removeFriend", userId, friendId, changed ? 1 : 0);
+        return changed;
+    }
+
+    @Override
+    public Set<Integer> getInboundFriendIds(Integer userId) {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        Set<Integer> ids = delegate.getInboundFriendIds(userId);
+        event.finish(STORAGE, "getInboundFriendIds", userId, 0, ids.size());
+        return ids;
+    }
+
+    @Override
+    public void reserveIds(int lastId) {
+        StorageOperationEvent event = StorageOperationEvent.start();
+        delegate.reserveIds(lastId);
+        event.finish(STORAGE, "reserveIds", lastId, 0, 0);
+    }
+}
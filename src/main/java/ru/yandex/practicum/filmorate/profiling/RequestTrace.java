@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время, проведённое запросом в операциях сервисов и хранилищ. Трасса привязана к потоку
+ * запроса; операции вне трассы (фоновые потоки, запросы без порога) не учитываются.
+ * Операции отмечают события {@link StorageOperationEvent} и {@link ServiceOperationEvent}.
+ */
+public final class RequestTrace {
+
+    static final long INACTIVE = Long.MIN_VALUE;
+    static final String SERVICE = "service";
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Операция name ("film.getPopularFilms", "service.getFriends") вызвана calls раз,
+     * resultSize — размер результата последнего вызова.
+     */
+    public record Phase(String name, int calls, long totalMicros, int resultSize) {
+    }
+
+    private static final class Totals {
+        int calls;
+        long nanos;
+        int resultSize;
+    }
+
+    private final Map<String, Totals> phases = new LinkedHashMap<>();
+    private int resultSize = -1;
+
+    private RequestTrace() {
+    }
+
+    static RequestTrace begin() {
+        RequestTrace trace = new RequestTrace();
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Метка начала операции, если поток ведёт трассу, иначе {@link #INACTIVE}.
+     */
+    static long now() {
+        return CURRENT.get() != null ? System.nanoTime() : INACTIVE;
+    }
+
+    static void phase(String layer, String operation, long startNanos, int resultSize) {
+        if (startNanos == INACTIVE) {
+            return;
+        }
+        RequestTrace trace = CURRENT.get();
+        if (trace == null) {
+            return;
+        }
+        Totals totals = trace.phases.computeIfAbsent(layer + "." + operation, name -> new Totals());
+        totals.calls++;
+        totals.nanos += System.nanoTime() - startNanos;
+        totals.resultSize = resultSize;
+        if (SERVICE.equals(layer)) {
+            trace.resultSize = resultSize;
+        }
+    }
+
+    /**
+     * Размер результата последней операции сервиса, -1 — запрос их не вызывал.
+     */
+    int resultSize() {
+        return resultSize;
+    }
+
+    List<Phase> phases() {
+        List<Phase> result = new ArrayList<>(phases.size());
+        phases.forEach((name, totals) -> result.add(new Phase(name, totals.calls,
+                TimeUnit.NANOSECONDS.toMicros(totals.nanos), totals.resultSize)));
+        return result;
+    }
+}
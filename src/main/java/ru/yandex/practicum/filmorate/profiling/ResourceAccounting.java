@@ -0,0 +1,111 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Учёт выделенной памяти и процессорного времени по маршрутам. Значения берутся из счётчиков
+ * текущего потока {@link com.sun.management.ThreadMXBean}, поэтому учитывается только работа,
+ * выполненная в потоке запроса. Измеряется доля запросов filmorate.resource-accounting.sample-rate.
+ */
+@Component
+@Slf4j
+public class ResourceAccounting {
+
+    static final String OTHER_ROUTES = "other";
+
+    /**
+     * samples — число измеренных запросов, allocatedBytesTotal — оценка суммы по всем запросам
+     * маршрута с учётом доли измеряемых.
+     */
+    public record RouteStats(String route, long samples, long allocatedBytesTotal,
+                             LogHistogram.Summary allocatedBytes, LogHistogram.Summary cpuNanos) {
+    }
+
+    public record Report(double sampleRate, boolean allocationSupported, boolean cpuTimeSupported,
+                         List<RouteStats> routes) {
+    }
+
+    private record Histograms(LogHistogram allocatedBytes, LogHistogram cpuNanos) {
+    }
+
+    private final ResourceAccountingProperties properties;
+    private final com.sun.management.ThreadMXBean threads;
+    private final boolean allocationSupported;
+    private final boolean cpuTimeSupported;
+    private final Map<String, Histograms> routes = new ConcurrentHashMap<>();
+
+    public ResourceAccounting(ResourceAccountingProperties properties) {
+        this.properties = properties;
+        this.threads = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                ? bean : null;
+        this.allocationSupported = threads != null && threads.isThreadAllocatedMemorySupported()
+                && threads.isThreadAllocatedMemoryEnabled();
+        this.cpuTimeSupported = threads != null && threads.isCurrentThreadCpuTimeSupported()
+                && threads.isThreadCpuTimeEnabled();
+        if (properties.isEnabled() && !allocationSupported && !cpuTimeSupported) {
+            log.warn("JVM не поддерживает счётчики памяти и времени потоков, учёт ресурсов запросов выключен");
+        }
+    }
+
+    public boolean shouldSample() {
+        return properties.isEnabled() && (allocationSupported || cpuTimeSupported)
+                && ThreadLocalRandom.current().nextDouble() < properties.getSampleRate();
+    }
+
+    /**
+     * Байты, выделенные текущим потоком с его запуска, или -1.
+     */
+    public long allocatedBytes() {
+        return allocationSupported ? threads.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    /**
+     * Процессорное время текущего потока в наносекундах, или -1.
+     */
+    public long cpuTimeNanos() {
+        return cpuTimeSupported ? threads.getCurrentThreadCpuTime() : -1;
+    }
+
+    /**
+     * Записывает разности счётчиков; отрицательные значения (счётчик недоступен) пропускаются.
+     */
+    public void record(String route, long allocatedBytes, long cpuNanos) {
+        Histograms histograms = routes.get(route);
+        if (histograms == null) {
+            String key = routes.size() < properties.getMaxRoutes() ? route : OTHER_ROUTES;
+            histograms = routes.computeIfAbsent(key, k -> new Histograms(new LogHistogram(), new LogHistogram()));
+        }
+        histograms.allocatedBytes().record(allocatedBytes);
+        histograms.cpuNanos().record(cpuNanos);
+    }
+
+    /**
+     * Маршруты по убыванию оценки суммарно выделенной памяти.
+     */
+    public Report report() {
+        double sampleRate = properties.getSampleRate();
+        List<RouteStats> stats = new ArrayList<>(routes.size());
+        routes.forEach((route, histograms) -> {
+            LogHistogram.Summary allocated = histograms.allocatedBytes().summary();
+            LogHistogram.Summary cpu = histograms.cpuNanos().summary();
+            long total = sampleRate > 0 ? Math.round(allocated.mean() * allocated.count() / sampleRate) : 0;
+            stats.add(new RouteStats(route, Math.max(allocated.count(), cpu.count()), total, allocated, cpu));
+        });
+        stats.sort(Comparator.comparingLong(RouteStats::allocatedBytesTotal).reversed()
+                .thenComparing(RouteStats::route));
+        return new Report(sampleRate, allocationSupported, cpuTimeSupported, stats);
+    }
+
+    public void reset() {
+        routes.clear();
+    }
+}
@@ -0,0 +1,60 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Измеряет выборочные запросы сервлетного стека и относит их к шаблону маршрута
+ * ({@code GET /films/{id}}), а не к конкретному URI, чтобы число ключей оставалось малым.
+ * Асинхронные запросы (SSE) продолжаются в других потоках, их счётчики потока запроса
+ * не описывают, поэтому они не учитываются.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class ResourceAccountingFilter extends OncePerRequestFilter {
+
+    static final String UNMATCHED_ROUTE = "unmatched";
+
+    private final ResourceAccounting accounting;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!accounting.shouldSample()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long allocatedBefore = accounting.allocatedBytes();
+        long cpuBefore = accounting.cpuTimeNanos();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!request.isAsyncStarted()) {
+                accounting.record(route(request), delta(allocatedBefore, accounting.allocatedBytes()),
+                        delta(cpuBefore, accounting.cpuTimeNanos()));
+            }
+        }
+    }
+
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : UNMATCHED_ROUTE);
+    }
+
+    private static long delta(long before, long after) {
+        return before < 0 || after < 0 ? -1 : after - before;
+    }
+}
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "filmorate.resource-accounting")
+public class ResourceAccountingProperties {
+    private boolean enabled = true;
+    // Доля измеряемых запросов от 0 до 1: чтение счётчиков потока стоит около микросекунды
+    private double sampleRate = 0.01;
+    // Предел числа отслеживаемых маршрутов, остальные учитываются под общим ключом
+    private int maxRoutes = 256;
+}
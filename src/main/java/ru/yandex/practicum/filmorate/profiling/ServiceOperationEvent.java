@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Дорогая операция сервиса (популярные фильмы, друзья, общие друзья) в записи
+ * JDK Flight Recorder. Порог меняют так же, как у {@link StorageOperationEvent}.
+ */
+@Name("ru.yandex.practicum.filmorate.ServiceOperation")
+@Label("Операция сервиса")
+@Description("Чтение популярных фильмов, списка друзей или общих друзей")
+@Category({"Filmorate", "Сервис"})
+@Threshold("5 ms")
+@StackTrace(false)
+public class ServiceOperationEvent extends Event {
+
+    @Label("Операция")
+    String operation;
+
+    @Label("Id пользователя")
+    int userId;
+
+    @Label("Id второго пользователя")
+    int otherId;
+
+    @Label("Запрошено")
+    int count;
+
+    @Label("Размер результата")
+    int resultSize;
+
+    // Начало операции для трассы медленных запросов, в запись JFR не попадает
+    private transient long traceStart;
+
+    public static ServiceOperationEvent start() {
+        ServiceOperationEvent event = new ServiceOperationEvent();
+        event.traceStart = RequestTrace.now();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Завершает событие; поля заполняются, только если событие попадёт в запись.
+     * Время операции также добавляется в трассу запроса, если поток её ведёт.
+     */
+    public void finish(String operation, int userId, int otherId, int count, int resultSize) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.userId = userId;
+            this.otherId = otherId;
+            this.count = count;
+            this.resultSize = resultSize;
+            commit();
+        }
+        RequestTrace.phase(RequestTrace.SERVICE, operation, traceStart, resultSize);
+    }
+}
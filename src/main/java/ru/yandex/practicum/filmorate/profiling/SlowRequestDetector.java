@@ -0,0 +1,200 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Поиск медленных запросов: у каждого маршрута свой порог. Пока запрос выполняется, фоновый
+ * поток раз в filmorate.slow-requests.sample-interval-millis проверяет, не превышен ли порог,
+ * и снимает стек потока запроса — так виден момент задержки, а не конец запроса.
+ * Завершённые медленные запросы с разбивкой времени по операциям лежат в кольце
+ * последних filmorate.slow-requests.capacity записей.
+ */
+@Component
+@Slf4j
+public class SlowRequestDetector {
+
+    /**
+     * stack — снимок стека после превышения порога; пуст, если запрос завершился раньше проверки.
+     */
+    public record SlowRequest(long sequence, Instant startedAt, String method, String route, String uri,
+                              Map<String, String> parameters, int status, long durationMicros,
+                              long thresholdMicros, int resultSize, List<RequestTrace.Phase> phases,
+                              List<String> stack) {
+    }
+
+    /**
+     * Выполняющийся отслеживаемый запрос.
+     */
+    public static final class Tracked {
+        private final Thread thread = Thread.currentThread();
+        private final Instant startedAt = Instant.now();
+        private final long startNanos = System.nanoTime();
+        private final long thresholdNanos;
+        private final RequestTrace trace = RequestTrace.begin();
+        private volatile List<String> stack;
+        private long elapsedNanos;
+
+        private Tracked(long thresholdNanos) {
+            this.thresholdNanos = thresholdNanos;
+        }
+    }
+
+    private record ThresholdRoute(PathPattern pattern, long thresholdNanos) {
+    }
+
+    private final SlowRequestProperties properties;
+    private final List<ThresholdRoute> routes;
+    private final long defaultThresholdNanos;
+    private final Set<Tracked> inFlight = ConcurrentHashMap.newKeySet();
+    private final ArrayDeque<SlowRequest> recent;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ScheduledExecutorService sampler;
+
+    public SlowRequestDetector(SlowRequestProperties properties) {
+        if (properties.getCapacity() <= 0) {
+            throw new IllegalArgumentException("Ёмкость журнала медленных запросов должна быть положительной");
+        }
+        this.properties = properties;
+        this.routes = properties.getRoutes().stream()
+                .map(route -> new ThresholdRoute(PathPatternParser.defaultInstance.parse(route.getPattern()),
+                        TimeUnit.MILLISECONDS.toNanos(route.getThresholdMillis())))
+                .toList();
+        this.defaultThresholdNanos = TimeUnit.MILLISECONDS.toNanos(properties.getDefaultThresholdMillis());
+        this.recent = new ArrayDeque<>(properties.getCapacity());
+        if (properties.isEnabled()) {
+            sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "slow-request-sampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sampler.scheduleWithFixedDelay(this::sample, properties.getSampleIntervalMillis(),
+                    properties.getSampleIntervalMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            sampler = null;
+        }
+    }
+
+    /**
+     * Начинает отслеживать запрос в текущем потоке или возвращает null, если для пути нет порога.
+     */
+    public Tracked begin(String path) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        long thresholdNanos = thresholdNanos(path);
+        if (thresholdNanos <= 0) {
+            return null;
+        }
+        Tracked tracked = new Tracked(thresholdNanos);
+        inFlight.add(tracked);
+        return tracked;
+    }
+
+    /**
+     * Завершает отслеживание и возвращает true, если запрос превысил порог.
+     */
+    public boolean finish(Tracked tracked) {
+        tracked.elapsedNanos = System.nanoTime() - tracked.startNanos;
+        tracked.trace.end();
+        inFlight.remove(tracked);
+        return tracked.elapsedNanos >= tracked.thresholdNanos;
+    }
+
+    /**
+     * Записывает завершённый медленный запрос в журнал.
+     */
+    public void record(Tracked tracked, String method, String route, String uri, Map<String, String> parameters,
+                       int status) {
+        List<String> stack = tracked.stack;
+        SlowRequest slowRequest = new SlowRequest(sequence.incrementAndGet(), tracked.startedAt, method, route, uri,
+                parameters, status, TimeUnit.NANOSECONDS.toMicros(tracked.elapsedNanos),
+                TimeUnit.NANOSECONDS.toMicros(tracked.thresholdNanos), tracked.trace.resultSize(),
+                tracked.trace.phases(), stack != null ? stack : List.of());
+        synchronized (recent) {
+            if (recent.size() == properties.getCapacity()) {
+                recent.removeLast();
+            }
+            recent.addFirst(slowRequest);
+        }
+        log.debug("Медленный запрос {} {}: {} мкс", method, uri, slowRequest.durationMicros());
+    }
+
+    /**
+     * Последние медленные запросы, новые первыми.
+     */
+    public List<SlowRequest> recent(int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Количество запросов должно быть положительным");
+        }
+        synchronized (recent) {
+            List<SlowRequest> result = new ArrayList<>(Math.min(limit, recent.size()));
+            Iterator<SlowRequest> iterator = recent.iterator();
+            while (iterator.hasNext() && result.size() < limit) {
+                result.add(iterator.next());
+            }
+            return result;
+        }
+    }
+
+    public void clear() {
+        synchronized (recent) {
+            recent.clear();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+    }
+
+    long thresholdNanos(String path) {
+        if (!routes.isEmpty()) {
+            PathContainer pathContainer = PathContainer.parsePath(path);
+            for (ThresholdRoute route : routes) {
+                if (route.pattern.matches(pathContainer)) {
+                    return route.thresholdNanos;
+                }
+            }
+        }
+        return defaultThresholdNanos;
+    }
+
+    private void sample() {
+        try {
+            long now = System.nanoTime();
+            for (Tracked tracked : inFlight) {
+                if (tracked.stack == null && now - tracked.startNanos >= tracked.thresholdNanos) {
+                    StackTraceElement[] frames = tracked.thread.getStackTrace();
+                    tracked.stack = Arrays.stream(frames)
+                            .limit(properties.getMaxStackDepth())
+                            .map(StackTraceElement::toString)
+                            .toList();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Ошибка снятия стека медленного запроса: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Передаёт запросы сервлетного стека в {@link SlowRequestDetector}. Параметры запроса —
+ * переменные шаблона маршрута и параметры строки запроса.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@RequiredArgsConstructor
+public class SlowRequestFilter extends OncePerRequestFilter {
+
+    private final SlowRequestDetector detector;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SlowRequestDetector.Tracked tracked = detector.begin(request.getRequestURI());
+        if (tracked == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Асинхронный запрос продолжается в другом потоке, его время и трасса здесь неполны
+            if (detector.finish(tracked) && !request.isAsyncStarted()) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                detector.record(tracked, request.getMethod(), pattern != null ? pattern.toString() : null,
+                        request.getRequestURI(), parameters(request), response.getStatus());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> parameters(HttpServletRequest request) {
+        Map<String, String> parameters = new TreeMap<>();
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables instanceof Map<?, ?> map) {
+            parameters.putAll((Map<String, String>) map);
+        }
+        request.getParameterMap().forEach((name, values) -> parameters.put(name, String.join(",", values)));
+        return parameters;
+    }
+}
@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "filmorate.slow-requests")
+public class SlowRequestProperties {
+    private boolean enabled = true;
+    // Порог для маршрутов без собственного, 0 — такие маршруты не отслеживаются
+    private long defaultThresholdMillis = 500;
+    // Сколько последних медленных запросов хранится в памяти
+    private int capacity = 128;
+    // Как часто проверяются выполняющиеся запросы, чтобы снять стек ещё во время задержки
+    private long sampleIntervalMillis = 20;
+    private int maxStackDepth = 64;
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+        private String pattern;
+        private long thresholdMillis;
+    }
+}
@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Вызов хранилища фильмов или пользователей в записи JDK Flight Recorder. Порог по умолчанию
+ * отсекает обычные вызовы в памяти; его меняют настройками записи, например
+ * {@code +ru.yandex.practicum.filmorate.StorageOperation#threshold=0ms}.
+ */
+@Name("ru.yandex.practicum.filmorate.StorageOperation")
+@Label("Операция хранилища")
+@Description("Вызов FilmStorage или UserStorage")
+@Category({"Filmorate", "Хранилище"})
+@Threshold("1 ms")
+@StackTrace(false)
+public class StorageOperationEvent extends Event {
+
+    @Label("Хранилище")
+    String storage;
+
+    @Label("Операция")
+    String operation;
+
+    @Label("Id сущности")
+    int entityId;
+
+    @Label("Второй id")
+    int otherId;
+
+    @Label("Размер результата")
+    int resultSize;
+
+    // Начало операции для трассы медленных запросов, в запись JFR не попадает
+    private transient long traceStart;
+
+    public static StorageOperationEvent start() {
+        StorageOperationEvent event = new StorageOperationEvent();
+        event.traceStart = RequestTrace.now();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Завершает событие; поля заполняются, только если событие попадёт в запись.
+     * Время операции также добавляется в трассу запроса, если поток её ведёт. Id принимаются
+     * как есть из хранилища: отсутствующий id (например, PUT без id в теле) записывается как 0.
+     */
+    public void finish(String storage, String operation, Integer entityId, Integer otherId, int resultSize) {
+        end();
+        if (shouldCommit()) {
+            this.storage = storage;
+            this.operation = operation;
+            this.entityId = entityId == null ? 0 : entityId;
+            this.otherId = otherId == null ? 0 : otherId;
+            this.resultSize = resultSize;
+            commit();
+        }
+        RequestTrace.phase(storage, operation, traceStart, resultSize);
+    }
+}
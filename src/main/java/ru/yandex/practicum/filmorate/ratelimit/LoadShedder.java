@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Сброс нагрузки по числу одновременно обрабатываемых запросов:
+ * сверх предела запрос сразу отклоняется, не занимая сервис.
+ */
+@Component
+public class LoadShedder {
+
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public LoadShedder(RateLimitProperties properties) {
+        this.maxInFlight = properties.getMaxInFlight();
+    }
+
+    public boolean tryEnter() {
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Ограничение частоты и сброс нагрузки перед контроллерами для сервлетного стека.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties properties;
+    private final RateLimiter rateLimiter;
+    private final LoadShedder loadShedder;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!properties.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String clientKey = rateLimiter.clientKey(request.getRemoteAddr(),
+                request.getHeader(Rejections.CLIENT_ID_HEADER));
+        long waitNanos = rateLimiter.tryAcquire(request.getRequestURI(), clientKey);
+        if (waitNanos > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Rejections.retryAfterSeconds(waitNanos));
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, Rejections.TOO_MANY_REQUESTS);
+            return;
+        }
+        if (!loadShedder.tryEnter()) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, Rejections.OVERLOADED);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            loadShedder.exit();
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, byte[] body) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "filmorate.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    // Предел одновременно обрабатываемых запросов, после которого запросы отклоняются с 503
+    private int maxInFlight = 512;
+    // Предел числа отслеживаемых клиентов на маршрут; сверх него новые клиенты делят общий бакет маршрута
+    private int maxClientsPerRoute = 100_000;
+    // Период фоновой очистки бакетов, маркеры которых полностью восстановились
+    private long pruneIntervalMillis = 10_000;
+    // Адреса прокси, которым разрешено передавать идентификатор клиента в X-Client-Id;
+    // запросы от остальных адресов ограничиваются по адресу соединения, а заголовок игнорируется
+    private List<String> trustedProxies = new ArrayList<>();
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+        private String pattern;
+        private double permitsPerSecond;
+        private int burst;
+    }
+}
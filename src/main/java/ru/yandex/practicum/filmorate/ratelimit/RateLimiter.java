@@ -0,0 +1,126 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничение частоты запросов по маршрутам: для каждой пары «маршрут, клиент»
+ * заводится свой {@link TokenBucket}. Запросы к маршрутам без настроенного предела не ограничиваются.
+ * Простаивающие бакеты удаляет фоновый поток; пока таблица маршрута заполнена, новые клиенты
+ * делят один общий бакет, так что перебор адресов не растит таблицу и не нагружает поток запроса.
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+
+    private final List<LimitedRoute> routes;
+    private final int maxClientsPerRoute;
+    private final Set<String> trustedProxies;
+    private final ScheduledExecutorService pruner;
+
+    public RateLimiter(RateLimitProperties properties) {
+        this.routes = properties.getRoutes().stream()
+                .map(route -> new LimitedRoute(PathPatternParser.defaultInstance.parse(route.getPattern()),
+                        route.getPermitsPerSecond(), route.getBurst()))
+                .toList();
+        this.maxClientsPerRoute = properties.getMaxClientsPerRoute();
+        this.trustedProxies = Set.copyOf(properties.getTrustedProxies());
+        pruner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-prune");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getPruneIntervalMillis();
+        pruner.scheduleWithFixedDelay(this::pruneSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        pruner.shutdownNow();
+    }
+
+    /**
+     * Ключ клиента для бакета. Идентификатору из заголовка верим, только если запрос пришёл
+     * от доверенного прокси: иначе клиент обходил бы предел, меняя заголовок, и каждый новый
+     * идентификатор заводил бы лишний бакет.
+     */
+    public String clientKey(String remoteAddress, String clientId) {
+        if (clientId != null && trustedProxies.contains(remoteAddress)) {
+            return clientId;
+        }
+        return remoteAddress;
+    }
+
+    /**
+     * Возвращает ноль, если запрос разрешён, иначе — сколько наносекунд клиенту стоит подождать.
+     */
+    public long tryAcquire(String path, String clientKey) {
+        if (routes.isEmpty()) {
+            return 0;
+        }
+        PathContainer pathContainer = PathContainer.parsePath(path);
+        for (LimitedRoute route : routes) {
+            if (route.pattern.matches(pathContainer)) {
+                return route.tryAcquire(clientKey, System.nanoTime(), maxClientsPerRoute);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Удаляет бакеты клиентов, у которых маркеры уже полностью восстановились: заведённый заново
+     * бакет ведёт себя так же, поэтому удаление не даёт клиенту лишних запросов.
+     */
+    void pruneIdle(long nowNanos) {
+        for (LimitedRoute route : routes) {
+            route.buckets.values().removeIf(bucket -> bucket.isIdle(nowNanos));
+        }
+    }
+
+    int trackedClients() {
+        return routes.stream().mapToInt(route -> route.buckets.size()).sum();
+    }
+
+    private void pruneSafely() {
+        try {
+            pruneIdle(System.nanoTime());
+        } catch (RuntimeException e) {
+            log.error("Ошибка очистки бакетов ограничения частоты: {}", e.getMessage());
+        }
+    }
+
+    private record LimitedRoute(PathPattern pattern, double permitsPerSecond, int burst,
+                                Map<String, TokenBucket> buckets, TokenBucket overflow) {
+
+        LimitedRoute(PathPattern pattern, double permitsPerSecond, int burst) {
+            this(pattern, permitsPerSecond, burst, new ConcurrentHashMap<>(), new TokenBucket(permitsPerSecond, burst));
+        }
+
+        long tryAcquire(String clientKey, long nowNanos, int maxClients) {
+            TokenBucket bucket = buckets.get(clientKey);
+            if (bucket == null) {
+                // size() у ConcurrentHashMap не обходит таблицу. Одновременные добавления могут
+                // превысить предел на число потоков, но не больше
+                bucket = buckets.size() < maxClients
+                        ? buckets.computeIfAbsent(clientKey, key -> new TokenBucket(permitsPerSecond, burst))
+                        : overflow;
+            }
+            if (bucket.tryAcquire(nowNanos)) {
+                return 0;
+            }
+            return Math.max(1, bucket.nanosUntilNextPermit(nowNanos));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Заранее сериализованные тела отказов, чтобы отклонение запроса не стоило сериализации.
+ */
+final class Rejections {
+
+    static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    static final byte[] TOO_MANY_REQUESTS = "{\"error\":\"Слишком много запросов\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    static final byte[] OVERLOADED = "{\"error\":\"Сервер перегружен, повторите запрос позже\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private Rejections() {
+    }
+
+    static String retryAfterSeconds(long waitNanos) {
+        return Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+    }
+}
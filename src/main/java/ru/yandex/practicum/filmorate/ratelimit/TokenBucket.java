@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Неблокирующий маркерный бакет в форме GCRA: вместо числа маркеров хранится
+ * теоретическое время прибытия следующего запроса, и каждая попытка — один CAS.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this.intervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.toleranceNanos = intervalNanos * Math.max(1, burst);
+    }
+
+    public boolean tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long start = current == Long.MIN_VALUE ? nowNanos : Math.max(current, nowNanos);
+            long next = start + intervalNanos;
+            if (next - nowNanos > toleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Наносекунды до появления следующего маркера, ноль — если маркер уже есть.
+     */
+    public long nanosUntilNextPermit(long nowNanos) {
+        long current = theoreticalArrival.get();
+        if (current == Long.MIN_VALUE) {
+            return 0;
+        }
+        return Math.max(0, current + intervalNanos - toleranceNanos - nowNanos);
+    }
+
+    boolean isIdle(long nowNanos) {
+        long current = theoreticalArrival.get();
+        return current == Long.MIN_VALUE || current <= nowNanos;
+    }
+}
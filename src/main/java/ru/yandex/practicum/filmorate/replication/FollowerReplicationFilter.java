@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Ведомый только читает. Если клиент прислал версию, полученную от основного после записи,
+ * ответ ждёт, пока ведомый применит её, — так клиент всегда видит собственные изменения.
+ * Остановившийся из-за ошибки репликации ведомый отвечает 503 на любой запрос, а не отдаёт
+ * устаревшие данные.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "filmorate.replication.role", havingValue = "follower")
+@RequiredArgsConstructor
+public class FollowerReplicationFilter extends OncePerRequestFilter {
+
+    static final byte[] READ_ONLY = "{\"error\":\"Запись возможна только на основном экземпляре\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    static final byte[] LAGGING = "{\"error\":\"Реплика отстаёт, повторите запрос позже\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    static final byte[] FAILED = "{\"error\":\"Репликация остановлена из-за ошибки, реплика недоступна\"}"
+            .getBytes(StandardCharsets.UTF_8);
+    static final byte[] BAD_VERSION = ("{\"error\":\"Некорректный заголовок "
+            + ReplicationLog.VERSION_HEADER + "\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final ReplicationFollower follower;
+    private final ReplicationProperties properties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (follower.isFailed()) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, FAILED);
+            return;
+        }
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            reject(response, HttpStatus.FORBIDDEN, READ_ONLY);
+            return;
+        }
+        String token = request.getHeader(ReplicationLog.VERSION_HEADER);
+        if (token != null) {
+            long version;
+            try {
+                version = Long.parseLong(token);
+            } catch (NumberFormatException e) {
+                reject(response, HttpStatus.BAD_REQUEST, BAD_VERSION);
+                return;
+            }
+            try {
+                if (!follower.awaitVersion(version, properties.getReadYourWritesTimeoutMillis())) {
+                    if (follower.isFailed()) {
+                        reject(response, HttpStatus.SERVICE_UNAVAILABLE, FAILED);
+                        return;
+                    }
+                    response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                    reject(response, HttpStatus.SERVICE_UNAVAILABLE, LAGGING);
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                reject(response, HttpStatus.SERVICE_UNAVAILABLE, LAGGING);
+                return;
+            }
+        }
+        response.setHeader(ReplicationLog.VERSION_HEADER, Long.toString(follower.appliedVersion()));
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, byte[] body) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.yandex.practicum.filmorate.event.DomainEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+
+/**
+ * Запись журнала репликации — один вызов изменяющего метода хранилища или опубликованное
+ * доменное событие. RESERVE_*_IDS сдвигает счётчик id без создания записей: так снимок
+ * передаёт id, выданные основным под уже удалённые фильмы и пользователей. Фильмы и пользователи передаются в JSON без лайков и друзей:
+ * те реплицируются отдельными записями.
+ * Формат: версия (long), тип (byte), затем JSON (int длина + байты) либо два int;
+ * у события перед ними ещё тип события (byte).
+ */
+record Mutation(long version, Type type, Film film, User user, int id, int otherId, DomainEvent.Type eventType) {
+
+    enum Type {
+        ADD_FILM, UPDATE_FILM, DELETE_FILM, ADD_LIKE, REMOVE_LIKE, RESERVE_FILM_IDS,
+        ADD_USER, UPDATE_USER, DELETE_USER, ADD_FRIEND, REMOVE_FRIEND, RESERVE_USER_IDS, EVENT
+    }
+
+    static Mutation ofFilm(Type type, Film film) {
+        return new Mutation(0, type, film.withLikes(Set.of()), null, film.getId(), 0, null);
+    }
+
+    static Mutation ofUser(Type type, User user) {
+        return new Mutation(0, type, null, user.withFriends(Set.of()), user.getId(), 0, null);
+    }
+
+    static Mutation ofIds(Type type, int id, int otherId) {
+        return new Mutation(0, type, null, null, id, otherId, null);
+    }
+
+    static Mutation ofEvent(DomainEvent event) {
+        // id в хранилищах начинаются с 1, поэтому 0 кодирует отсутствующий relatedId
+        int relatedId = event.relatedId() != null ? event.relatedId() : 0;
+        return new Mutation(0, Type.EVENT, null, null, event.entityId(), relatedId, event.type());
+    }
+
+    DomainEvent event() {
+        return new DomainEvent(eventType, id, otherId != 0 ? otherId : null);
+    }
+
+    byte[] encode(long version, ObjectMapper mapper) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(version);
+            out.writeByte(type.ordinal());
+            Object payload = film != null ? film : user;
+            if (payload != null) {
+                byte[] json = mapper.writeValueAsBytes(payload);
+                out.writeInt(json.length);
+                out.write(json);
+            } else {
+                if (eventType != null) {
+                    out.writeByte(eventType.ordinal());
+                }
+                out.writeInt(id);
+                out.writeInt(otherId);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Mutation decode(DataInputStream in, ObjectMapper mapper) throws IOException {
+        long version = in.readLong();
+        Type type = Type.values()[in.readByte()];
+        switch (type) {
+            case ADD_FILM, UPDATE_FILM -> {
+                Film film = mapper.readValue(readJson(in), Film.class);
+                return new Mutation(version, type, film, null, film.getId(), 0, null);
+            }
+            case ADD_USER, UPDATE_USER -> {
+                User user = mapper.readValue(readJson(in), User.class);
+                return new Mutation(version, type, null, user, user.getId(), 0, null);
+            }
+            case EVENT -> {
+                DomainEvent.Type eventType = DomainEvent.Type.values()[in.readByte()];
+                int id = in.readInt();
+                return new Mutation(version, type, null, null, id, in.readInt(), eventType);
+            }
+            default -> {
+                int id = in.readInt();
+                return new Mutation(version, type, null, null, id, in.readInt(), null);
+            }
+        }
+    }
+
+    private static byte[] readJson(DataInputStream in) throws IOException {
+        byte[] json = new byte[in.readInt()];
+        in.readFully(json);
+        return json;
+    }
+}
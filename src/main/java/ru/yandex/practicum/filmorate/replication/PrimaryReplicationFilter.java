@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Отдаёт клиенту версию журнала после записи. Передав её ведомому в том же заголовке,
+ * клиент гарантированно прочитает свою запись. Тело ответа буферизуется, потому что
+ * заголовок известен только после выполнения запроса; чтения проходят без буфера.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "filmorate.replication.role", havingValue = "primary")
+@RequiredArgsConstructor
+public class PrimaryReplicationFilter extends OncePerRequestFilter {
+
+    private final ReplicationLog replicationLog;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (HttpMethod.GET.matches(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            wrapper.setHeader(ReplicationLog.VERSION_HEADER, Long.toString(replicationLog.version()));
+            wrapper.copyBodyToResponse();
+        }
+    }
+}
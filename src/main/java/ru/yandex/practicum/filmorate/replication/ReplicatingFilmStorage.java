@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import lombok.RequiredArgsConstructor;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Хранилище фильмов основного экземпляра: изменения проходят через журнал репликации.
+ */
+@RequiredArgsConstructor
+class ReplicatingFilmStorage implements FilmStorage {
+
+    private final FilmStorage delegate;
+    private final ReplicationLog log;
+
+    @Override
+    public Film addFilm(Film film) {
+        return log.record(() -> delegate.addFilm(film), added -> Mutation.ofFilm(Mutation.Type.ADD_FILM, added));
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        return log.record(() -> delegate.updateFilm(film),
+                updated -> Mutation.ofFilm(Mutation.Type.UPDATE_FILM, updated));
+    }
+
+    @Override
+    public void deleteFilm(Integer id) {
+        log.record(() -> {
+            delegate.deleteFilm(id);
+            return id;
+        }, deleted -> Mutation.ofIds(Mutation.Type.DELETE_FILM, deleted, 0));
+    }
+
+    @Override
+    public Optional<Film> getFilmById(Integer id) {
+        return delegate.getFilmById(id);
+    }
+
+    @Override
+    public List<Film> getAllFilms() {
+        return delegate.getAllFilms();
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return delegate.getPopularFilms(count);
+    }
+
+    @Override
+    public boolean addLike(Integer filmId, Integer userId) {
+        return log.record(() -> delegate.addLike(filmId, userId),
+                changed -> Mutation.ofIds(Mutation.Type.ADD_LIKE, filmId, userId));
+    }
+
+    @Override
+    public boolean removeLike(Integer filmId, Integer userId) {
+        return log.record(() -> delegate.removeLike(filmId, userId),
+                changed -> Mutation.ofIds(Mutation.Type.REMOVE_LIKE, filmId, userId));
+    }
+
+    @Override
+    public Set<Integer> getLikedFilmIds(Integer userId) {
+        return delegate.getLikedFilmIds(userId);
+    }
+
+    @Override
+    public void reserveIds(int lastId) {
+        log.record(() -> {
+            delegate.reserveIds(lastId);
+            return lastId;
+        }, reserved -> Mutation.ofIds(Mutation.Type.RESERVE_FILM_IDS, reserved, 0));
+    }
+}
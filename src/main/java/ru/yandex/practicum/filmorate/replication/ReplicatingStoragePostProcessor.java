@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+/**
+ * На основном экземпляре оборачивает хранилища так, чтобы все их изменения попадали в журнал.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.replication.role", havingValue = "primary")
+public class ReplicatingStoragePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<ReplicationLog> log;
+
+    public ReplicatingStoragePostProcessor(ObjectProvider<ReplicationLog> log) {
+        this.log = log;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof FilmStorage filmStorage) {
+            return new ReplicatingFilmStorage(filmStorage, log.getObject());
+        }
+        if (bean instanceof UserStorage userStorage) {
+            return new ReplicatingUserStorage(userStorage, log.getObject());
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import lombok.RequiredArgsConstructor;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Хранилище пользователей основного экземпляра: изменения проходят через журнал репликации.
+ */
+@RequiredArgsConstructor
+class ReplicatingUserStorage implements UserStorage {
+
+    private final UserStorage delegate;
+    private final ReplicationLog log;
+
+    @Override
+    public User addUser(User user) {
+        return log.record(() -> delegate.addUser(user), added -> Mutation.ofUser(Mutation.Type.ADD_USER, added));
+    }
+
+    @Override
+    public User updateUser(User user) {
+        return log.record(() -> delegate.updateUser(user),
+                updated -> Mutation.ofUser(Mutation.Type.UPDATE_USER, updated));
+    }
+
+    @Override
+    public void deleteUser(Integer id) {
+        log.record(() -> {
+            delegate.deleteUser(id);
+            return id;
+        }, deleted -> Mutation.ofIds(Mutation.Type.DELETE_USER, deleted, 0));
+    }
+
+    @Override
+    public Optional<User> getUserById(Integer id) {
+        return delegate.getUserById(id);
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return delegate.getAllUsers();
+    }
+
+    @Override
+    public boolean addFriend(Integer userId, Integer friendId) {
+        return log.record(() -> delegate.addFriend(userId, friendId),
+                changed -> Mutation.ofIds(Mutation.Type.ADD_FRIEND, userId, friendId));
+    }
+
+    @Override
+    public boolean removeFriend(Integer userId, Integer friendId) {
+        return log.record(() -> delegate.removeFriend(userId, friendId),
+                changed -> Mutation.ofIds(Mutation.Type.REMOVE_FRIEND, userId, friendId));
+    }
+
+    @Override
+    public Set<Integer> getInboundFriendIds(Integer userId) {
+        return delegate.getInboundFriendIds(userId);
+    }
+
+    @Override
+    public void reserveIds(int lastId) {
+        log.record(() -> {
+            delegate.reserveIds(lastId);
+            return lastId;
+        }, reserved -> Mutation.ofIds(Mutation.Type.RESERVE_USER_IDS, reserved, 0));
+    }
+}
@@ -0,0 +1,237 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
+import ru.yandex.practicum.filmorate.service.FriendGraph;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ведомый экземпляр: читает журнал основного и повторяет те же вызовы на своих хранилищах.
+ * Если основной уже вытеснил начало журнала, пустой ведомый сначала загружает снимок.
+ * Граф дружбы обновляется так же, как это делает UserService, а доменные события основного
+ * заново публикуются в локальную шину.
+ * <p>
+ * Запись журнала, которую не удалось применить (пропуск версии, расхождение id, неизвестный тип),
+ * означает, что состояние разошлось с основным: ведомый останавливается и помечается сломанным,
+ * а FollowerReplicationFilter отвечает на все запросы 503, пока экземпляр не перезапустят.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.replication.role", havingValue = "follower")
+@Slf4j
+public class ReplicationFollower {
+
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final FriendGraph friendGraph;
+    private final DomainEventBus eventBus;
+    private final ObjectMapper mapper;
+    private final ReplicationProperties properties;
+    // Не монитор: ожидание в synchronized закрепило бы виртуальный поток запроса за потоком-носителем
+    private final ReentrantLock versionLock = new ReentrantLock();
+    private final Condition versionChanged = versionLock.newCondition();
+    private final Thread worker;
+    private volatile long appliedVersion;
+    private volatile boolean failed;
+    private volatile Socket socket;
+    private Long epoch;
+
+    public ReplicationFollower(FilmStorage filmStorage, UserStorage userStorage, FriendGraph friendGraph,
+                               DomainEventBus eventBus, ObjectMapper mapper, ReplicationProperties properties) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.friendGraph = friendGraph;
+        this.eventBus = eventBus;
+        this.mapper = mapper;
+        this.properties = properties;
+        this.worker = new Thread(this::run, "replication-follower");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public long appliedVersion() {
+        return appliedVersion;
+    }
+
+    /**
+     * Репликация остановлена из-за ошибки; данные ведомого больше не обновляются.
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Ждёт, пока будет применена указанная версия журнала. Возвращает false по истечении времени
+     * или если репликация остановлена.
+     */
+    public boolean awaitVersion(long version, long timeoutMillis) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        versionLock.lock();
+        try {
+            while (appliedVersion < version) {
+                if (failed || remaining <= 0) {
+                    return false;
+                }
+                remaining = versionChanged.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            versionLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        worker.interrupt();
+        Socket current = socket;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Socket connection = new Socket()) {
+                socket = connection;
+                connection.connect(new InetSocketAddress(properties.getHost(), properties.getPort()));
+                connection.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(connection.getOutputStream());
+                out.writeLong(appliedVersion);
+                out.flush();
+                DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+                long primaryEpoch = in.readLong();
+                if (epoch != null && epoch != primaryEpoch) {
+                    log.error("Основной экземпляр перезапущен с новым журналом, ведомый нужно перезапустить");
+                    fail();
+                    return;
+                }
+                epoch = primaryEpoch;
+                byte mode = in.readByte();
+                if (mode == ReplicationServer.TRUNCATED) {
+                    log.error("Ведомый отстал на версии {} дальше, чем хранит журнал основного "
+                            + "(filmorate.replication.log-capacity), его нужно перезапустить", appliedVersion);
+                    fail();
+                    return;
+                }
+                if (mode == ReplicationServer.SNAPSHOT) {
+                    loadSnapshot(in);
+                } else if (mode != ReplicationServer.STREAM) {
+                    throw new IllegalStateException("Неизвестный режим журнала: " + mode);
+                }
+                log.info("Подключение к журналу {}:{} с версии {}", properties.getHost(), properties.getPort(),
+                        appliedVersion);
+                while (true) {
+                    apply(Mutation.decode(in, mapper));
+                }
+            } catch (IOException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                log.warn("Нет связи с основным экземпляром: {}", e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("Запись журнала после версии {} не применена, ведомый остановлен", appliedVersion, e);
+                fail();
+                return;
+            }
+            try {
+                Thread.sleep(RECONNECT_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Снимок присылается только пустому ведомому: его записи повторяются подряд без версий,
+     * после чего ведомый считается применившим версию снимка.
+     */
+    private void loadSnapshot(DataInputStream in) throws IOException {
+        long version = in.readLong();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            replay(Mutation.decode(in, mapper));
+        }
+        markApplied(version);
+        log.info("Загружен снимок основного версии {} ({} записей)", version, count);
+    }
+
+    private void apply(Mutation mutation) {
+        if (mutation.version() != appliedVersion + 1) {
+            throw new IllegalStateException("Пропуск в журнале: ожидалась версия " + (appliedVersion + 1)
+                    + ", получена " + mutation.version());
+        }
+        replay(mutation);
+        markApplied(mutation.version());
+    }
+
+    private void replay(Mutation mutation) {
+        switch (mutation.type()) {
+            case ADD_FILM -> checkId(mutation.id(), filmStorage.addFilm(mutation.film()).getId());
+            case UPDATE_FILM -> filmStorage.updateFilm(mutation.film());
+            case DELETE_FILM -> filmStorage.deleteFilm(mutation.id());
+            case ADD_LIKE -> filmStorage.addLike(mutation.id(), mutation.otherId());
+            case REMOVE_LIKE -> filmStorage.removeLike(mutation.id(), mutation.otherId());
+            case RESERVE_FILM_IDS -> filmStorage.reserveIds(mutation.id());
+            case ADD_USER -> checkId(mutation.id(), userStorage.addUser(mutation.user()).getId());
+            case UPDATE_USER -> userStorage.updateUser(mutation.user());
+            case DELETE_USER -> {
+                userStorage.deleteUser(mutation.id());
+                friendGraph.refresh(mutation.id());
+            }
+            case ADD_FRIEND -> {
+                userStorage.addFriend(mutation.id(), mutation.otherId());
+                friendGraph.refresh(mutation.id());
+            }
+            case REMOVE_FRIEND -> {
+                userStorage.removeFriend(mutation.id(), mutation.otherId());
+                friendGraph.refresh(mutation.id());
+            }
+            case RESERVE_USER_IDS -> userStorage.reserveIds(mutation.id());
+            case EVENT -> eventBus.publish(mutation.event());
+        }
+    }
+
+    private void markApplied(long version) {
+        versionLock.lock();
+        try {
+            appliedVersion = version;
+            versionChanged.signalAll();
+        } finally {
+            versionLock.unlock();
+        }
+    }
+
+    private void fail() {
+        versionLock.lock();
+        try {
+            failed = true;
+            versionChanged.signalAll();
+        } finally {
+            versionLock.unlock();
+        }
+    }
+
+    private static void checkId(int expected, Integer actual) {
+        if (!Objects.equals(expected, actual)) {
+            throw new IllegalStateException("Расхождение id при репликации: ожидался " + expected
+                    + ", выдан " + actual);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Журнал изменений хранилищ на основном экземпляре. Изменение хранилища и его запись в журнал
+ * выполняются под одной блокировкой, поэтому порядок журнала совпадает с порядком применения
+ * (в том числе с порядком выдачи id), и ведомые, повторяя вызовы, приходят к тому же состоянию.
+ * Ценой этого записи на основном экземпляре сериализуются; чтение снимков не блокируется.
+ * <p>
+ * Журнал хранит последние filmorate.replication.log-capacity записей в кольцевом буфере.
+ * Ведомый, которому нужны уже вытесненные записи, начинает со снимка текущего состояния,
+ * если он ещё пуст, иначе останавливается (см. {@link ReplicationServer}).
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.replication.role", havingValue = "primary")
+public class ReplicationLog {
+
+    public static final String VERSION_HEADER = "X-Replication-Version";
+
+    /**
+     * Состояние хранилищ на версии журнала {@code version} в виде записей без версий.
+     */
+    record Snapshot(long version, List<byte[]> entries) {
+    }
+
+    private final ObjectMapper mapper;
+    private final ObjectProvider<FilmStorage> filmStorage;
+    private final ObjectProvider<UserStorage> userStorage;
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final byte[][] entries;
+    private long version;
+    // Последние выданные id: удалённые записи в конце последовательности тоже сдвигают счётчик ведомого
+    private int lastFilmId;
+    private int lastUserId;
+
+    public ReplicationLog(ObjectMapper mapper, DomainEventBus eventBus, ReplicationProperties properties,
+                          ObjectProvider<FilmStorage> filmStorage, ObjectProvider<UserStorage> userStorage) {
+        this.mapper = mapper;
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.entries = new byte[properties.getLogCapacity()][];
+        // События публикуются после изменения, вызвавшего их, поэтому и в журнале идут после него
+        eventBus.addPublishListener(event -> record(() -> event, Mutation::ofEvent));
+    }
+
+    /**
+     * Выполняет изменение и записывает его в журнал, если оно завершилось без исключения.
+     */
+    <T> T record(Supplier<T> change, Function<T, Mutation> mutation) {
+        lock.lock();
+        try {
+            T result = change.get();
+            Mutation applied = mutation.apply(result);
+            switch (applied.type()) {
+                case ADD_FILM, RESERVE_FILM_IDS -> lastFilmId = Math.max(lastFilmId, applied.id());
+                case ADD_USER, RESERVE_USER_IDS -> lastUserId = Math.max(lastUserId, applied.id());
+                default -> {
+                }
+            }
+            version++;
+            entries[slot(version)] = applied.encode(version, mapper);
+            appended.signalAll();
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long version() {
+        lock.lock();
+        try {
+            return version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Самая старая версия, которая ещё хранится в журнале.
+     */
+    long oldestRetained() {
+        lock.lock();
+        try {
+            return Math.max(1, version - entries.length + 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Запись с указанной версией; ждёт её появления. Возвращает null, если запись уже вытеснена.
+     */
+    byte[] await(long version) throws InterruptedException {
+        lock.lock();
+        try {
+            while (this.version < version) {
+                appended.await();
+            }
+            return version > this.version - entries.length ? entries[slot(version)] : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Снимок хранилищ на текущей версии. Под блокировкой журнала берутся только неизменяемые
+     * снимки фильмов и пользователей, кодирование идёт уже без неё. Удалённые id передаются
+     * записями RESERVE_*_IDS, чтобы счётчики id ведомого совпали с основным.
+     */
+    Snapshot snapshot() {
+        List<Film> films;
+        List<User> users;
+        long snapshotVersion;
+        int filmIds;
+        int userIds;
+        lock.lock();
+        try {
+            films = filmStorage.getObject().getAllFilms();
+            users = userStorage.getObject().getAllUsers();
+            snapshotVersion = version;
+            filmIds = lastFilmId;
+            userIds = lastUserId;
+        } finally {
+            lock.unlock();
+        }
+        List<byte[]> result = new ArrayList<>();
+        // Хранилища отдают записи по возрастанию id; перед каждым пропуском в последовательности
+        // ведомому передаётся резерв id, чтобы добавление выдало тот же id, что и у основного
+        int previousId = 0;
+        for (User user : users) {
+            if (user.getId() > previousId + 1) {
+                result.add(Mutation.ofIds(Mutation.Type.RESERVE_USER_IDS, user.getId() - 1, 0).encode(0, mapper));
+            }
+            result.add(Mutation.ofUser(Mutation.Type.ADD_USER, user).encode(0, mapper));
+            previousId = user.getId();
+        }
+        if (userIds > previousId) {
+            result.add(Mutation.ofIds(Mutation.Type.RESERVE_USER_IDS, userIds, 0).encode(0, mapper));
+        }
+        for (User user : users) {
+            for (Integer friendId : user.getFriends()) {
+                result.add(Mutation.ofIds(Mutation.Type.ADD_FRIEND, user.getId(), friendId).encode(0, mapper));
+            }
+        }
+        previousId = 0;
+        for (Film film : films) {
+            if (film.getId() > previousId + 1) {
+                result.add(Mutation.ofIds(Mutation.Type.RESERVE_FILM_IDS, film.getId() - 1, 0).encode(0, mapper));
+            }
+            result.add(Mutation.ofFilm(Mutation.Type.ADD_FILM, film).encode(0, mapper));
+            previousId = film.getId();
+        }
+        if (filmIds > previousId) {
+            result.add(Mutation.ofIds(Mutation.Type.RESERVE_FILM_IDS, filmIds, 0).encode(0, mapper));
+        }
+        for (Film film : films) {
+            for (Integer userId : film.getLikes()) {
+                result.add(Mutation.ofIds(Mutation.Type.ADD_LIKE, film.getId(), userId).encode(0, mapper));
+            }
+        }
+        return new Snapshot(snapshotVersion, result);
+    }
+
+    /**
+     * Случайный идентификатор жизни журнала: по нему ведомый замечает перезапуск основного.
+     */
+    long epoch() {
+        return epoch;
+    }
+
+    private int slot(long version) {
+        return (int) (version % entries.length);
+    }
+}
@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "filmorate.replication")
+public class ReplicationProperties {
+    private Role role = Role.NONE;
+    // Адрес журнала репликации: основной экземпляр слушает его, ведомые подключаются
+    private String host = "127.0.0.1";
+    private int port = 7070;
+    // Сколько ведомый ждёт применения версии из токена, прежде чем ответить 503
+    private long readYourWritesTimeoutMillis = 2000;
+    // Сколько последних записей хранит журнал основного; отставший сильнее ведомый догоняет снимком
+    private int logCapacity = 200_000;
+
+    public enum Role {
+        NONE, PRIMARY, FOLLOWER
+    }
+}
@@ -0,0 +1,131 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Раздаёт журнал ведомым по TCP. Ведомый присылает последнюю применённую версию,
+ * получает эпоху журнала, режим и затем все записи после этой версии по мере появления.
+ * Если нужные записи уже вытеснены из журнала, пустой ведомый сначала получает снимок
+ * (версия, число записей и сами записи), а ведомому с данными сообщается, что догнать нельзя.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.replication.role", havingValue = "primary")
+@Slf4j
+public class ReplicationServer {
+
+    static final byte STREAM = 0;
+    static final byte SNAPSHOT = 1;
+    static final byte TRUNCATED = 2;
+
+    private final ReplicationLog replicationLog;
+    private final ServerSocket serverSocket;
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+
+    public ReplicationServer(ReplicationLog replicationLog, ReplicationProperties properties) {
+        this.replicationLog = replicationLog;
+        try {
+            serverSocket = new ServerSocket(properties.getPort(), 50, InetAddress.getByName(properties.getHost()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Thread acceptor = new Thread(this::acceptFollowers, "replication-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Журнал репликации доступен на {}:{}", properties.getHost(), port());
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket follower : followers) {
+            follower.close();
+        }
+    }
+
+    private void acceptFollowers() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                followers.add(socket);
+                Thread sender = new Thread(() -> stream(socket), "replication-sender-" + socket.getPort());
+                sender.setDaemon(true);
+                sender.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.error("Ошибка приёма подключения ведомого: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void stream(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            long applied = new DataInputStream(socket.getInputStream()).readLong();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeLong(replicationLog.epoch());
+            if (applied + 1 >= replicationLog.oldestRetained()) {
+                out.writeByte(STREAM);
+            } else if (applied == 0) {
+                ReplicationLog.Snapshot snapshot = replicationLog.snapshot();
+                out.writeByte(SNAPSHOT);
+                out.writeLong(snapshot.version());
+                out.writeInt(snapshot.entries().size());
+                for (byte[] entry : snapshot.entries()) {
+                    out.write(entry);
+                }
+                log.info("Ведомому {} отправлен снимок версии {} ({} записей)", socket.getRemoteSocketAddress(),
+                        snapshot.version(), snapshot.entries().size());
+                applied = snapshot.version();
+            } else {
+                out.writeByte(TRUNCATED);
+                out.flush();
+                log.warn("Ведомый {} отстал до версии {}, журнал хранит записи с {}", socket.getRemoteSocketAddress(),
+                        applied, replicationLog.oldestRetained());
+                return;
+            }
+            out.flush();
+            log.info("Ведомый {} подключился с версии {}", socket.getRemoteSocketAddress(), applied);
+            for (long version = applied + 1; ; version++) {
+                // Пачками: сбрасываем буфер, только когда ведомый догнал журнал
+                if (replicationLog.version() < version) {
+                    out.flush();
+                }
+                byte[] entry = replicationLog.await(version);
+                if (entry == null) {
+                    // Ведомый читает медленнее, чем журнал вытесняет записи; при переподключении он узнает об этом
+                    log.warn("Ведомый {} отстал дальше журнала на версии {}", socket.getRemoteSocketAddress(), version);
+                    return;
+                }
+                out.write(entry);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (SocketException e) {
+            log.info("Ведомый {} отключился", socket.getRemoteSocketAddress());
+        } catch (IOException e) {
+            log.warn("Ошибка передачи журнала ведомому {}: {}", socket.getRemoteSocketAddress(), e.getMessage());
+        } finally {
+            followers.remove(socket);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Бинарные форматы CBOR (application/cbor) и Smile (application/x-jackson-smile) для запросов
+ * и ответов, выбираемые по заголовкам Content-Type и Accept. Мапперы строятся из общего
+ * Jackson2ObjectMapperBuilder, поэтому настройки spring.jackson.* действуют и на них.
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletBinaryFormats {
+
+        @Bean
+        public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+            return new MappingJackson2CborHttpMessageConverter(cborMapper(builder));
+        }
+
+        @Bean
+        public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+            return new MappingJackson2SmileHttpMessageConverter(smileMapper(builder));
+        }
+    }
+
+    /**
+     * В WebFlux 6.1 у Jackson CBOR нет штатного места среди кодеков: пользовательский кодек встал бы
+     * перед JSON для запросов без явного Accept и не умеет писать Mono. Поэтому реактивный стек
+     * отдаёт только Smile, подменяя стандартные Smile-кодеки на построенные из общего билдера.
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class ReactiveBinaryFormats {
+
+        @Bean
+        public CodecCustomizer smileCodecCustomizer(Jackson2ObjectMapperBuilder builder) {
+            ObjectMapper smile = smileMapper(builder);
+            return configurer -> {
+                configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smile, SMILE));
+                configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smile, SMILE));
+            };
+        }
+    }
+
+    private static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.createXmlMapper(false).factory(new CBORFactory()).build();
+    }
+
+    private static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.createXmlMapper(false).factory(new SmileFactory()).build();
+    }
+}
@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.serialization;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * Пишет фильмы, пользователей и их списки из {@link JsonFragmentCache}: списки собираются
+ * склейкой готовых фрагментов прямо в выходной поток, без повторной сериализации.
+ * Чтение тел запросов остаётся за стандартным Jackson-конвертером.
+ */
+public class CachedJsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private static final byte[] ARRAY_START = {'['};
+    private static final byte[] ARRAY_END = {']'};
+    private static final byte[] SEPARATOR = {','};
+
+    private final JsonFragmentCache cache;
+
+    public CachedJsonHttpMessageConverter(JsonFragmentCache cache) {
+        super(MediaType.APPLICATION_JSON);
+        this.cache = cache;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return canWrite(mediaType) && (isEntity(clazz) || isEntityCollection(type));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return isEntity(clazz);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream body = outputMessage.getBody();
+        if (value instanceof Collection<?> values) {
+            body.write(ARRAY_START);
+            boolean first = true;
+            for (Object element : values) {
+                if (!first) {
+                    body.write(SEPARATOR);
+                }
+                body.write(fragmentOf(element));
+                first = false;
+            }
+            body.write(ARRAY_END);
+        } else {
+            body.write(fragmentOf(value));
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Чтение не поддерживается", inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Чтение не поддерживается", inputMessage);
+    }
+
+    private byte[] fragmentOf(Object value) {
+        return value instanceof Film film ? cache.toJson(film) : cache.toJson((User) value);
+    }
+
+    private static boolean isEntity(Class<?> clazz) {
+        return Film.class == clazz || User.class == clazz;
+    }
+
+    private static boolean isEntityCollection(Type type) {
+        if (!(type instanceof ParameterizedType parameterized)
+                || !(parameterized.getRawType() instanceof Class<?> raw)
+                || !Collection.class.isAssignableFrom(raw)) {
+            return false;
+        }
+        Type element = parameterized.getActualTypeArguments()[0];
+        return element instanceof Class<?> elementClass && isEntity(elementClass);
+    }
+}
@@ -0,0 +1,122 @@
+package ru.yandex.practicum.filmorate.serialization;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.DomainEvent;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш готового JSON фильмов и пользователей. Хранилища публикуют неизменяемые версии сущностей,
+ * поэтому запись кэша действительна, пока закодированная версия совпадает с текущей:
+ * обновление, лайк или изменение дружбы публикует новую версию и тем самым инвалидирует запись.
+ * Версии сравниваются по ссылке. Хранилища вне кучи собирают объект при каждом чтении, но
+ * множества лайков и друзей отдают тем же экземпляром, пока те не изменились, — для них
+ * сравниваются ссылка на множество и скалярные поля, без обхода самого множества.
+ * <p>
+ * Чтобы устаревшие версии и удалённые сущности не занимали память до следующего чтения, записи
+ * удаляются по доменным событиям в потоке записи. При переполнении вытесняется одна произвольная
+ * запись, а не весь кэш, — так заполненный кэш не даёт всплеска сериализаций.
+ */
+@Component
+public class JsonFragmentCache {
+
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final Map<Integer, Entry> films = new ConcurrentHashMap<>();
+    private final Map<Integer, Entry> users = new ConcurrentHashMap<>();
+
+    public JsonFragmentCache(ObjectMapper objectMapper, DomainEventBus eventBus,
+                             @Value("${filmorate.json-cache.max-entries:200000}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+        eventBus.addPublishListener(this::evict);
+    }
+
+    public byte[] toJson(Film film) {
+        if (film.getId() == null) {
+            return serialize(film);
+        }
+        Entry entry = films.get(film.getId());
+        if (entry != null && sameVersion((Film) entry.snapshot, film)) {
+            return entry.json;
+        }
+        return store(films, film.getId(), entry, film);
+    }
+
+    public byte[] toJson(User user) {
+        if (user.getId() == null) {
+            return serialize(user);
+        }
+        Entry entry = users.get(user.getId());
+        if (entry != null && sameVersion((User) entry.snapshot, user)) {
+            return entry.json;
+        }
+        return store(users, user.getId(), entry, user);
+    }
+
+    int size() {
+        return films.size() + users.size();
+    }
+
+    private byte[] store(Map<Integer, Entry> cache, Integer id, Entry entry, Object snapshot) {
+        byte[] json = serialize(snapshot);
+        if (entry == null && cache.size() >= maxEntries) {
+            Iterator<Integer> victims = cache.keySet().iterator();
+            if (victims.hasNext()) {
+                cache.remove(victims.next());
+            }
+        }
+        cache.put(id, new Entry(snapshot, json));
+        return json;
+    }
+
+    private void evict(DomainEvent event) {
+        switch (event.type()) {
+            case FILM_UPDATED, FILM_DELETED, LIKE_ADDED, LIKE_REMOVED -> films.remove(event.entityId());
+            case USER_UPDATED, USER_DELETED -> users.remove(event.entityId());
+            case FRIEND_ADDED, FRIEND_REMOVED -> {
+                users.remove(event.entityId());
+                users.remove(event.relatedId());
+            }
+            case FILM_ADDED, USER_ADDED -> {
+            }
+        }
+    }
+
+    private static boolean sameVersion(Film cached, Film film) {
+        return cached == film || cached.getLikes() == film.getLikes()
+                && cached.getDuration() == film.getDuration()
+                && Objects.equals(cached.getReleaseDate(), film.getReleaseDate())
+                && Objects.equals(cached.getName(), film.getName())
+                && Objects.equals(cached.getDescription(), film.getDescription());
+    }
+
+    private static boolean sameVersion(User cached, User user) {
+        return cached == user || cached.getFriends() == user.getFriends()
+                && Objects.equals(cached.getBirthday(), user.getBirthday())
+                && Objects.equals(cached.getEmail(), user.getEmail())
+                && Objects.equals(cached.getLogin(), user.getLogin())
+                && Objects.equals(cached.getName(), user.getName());
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Entry(Object snapshot, byte[] json) {
+    }
+}
@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.DomainEvent;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
+
+import java.util.List;
+
+/**
+ * Приближённый рейтинг фильмов по лайкам в фиксированной памяти. Скетч питается событиями
+ * шины, поэтому отстаёт от хранилища на время доставки, а при переполнении очереди
+ * подписчика недосчитывает потерянные события.
+ */
+@Component
+public class ApproximatePopularity {
+
+    private static final int QUEUE_CAPACITY = 65_536;
+    private static final int BATCH_SIZE = 256;
+
+    private final SpaceSavingSketch sketch;
+    private final DomainEventBus eventBus;
+    private final DomainEventBus.Subscription subscription;
+
+    public ApproximatePopularity(DomainEventBus eventBus,
+                                 @Value("${filmorate.popularity.sketch-capacity:1000}") int capacity) {
+        this.sketch = new SpaceSavingSketch(capacity);
+        this.eventBus = eventBus;
+        this.subscription = eventBus.subscribe("popularity-sketch", QUEUE_CAPACITY, BATCH_SIZE, this::apply);
+    }
+
+    public List<SpaceSavingSketch.Estimate> top(int count) {
+        return sketch.top(count);
+    }
+
+    public long totalLikes() {
+        return sketch.total();
+    }
+
+    public int capacity() {
+        return sketch.capacity();
+    }
+
+    @PreDestroy
+    public void close() {
+        eventBus.unsubscribe(subscription);
+    }
+
+    private void apply(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event.type() == DomainEvent.Type.LIKE_ADDED) {
+                sketch.offer(event.entityId());
+            } else if (event.type() == DomainEvent.Type.LIKE_REMOVED) {
+                sketch.retract(event.entityId());
+            } else if (event.type() == DomainEvent.Type.FILM_DELETED) {
+                sketch.remove(event.entityId());
+            }
+        }
+    }
+}
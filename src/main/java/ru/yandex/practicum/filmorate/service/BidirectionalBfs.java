@@ -0,0 +1,174 @@
+package ru.yandex.practicum.filmorate.service;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Кратчайший путь в невзвешенном графе двунаправленным поиском в ширину: на каждом шаге
+ * целиком раскрывается меньший из двух фронтов. Посещённые вершины и их родители хранятся
+ * в хеш-таблицах с открытой адресацией на примитивных массивах, поэтому память пропорциональна
+ * числу посещённых вершин, а не размеру графа.
+ */
+final class BidirectionalBfs {
+
+    interface Adjacency {
+        void forEachNeighbor(int id, IntConsumer action);
+    }
+
+    private static final int NONE = Integer.MIN_VALUE;
+
+    private BidirectionalBfs() {
+    }
+
+    /**
+     * Вершины пути от source до target включительно или пустой массив,
+     * если пути длиной не больше maxDepth рёбер нет.
+     */
+    static int[] shortestPath(Adjacency graph, int source, int target, int maxDepth) {
+        if (source == target) {
+            return new int[]{source};
+        }
+        Side forward = new Side(source);
+        Side backward = new Side(target);
+        // Фронты не пересекались, значит кратчайший путь длиннее суммы их глубин,
+        // и первая же встреча при раскрытии очередного уровня даёт кратчайший путь
+        while (forward.depth + backward.depth < maxDepth && forward.frontierSize > 0 && backward.frontierSize > 0) {
+            Side side = forward.frontierSize <= backward.frontierSize ? forward : backward;
+            int meet = side.expand(graph, side == forward ? backward : forward);
+            if (meet != NONE) {
+                return join(forward, backward, meet);
+            }
+        }
+        return new int[0];
+    }
+
+    private static int[] join(Side forward, Side backward, int meet) {
+        int[] path = new int[forward.depth + backward.depth + 1];
+        int length = 0;
+        for (int node = meet; node != NONE; node = forward.parents.get(node)) {
+            path[length++] = node;
+        }
+        reverse(path, length);
+        for (int node = backward.parents.get(meet); node != NONE; node = backward.parents.get(node)) {
+            path[length++] = node;
+        }
+        return length == path.length ? path : Arrays.copyOf(path, length);
+    }
+
+    private static void reverse(int[] array, int length) {
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            int tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    private static final class Side implements IntConsumer {
+        private final IntIntMap parents = new IntIntMap();
+        private int[] frontier = new int[16];
+        private int frontierSize;
+        private int[] next = new int[16];
+        private int nextSize;
+        private int depth;
+        private Side other;
+        private int current;
+        private int meet = NONE;
+
+        private Side(int root) {
+            parents.putIfAbsent(root, NONE);
+            frontier[frontierSize++] = root;
+        }
+
+        private int expand(Adjacency graph, Side other) {
+            this.other = other;
+            nextSize = 0;
+            for (int i = 0; i < frontierSize && meet == NONE; i++) {
+                current = frontier[i];
+                graph.forEachNeighbor(current, this);
+            }
+            int[] swap = frontier;
+            frontier = next;
+            frontierSize = nextSize;
+            next = swap;
+            depth++;
+            return meet;
+        }
+
+        @Override
+        public void accept(int neighbor) {
+            if (meet != NONE || !parents.putIfAbsent(neighbor, current)) {
+                return;
+            }
+            if (other.parents.contains(neighbor)) {
+                meet = neighbor;
+                return;
+            }
+            if (nextSize == next.length) {
+                next = Arrays.copyOf(next, nextSize * 2);
+            }
+            next[nextSize++] = neighbor;
+        }
+    }
+
+    /**
+     * Хеш-таблица int → int с линейным пробированием. Ключ {@link #NONE} зарезервирован под пустую ячейку.
+     */
+    static final class IntIntMap {
+        private int[] keys;
+        private int[] values;
+        private int size;
+
+        IntIntMap() {
+            keys = new int[64];
+            values = new int[64];
+            Arrays.fill(keys, NONE);
+        }
+
+        boolean contains(int key) {
+            return keys[slot(keys, key)] == key;
+        }
+
+        int get(int key) {
+            int slot = slot(keys, key);
+            return keys[slot] == key ? values[slot] : NONE;
+        }
+
+        boolean putIfAbsent(int key, int value) {
+            int slot = slot(keys, key);
+            if (keys[slot] == key) {
+                return false;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return true;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(keys, NONE);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != NONE) {
+                    int slot = slot(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static int slot(int[] keys, int key) {
+            int mask = keys.length - 1;
+            int hash = key * 0x9E3779B9;
+            int slot = (hash ^ hash >>> 16) & mask;
+            while (keys[slot] != NONE && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
@@ -1,58 +1,137 @@
 package ru.yandex.practicum.filmorate.service;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.event.DomainEvent;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.PopularFilmEstimate;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.profiling.ServiceOperationEvent;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
-@RequiredArgsConstructor
 public class FilmService {
 
+    private static final LocalDate FIRST_RELEASE_DATE = LocalDate.of(1895, 12, 28);
+
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
+    private final DomainEventBus eventBus;
+    private final ApproximatePopularity approximatePopularity;
+    private final SingleFlight<Integer, List<Film>> popularFlights = new SingleFlight<>("popular-films");
+
+    public FilmService(FilmStorage filmStorage, UserStorage userStorage, DomainEventBus eventBus,
+                       ApproximatePopularity approximatePopularity) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.eventBus = eventBus;
+        this.approximatePopularity = approximatePopularity;
+        // Событие публикуется в пишущем потоке до ответа клиенту, поэтому его следующее
+        // чтение популярных фильмов не присоединится к вычислению, начатому до записи
+        eventBus.addPublishListener(event -> {
+            switch (event.type()) {
+                case FILM_ADDED, FILM_UPDATED, FILM_DELETED, LIKE_ADDED, LIKE_REMOVED -> popularFlights.invalidate();
+                default -> {
+                }
+            }
+        });
+    }
 
     public void addLike(Integer filmId, Integer userId) {
-        Film film = getFilmByIdOrThrow(filmId);
+        getFilmByIdOrThrow(filmId);
         getUserByIdOrThrow(userId); // Проверка существования пользователя
-        film.getLikes().add(userId);
+        if (!filmStorage.addLike(filmId, userId)) {
+            return;
+        }
+        if (userStorage.getUserById(userId).isEmpty()) {
+            // Пользователь удалён параллельно, и его лайки уже вычищены — откатываем
+            filmStorage.removeLike(filmId, userId);
+            return;
+        }
+        eventBus.publish(new DomainEvent(DomainEvent.Type.LIKE_ADDED, filmId, userId));
     }
 
     public void removeLike(Integer filmId, Integer userId) {
-        Film film = getFilmByIdOrThrow(filmId);
+        getFilmByIdOrThrow(filmId);
         getUserByIdOrThrow(userId); // Проверка существования пользователя
-        film.getLikes().remove(userId);
+        if (filmStorage.removeLike(filmId, userId)) {
+            eventBus.publish(new DomainEvent(DomainEvent.Type.LIKE_REMOVED, filmId, userId));
+        }
     }
 
     public List<Film> getPopularFilms(Integer count) {
-        return filmStorage.getAllFilms().stream()
-                .sorted((f1, f2) -> f2.getLikes().size() - f1.getLikes().size())
-                .limit(count)
-                .collect(Collectors.toList());
+        validateCount(count);
+        ServiceOperationEvent event = ServiceOperationEvent.start();
+        List<Film> films = popularFlights.execute(count, () -> filmStorage.getPopularFilms(count));
+        event.finish("getPopularFilms", 0, 0, count, films.size());
+        return films;
+    }
+
+    /**
+     * {@link #getPopularFilms} без блокировки вызывающего потока: вычисление идёт на executor,
+     * и совпавший запрос не ждёт его, занимая поток.
+     */
+    public CompletableFuture<List<Film>> getPopularFilmsAsync(Integer count, Executor executor) {
+        validateCount(count);
+        ServiceOperationEvent event = ServiceOperationEvent.start();
+        return popularFlights.executeAsync(count, () -> filmStorage.getPopularFilms(count), executor)
+                .whenComplete((films, error) -> {
+                    if (films != null) {
+                        event.finish("getPopularFilms", 0, 0, count, films.size());
+                    }
+                });
+    }
+
+    public List<PopularFilmEstimate> getApproximatePopularFilms(Integer count) {
+        validateCount(count);
+        // Скетч не отслеживает больше capacity фильмов, поэтому больший count ничего не добавит
+        int limit = Math.min(count, approximatePopularity.capacity());
+        List<PopularFilmEstimate> result = new ArrayList<>(limit);
+        // Удалённый фильм убирается из скетча событием FILM_DELETED, но лайк, доставленный позже,
+        // может вернуть его в таблицу. Такие записи отсеиваются по хранилищу, поэтому берём с запасом
+        int oversampled = (int) Math.min(Integer.MAX_VALUE, 2L * limit);
+        for (SpaceSavingSketch.Estimate estimate : approximatePopularity.top(oversampled)) {
+            filmStorage.getFilmById(estimate.id()).ifPresent(film ->
+                    result.add(new PopularFilmEstimate(film, estimate.count(), estimate.error())));
+            if (result.size() == limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    public List<SingleFlight.Stats> singleFlightStats() {
+        return List.of(popularFlights.stats());
     }
 
     public Film addFilm(Film film) {
-        return filmStorage.addFilm(film);
+        validateReleaseDate(film.getReleaseDate());
+        Film added = filmStorage.addFilm(film);
+        eventBus.publish(new DomainEvent(DomainEvent.Type.FILM_ADDED, added.getId(), null));
+        return added;
     }
 
     public Film updateFilm(Film film) {
-        if (!filmStorage.getAllFilms().stream().anyMatch(f -> f.getId().equals(film.getId()))) {
-            throw new NotFoundException("Фильм с id " + film.getId() + " не найден");
-        }
-        return filmStorage.updateFilm(film);
+        validateReleaseDate(film.getReleaseDate());
+        getFilmByIdOrThrow(film.getId());
+        Film updated = filmStorage.updateFilm(film);
+        eventBus.publish(new DomainEvent(DomainEvent.Type.FILM_UPDATED, updated.getId(), null));
+        return updated;
     }
 
     public void deleteFilm(Integer id) {
-        if (!filmStorage.getAllFilms().stream().anyMatch(f -> f.getId().equals(id))) {
-            throw new NotFoundException("Фильм с id " + id + " не найден");
-        }
+        getFilmByIdOrThrow(id);
         filmStorage.deleteFilm(id);
+        eventBus.publish(new DomainEvent(DomainEvent.Type.FILM_DELETED, id, null));
     }
 
     public List<Film> getAllFilms() {
@@ -63,6 +142,18 @@ public class FilmService {
         return getFilmByIdOrThrow(id);
     }
 
+    private void validateCount(Integer count) {
+        if (count <= 0) {
+            throw new ValidationException("Количество фильмов должно быть положительным");
+        }
+    }
+
+    private void validateReleaseDate(LocalDate releaseDate) {
+        if (releaseDate.isBefore(FIRST_RELEASE_DATE)) {
+            throw new ValidationException("Дата релиза не может быть раньше 28 декабря 1895 года");
+        }
+    }
+
     private Film getFilmByIdOrThrow(Integer filmId) {
         return filmStorage.getFilmById(filmId)
                 .orElseThrow(() -> new NotFoundException("Фильм с id " + filmId + " не найден"));
@@ -0,0 +1,242 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+/**
+ * Граф дружбы в формате CSR (compressed sparse row): списки друзей всех пользователей
+ * лежат подряд в одном массиве {@code targets}, отсортированными по id, а {@code offsets[id]}
+ * указывает начало списка пользователя. Обход соседей — последовательное чтение массива.
+ * <p>
+ * Источник истины — хранилище пользователей. Изменённые списки попадают в дельта-буфер
+ * и видны читателям сразу, а фоновое слияние переносит их в новый CSR.
+ * <p>
+ * Слияние копирует весь граф: O(V + E), где V — наибольший id пользователя (offsets
+ * индексируется по id, удалённые id тоже занимают ячейку), а E — число связей. Поэтому
+ * изменения сливаются пачками: когда в дельте набирается filmorate.friend-graph.merge-threshold
+ * пользователей или раз в filmorate.friend-graph.merge-interval-ms, и на одно изменение приходится
+ * O((V + E) / размер пачки). До слияния изменённый список стоит одну запись в дельте.
+ */
+@Component
+@Slf4j
+public class FriendGraph {
+
+    private static final int[] EMPTY = new int[0];
+    static final int DEFAULT_MERGE_THRESHOLD = 4096;
+
+    private record Csr(int[] offsets, int[] targets) {
+        int from(int id) {
+            return id >= 0 && id < offsets.length - 1 ? offsets[id] : 0;
+        }
+
+        int to(int id) {
+            return id >= 0 && id < offsets.length - 1 ? offsets[id + 1] : 0;
+        }
+    }
+
+    private final UserStorage userStorage;
+    private final Map<Integer, int[]> delta = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService merger;
+    private final AtomicBoolean mergeRequested = new AtomicBoolean();
+    private final int mergeThreshold;
+    private final int maxPathDepth;
+    private volatile Csr csr = new Csr(new int[]{0}, EMPTY);
+
+    public FriendGraph(UserStorage userStorage, long mergeIntervalMillis, int maxPathDepth) {
+        this(userStorage, mergeIntervalMillis, DEFAULT_MERGE_THRESHOLD, maxPathDepth);
+    }
+
+    @Autowired
+    public FriendGraph(UserStorage userStorage,
+                       @Value("${filmorate.friend-graph.merge-interval-ms:10000}") long mergeIntervalMillis,
+                       @Value("${filmorate.friend-graph.merge-threshold:4096}") int mergeThreshold,
+                       @Value("${filmorate.friend-graph.max-path-depth:6}") int maxPathDepth) {
+        this.userStorage = userStorage;
+        this.mergeThreshold = mergeThreshold;
+        this.maxPathDepth = maxPathDepth;
+        for (User user : userStorage.getAllUsers()) {
+            delta.put(user.getId(), toSortedArray(user.getFriends()));
+        }
+        merge();
+        // После close() запрошенное слияние просто отбрасывается, а не бросает RejectedExecutionException в refresh
+        merger = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "friend-graph-merge");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+        merger.scheduleWithFixedDelay(this::mergeIfPending, mergeIntervalMillis, mergeIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Перечитывает список друзей пользователя из хранилища в дельта-буфер. Чтение выполняется
+     * внутри compute, поэтому из конкурирующих обновлений одного пользователя последним
+     * записывается самое свежее состояние хранилища.
+     */
+    public void refresh(Integer userId) {
+        delta.compute(userId, (id, previous) -> userStorage.getUserById(id)
+                .map(user -> toSortedArray(user.getFriends()))
+                .orElse(EMPTY));
+        if (delta.size() >= mergeThreshold && mergeRequested.compareAndSet(false, true)) {
+            merger.execute(this::mergeIfPending);
+        }
+    }
+
+    public int[] friends(int userId) {
+        int[] pending = delta.get(userId);
+        if (pending != null) {
+            return pending.clone();
+        }
+        Csr current = csr;
+        return Arrays.copyOfRange(current.targets, current.from(userId), current.to(userId));
+    }
+
+    public void forEachFriend(int userId, IntConsumer action) {
+        int[] pending = delta.get(userId);
+        if (pending != null) {
+            for (int friendId : pending) {
+                action.accept(friendId);
+            }
+            return;
+        }
+        Csr current = csr;
+        for (int i = current.from(userId), to = current.to(userId); i < to; i++) {
+            action.accept(current.targets[i]);
+        }
+    }
+
+    /**
+     * Пересечение двух отсортированных списков слиянием, без промежуточных множеств.
+     */
+    public int[] commonFriends(int userId, int otherId) {
+        // Сначала дельта, потом CSR: запись удаляется из дельты только после публикации нового CSR
+        int[] left = delta.get(userId);
+        int[] right = delta.get(otherId);
+        Csr current = csr;
+        int leftFrom = 0;
+        int leftTo;
+        if (left == null) {
+            left = current.targets;
+            leftFrom = current.from(userId);
+            leftTo = current.to(userId);
+        } else {
+            leftTo = left.length;
+        }
+        int rightFrom = 0;
+        int rightTo;
+        if (right == null) {
+            right = current.targets;
+            rightFrom = current.from(otherId);
+            rightTo = current.to(otherId);
+        } else {
+            rightTo = right.length;
+        }
+        int[] result = new int[Math.min(leftTo - leftFrom, rightTo - rightFrom)];
+        int size = 0;
+        while (leftFrom < leftTo && rightFrom < rightTo) {
+            int a = left[leftFrom];
+            int b = right[rightFrom];
+            if (a == b) {
+                result[size++] = a;
+                leftFrom++;
+                rightFrom++;
+            } else if (a < b) {
+                leftFrom++;
+            } else {
+                rightFrom++;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Кратчайшая цепочка друзей от userId до otherId включительно, не длиннее
+     * filmorate.friend-graph.max-path-depth рукопожатий, или пустой массив.
+     */
+    public int[] shortestPath(int userId, int otherId) {
+        return BidirectionalBfs.shortestPath(this::forEachFriend, userId, otherId, maxPathDepth);
+    }
+
+    int pendingChanges() {
+        return delta.size();
+    }
+
+    /**
+     * Строит новый CSR из текущего и снимка дельты. Записи дельты удаляются, только если
+     * их не успели заменить во время слияния, поэтому свежие изменения не теряются.
+     */
+    synchronized void merge() {
+        mergeRequested.set(false);
+        if (delta.isEmpty()) {
+            return;
+        }
+        Map<Integer, int[]> pending = new HashMap<>(delta);
+        Csr current = csr;
+        int vertexCount = current.offsets.length - 1;
+        for (Integer id : pending.keySet()) {
+            vertexCount = Math.max(vertexCount, id + 1);
+        }
+        int[] offsets = new int[vertexCount + 1];
+        for (int id = 0; id < vertexCount; id++) {
+            int[] changed = pending.get(id);
+            int degree = changed != null ? changed.length : current.to(id) - current.from(id);
+            offsets[id + 1] = offsets[id] + degree;
+        }
+        int[] targets = new int[offsets[vertexCount]];
+        for (int id = 0; id < vertexCount; id++) {
+            int[] changed = pending.get(id);
+            if (changed != null) {
+                System.arraycopy(changed, 0, targets, offsets[id], changed.length);
+            } else {
+                int from = current.from(id);
+                System.arraycopy(current.targets, from, targets, offsets[id], current.to(id) - from);
+            }
+        }
+        csr = new Csr(offsets, targets);
+        pending.forEach(delta::remove);
+        log.debug("Граф дружбы пересобран: {} пользователей, {} связей", vertexCount, targets.length);
+    }
+
+    @PreDestroy
+    public void close() {
+        merger.shutdownNow();
+    }
+
+    private void mergeIfPending() {
+        try {
+            merge();
+        } catch (RuntimeException e) {
+            log.error("Ошибка слияния графа дружбы: {}", e.getMessage());
+        }
+    }
+
+    private static int[] toSortedArray(Set<Integer> ids) {
+        if (ids.isEmpty()) {
+            return EMPTY;
+        }
+        int[] result = new int[ids.size()];
+        int i = 0;
+        for (Integer id : ids) {
+            result[i++] = id;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+}
@@ -0,0 +1,236 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.DomainEvent;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.LeaderboardEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Таблица популярных фильмов для живых дашбордов. Пересчитывается одна на всех клиентов
+ * и только после событий, способных её изменить, не чаще раза в min-interval-ms:
+ * события внутри интервала сливаются в один пересчёт. Новая версия публикуется, только
+ * если рейтинг действительно изменился, и сразу сериализуется в JSON — полный снимок
+ * и разницу с предыдущей версией, — чтобы соединения лишь копировали готовые строки.
+ * <p>
+ * Клиенты ждут версии в виртуальных потоках, поэтому ожидание построено на {@link ReentrantLock}:
+ * {@code Object.wait} внутри {@code synchronized} закрепил бы поток-носитель на всё время ожидания.
+ */
+@Component
+@Slf4j
+public class PopularityLeaderboard {
+
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int BATCH_SIZE = 256;
+
+    public record Snapshot(long version, List<LeaderboardEntry> films) {
+    }
+
+    /**
+     * Изменённые позиции; позиции дальше size клиент отбрасывает.
+     */
+    public record Diff(long version, int size, List<LeaderboardEntry> changes) {
+    }
+
+    /**
+     * Опубликованная версия таблицы в готовом для отправки виде.
+     */
+    public record Update(long version, String snapshotJson, String diffJson) {
+    }
+
+    /**
+     * Откладывает пересчёт. В тестах подменяется вместе с часами, чтобы управлять временем вручную.
+     */
+    interface Scheduler {
+        void schedule(Runnable task, long delayNanos);
+
+        default void shutdown() {
+        }
+    }
+
+    private final FilmService filmService;
+    private final ObjectMapper mapper;
+    private final DomainEventBus eventBus;
+    private final DomainEventBus.Subscription subscription;
+    private final Scheduler scheduler;
+    private final LongSupplier clock;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final int size;
+    private final long minIntervalNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private volatile Update current;
+    private List<LeaderboardEntry> ranking;
+    private long lastRecomputeNanos;
+
+    @Autowired
+    public PopularityLeaderboard(FilmService filmService, ObjectMapper mapper, DomainEventBus eventBus,
+                                 @Value("${filmorate.leaderboard.size:10}") int size,
+                                 @Value("${filmorate.leaderboard.min-interval-ms:1000}") long minIntervalMillis) {
+        this(filmService, mapper, eventBus, size, minIntervalMillis, System::nanoTime, daemonScheduler());
+    }
+
+    PopularityLeaderboard(FilmService filmService, ObjectMapper mapper, DomainEventBus eventBus, int size,
+                          long minIntervalMillis, LongSupplier clock, Scheduler scheduler) {
+        this.filmService = filmService;
+        this.mapper = mapper;
+        this.eventBus = eventBus;
+        this.size = size;
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMillis);
+        this.ranking = rank();
+        this.current = new Update(1, json(new Snapshot(1, ranking)), null);
+        this.clock = clock;
+        this.scheduler = scheduler;
+        this.lastRecomputeNanos = clock.getAsLong();
+        this.subscription = eventBus.subscribe("leaderboard", QUEUE_CAPACITY, BATCH_SIZE, this::onEvents);
+    }
+
+    public Update current() {
+        return current;
+    }
+
+    /**
+     * Ждёт версию новее известной клиенту; null, если за timeoutMillis она не появилась.
+     */
+    public Update awaitNewer(long version, long timeoutMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (current.version() <= version) {
+                if (remaining <= 0) {
+                    return null;
+                }
+                remaining = published.awaitNanos(remaining);
+            }
+            return current;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        eventBus.unsubscribe(subscription);
+        scheduler.shutdown();
+    }
+
+    long deliveredEvents() {
+        return subscription.deliveredEvents();
+    }
+
+    private void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (affectsRanking(event.type())) {
+                requestRecompute();
+                return;
+            }
+        }
+    }
+
+    private void requestRecompute() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        long delay;
+        lock.lock();
+        try {
+            delay = Math.max(0, lastRecomputeNanos + minIntervalNanos - clock.getAsLong());
+        } finally {
+            lock.unlock();
+        }
+        scheduler.schedule(this::recompute, delay);
+    }
+
+    private void recompute() {
+        // Сбрасываем до чтения хранилища: события во время пересчёта назначат следующий
+        scheduled.set(false);
+        try {
+            List<LeaderboardEntry> next = rank();
+            lock.lock();
+            try {
+                lastRecomputeNanos = clock.getAsLong();
+                if (next.equals(ranking)) {
+                    return;
+                }
+                long version = current.version() + 1;
+                current = new Update(version, json(new Snapshot(version, next)),
+                        json(new Diff(version, next.size(), changes(ranking, next))));
+                ranking = next;
+                published.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        } catch (RuntimeException e) {
+            log.error("Ошибка пересчёта таблицы популярных фильмов: {}", e.getMessage());
+        }
+    }
+
+    private static Scheduler daemonScheduler() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "leaderboard");
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new Scheduler() {
+            @Override
+            public void schedule(Runnable task, long delayNanos) {
+                executor.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void shutdown() {
+                executor.shutdownNow();
+            }
+        };
+    }
+
+    private List<LeaderboardEntry> rank() {
+        List<Film> films = filmService.getPopularFilms(size);
+        List<LeaderboardEntry> result = new ArrayList<>(films.size());
+        for (Film film : films) {
+            result.add(new LeaderboardEntry(result.size() + 1, film.getId(), film.getName(), film.getRate()));
+        }
+        return result;
+    }
+
+    private static List<LeaderboardEntry> changes(List<LeaderboardEntry> previous, List<LeaderboardEntry> next) {
+        List<LeaderboardEntry> result = new ArrayList<>();
+        for (int i = 0; i < next.size(); i++) {
+            if (i >= previous.size() || !previous.get(i).equals(next.get(i))) {
+                result.add(next.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static boolean affectsRanking(DomainEvent.Type type) {
+        return switch (type) {
+            case LIKE_ADDED, LIKE_REMOVED, FILM_ADDED, FILM_UPDATED, FILM_DELETED -> true;
+            default -> false;
+        };
+    }
+
+    private String json(Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Слияние одинаковых одновременных запросов: первый вызов с ключом вычисляет результат,
+ * а вызовы, пришедшие до его завершения, ждут и получают тот же результат или то же
+ * исключение. Результат не кэшируется — следующий вызов после завершения считает заново.
+ * <p>
+ * Изменения данных отмечаются {@link #invalidate()}. Вызов присоединяется только к вычислению,
+ * начатому после последнего изменения, которое он мог увидеть, иначе начинает своё: клиент,
+ * поставивший лайк, не получит результат вычисления, стартовавшего до лайка. Устаревание
+ * ограничено изменениями, произошедшими во время вычисления, — как и без слияния.
+ * <p>
+ * Результат общий для всех ожидавших, и изменять его вызывающим нельзя.
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * calls — все вызовы, executions — реальные вычисления, shared — вызовы, получившие
+     * чужой результат; coalescingRatio = shared / calls.
+     */
+    public record Stats(String name, long calls, long executions, long shared, double coalescingRatio) {
+    }
+
+    private record Flight<V>(long generation, CompletableFuture<V> result) {
+    }
+
+    private final String name;
+    private final ConcurrentHashMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Отмечает изменение данных; вызывается после записи, до ответа клиенту.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    public V execute(K key, Supplier<V> computation) {
+        Flight<V> own = new Flight<>(generation.get(), new CompletableFuture<>());
+        Flight<V> running = joinOrStart(key, own);
+        if (running != own) {
+            return await(running.result());
+        }
+        return compute(key, own, computation);
+    }
+
+    /**
+     * Вариант без блокировки вызывающего потока — для цикла событий реактивного стека.
+     * Вычисление выполняется на executor, ожидающие получают копию общего результата.
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<V> computation, Executor executor) {
+        Flight<V> own = new Flight<>(generation.get(), new CompletableFuture<>());
+        Flight<V> running = joinOrStart(key, own);
+        if (running == own) {
+            executor.execute(() -> {
+                try {
+                    compute(key, own, computation);
+                } catch (RuntimeException | Error ignored) {
+                    // Исключение уже передано в own
+                }
+            });
+        }
+        return running.result().copy();
+    }
+
+    public Stats stats() {
+        long total = calls.sum();
+        long computed = executions.sum();
+        long shared = Math.max(0, total - computed);
+        return new Stats(name, total, computed, shared, total == 0 ? 0 : (double) shared / total);
+    }
+
+    private Flight<V> joinOrStart(K key, Flight<V> own) {
+        calls.increment();
+        return inFlight.compute(key, (k, running) ->
+                running != null && running.generation() >= own.generation() ? running : own);
+    }
+
+    private V compute(K key, Flight<V> own, Supplier<V> computation) {
+        executions.increment();
+        try {
+            V result = computation.get();
+            own.result().complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        // Ожидавшие получают исключение вычислявшего без обёртки
+        if (e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        if (e.getCause() instanceof Error cause) {
+            throw cause;
+        }
+        return e;
+    }
+}
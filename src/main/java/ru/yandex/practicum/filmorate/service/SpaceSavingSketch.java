@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Алгоритм Space-Saving (Metwally et al.) для поиска самых частых элементов потока
+ * в фиксированной памяти: отслеживается не больше {@code capacity} счётчиков.
+ * Новый элемент при заполненной таблице вытесняет счётчик с минимальным значением
+ * и наследует его значение как погрешность. Для каждого отслеживаемого элемента
+ * {@code count - error <= истинное значение <= count}, а любой элемент с частотой
+ * больше {@code total / capacity} гарантированно отслеживается.
+ */
+public class SpaceSavingSketch {
+
+    public record Estimate(int id, long count, long error) {
+    }
+
+    private static final Comparator<Counter> BY_COUNT = Comparator
+            .comparingLong((Counter c) -> c.count)
+            .thenComparingInt(c -> c.id);
+
+    private final int capacity;
+    private final Map<Integer, Counter> counters;
+    private final TreeSet<Counter> ordered = new TreeSet<>(BY_COUNT);
+    private long total;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ёмкость должна быть положительной");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public synchronized void offer(int id) {
+        total++;
+        Counter counter = counters.get(id);
+        if (counter != null) {
+            ordered.remove(counter);
+            counter.count++;
+            ordered.add(counter);
+            return;
+        }
+        if (counters.size() < capacity) {
+            counter = new Counter(id, 1, 0);
+        } else {
+            Counter evicted = ordered.pollFirst();
+            counters.remove(evicted.id);
+            counter = new Counter(id, evicted.count + 1, evicted.count);
+        }
+        counters.put(id, counter);
+        ordered.add(counter);
+    }
+
+    /**
+     * Отмена одного вхождения. Алгоритм не поддерживает вычитание: если элемент не отслеживается,
+     * отмена теряется, и оценки других элементов остаются верхними границами лишь приближённо.
+     */
+    public synchronized void retract(int id) {
+        Counter counter = counters.get(id);
+        if (counter == null || counter.count == 0) {
+            return;
+        }
+        total--;
+        ordered.remove(counter);
+        counter.count--;
+        counter.error = Math.min(counter.error, counter.count);
+        ordered.add(counter);
+    }
+
+    /**
+     * Убирает элемент из таблицы целиком, например удалённый фильм: иначе его счётчик не минимален
+     * и никогда не вытесняется. Из общего числа вычитаются гарантированные вхождения
+     * {@code count - error}, так что {@code total} остаётся верхней границей длины потока.
+     */
+    public synchronized void remove(int id) {
+        Counter counter = counters.remove(id);
+        if (counter == null) {
+            return;
+        }
+        ordered.remove(counter);
+        total -= counter.count - counter.error;
+    }
+
+    public synchronized List<Estimate> top(int limit) {
+        List<Estimate> result = new ArrayList<>(Math.min(limit, counters.size()));
+        for (Counter counter : ordered.descendingSet()) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(new Estimate(counter.id, counter.count, counter.error));
+        }
+        return result;
+    }
+
+    public synchronized long total() {
+        return total;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private static final class Counter {
+        private final int id;
+        private long count;
+        private long error;
+
+        private Counter(int id, long count, long error) {
+            this.id = id;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
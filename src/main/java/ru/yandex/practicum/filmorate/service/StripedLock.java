@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Набор блокировок, распределённых по идентификаторам сущностей.
+ * Пары блокировок всегда захватываются в порядке возрастания номера полосы,
+ * поэтому взаимная блокировка невозможна.
+ */
+public class StripedLock {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public StripedLock(int minStripes) {
+        int size = minStripes <= 1 ? 1 : Integer.highestOneBit(minStripes - 1) << 1;
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    public void withLock(Integer id, Runnable action) {
+        ReentrantLock lock = stripes[indexOf(id)];
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void withLocks(Integer firstId, Integer secondId, Runnable action) {
+        int first = indexOf(firstId);
+        int second = indexOf(secondId);
+        ReentrantLock outer = stripes[Math.min(first, second)];
+        ReentrantLock inner = stripes[Math.max(first, second)];
+        outer.lock();
+        try {
+            if (inner != outer) {
+                inner.lock();
+            }
+            try {
+                action.run();
+            } finally {
+                if (inner != outer) {
+                    inner.unlock();
+                }
+            }
+        } finally {
+            outer.unlock();
+        }
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+
+    private int indexOf(Integer id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -1,66 +1,172 @@
 package ru.yandex.practicum.filmorate.service;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.event.DomainEvent;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.profiling.ServiceOperationEvent;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
-@RequiredArgsConstructor
 public class UserService {
 
+    private static final int MAX_PATH_ATTEMPTS = 3;
+
     private final UserStorage userStorage;
+    private final FilmStorage filmStorage;
+    private final DomainEventBus eventBus;
+    private final FriendGraph friendGraph;
+    private final StripedLock friendLocks = new StripedLock(Runtime.getRuntime().availableProcessors() * 4);
+    private final SingleFlight<Long, List<User>> commonFriendsFlights = new SingleFlight<>("common-friends");
+
+    public UserService(UserStorage userStorage, FilmStorage filmStorage, DomainEventBus eventBus,
+                       FriendGraph friendGraph) {
+        this.userStorage = userStorage;
+        this.filmStorage = filmStorage;
+        this.eventBus = eventBus;
+        this.friendGraph = friendGraph;
+        // Как в FilmService: запись видна следующему чтению общих друзей того же клиента
+        eventBus.addPublishListener(event -> {
+            switch (event.type()) {
+                case USER_UPDATED, USER_DELETED, FRIEND_ADDED, FRIEND_REMOVED -> commonFriendsFlights.invalidate();
+                default -> {
+                }
+            }
+        });
+    }
 
     public void addFriend(Integer userId, Integer friendId) {
-        User user = getUserByIdOrThrow(userId);
-        User friend = getUserByIdOrThrow(friendId);
-        user.getFriends().add(friendId);
-        friend.getFriends().add(userId);
+        // Обе стороны дружбы меняются под блокировками обоих пользователей,
+        // проверка существования внутри блокировки исключает гонку с удалением
+        friendLocks.withLocks(userId, friendId, () -> {
+            getUserByIdOrThrow(userId);
+            getUserByIdOrThrow(friendId);
+            boolean changed = userStorage.addFriend(userId, friendId);
+            changed |= userStorage.addFriend(friendId, userId);
+            if (changed) {
+                friendGraph.refresh(userId);
+                friendGraph.refresh(friendId);
+                eventBus.publish(new DomainEvent(DomainEvent.Type.FRIEND_ADDED, userId, friendId));
+            }
+        });
     }
 
     public void removeFriend(Integer userId, Integer friendId) {
-        User user = getUserByIdOrThrow(userId);
-        User friend = getUserByIdOrThrow(friendId);
-        user.getFriends().remove(friendId);
-        friend.getFriends().remove(userId);
+        friendLocks.withLocks(userId, friendId, () -> {
+            getUserByIdOrThrow(userId);
+            getUserByIdOrThrow(friendId);
+            boolean changed = userStorage.removeFriend(userId, friendId);
+            changed |= userStorage.removeFriend(friendId, userId);
+            if (changed) {
+                friendGraph.refresh(userId);
+                friendGraph.refresh(friendId);
+                eventBus.publish(new DomainEvent(DomainEvent.Type.FRIEND_REMOVED, userId, friendId));
+            }
+        });
     }
 
     public List<User> getFriends(Integer userId) {
-        User user = getUserByIdOrThrow(userId);
-        return user.getFriends().stream()
-                .map(id -> getUserByIdOrThrow(id))
-                .collect(Collectors.toList());
+        ServiceOperationEvent event = ServiceOperationEvent.start();
+        getUserByIdOrThrow(userId);
+        List<User> friends = toUsers(friendGraph.friends(userId));
+        event.finish("getFriends", userId, 0, 0, friends.size());
+        return friends;
     }
 
     public List<User> getCommonFriends(Integer userId, Integer otherId) {
-        User user = getUserByIdOrThrow(userId);
-        User other = getUserByIdOrThrow(otherId);
-        return user.getFriends().stream()
-                .filter(other.getFriends()::contains)
-                .map(id -> getUserByIdOrThrow(id))
-                .collect(Collectors.toList());
+        ServiceOperationEvent event = ServiceOperationEvent.start();
+        getUserByIdOrThrow(userId);
+        getUserByIdOrThrow(otherId);
+        List<User> common = commonFriendsFlights.execute(commonFriendsKey(userId, otherId),
+                () -> toUsers(friendGraph.commonFriends(userId, otherId)));
+        event.finish("getCommonFriends", userId, otherId, 0, common.size());
+        return common;
+    }
+
+    /**
+     * {@link #getCommonFriends} без блокировки вызывающего потока, как
+     * {@link FilmService#getPopularFilmsAsync}.
+     */
+    public CompletableFuture<List<User>> getCommonFriendsAsync(Integer userId, Integer otherId, Executor executor) {
+        ServiceOperationEvent event = ServiceOperationEvent.start();
+        getUserByIdOrThrow(userId);
+        getUserByIdOrThrow(otherId);
+        return commonFriendsFlights.executeAsync(commonFriendsKey(userId, otherId),
+                        () -> toUsers(friendGraph.commonFriends(userId, otherId)), executor)
+                .whenComplete((common, error) -> {
+                    if (common != null) {
+                        event.finish("getCommonFriends", userId, otherId, 0, common.size());
+                    }
+                });
+    }
+
+    /**
+     * Цепочка друзей не может пропускать звено, поэтому если промежуточного пользователя удалили
+     * во время поиска, путь ищется заново: deleteUser к этому моменту уже обновил граф.
+     * Если звенья пропадают раз за разом, запрос завершается 404.
+     */
+    public List<User> getFriendshipPath(Integer userId, Integer otherId) {
+        ServiceOperationEvent event = ServiceOperationEvent.start();
+        for (int attempt = 1; ; attempt++) {
+            getUserByIdOrThrow(userId);
+            getUserByIdOrThrow(otherId);
+            int[] ids = friendGraph.shortestPath(userId, otherId);
+            List<User> path = toUsers(ids);
+            if (path.size() == ids.length) {
+                event.finish("getFriendshipPath", userId, otherId, 0, path.size());
+                return path;
+            }
+            if (attempt == MAX_PATH_ATTEMPTS) {
+                throw new NotFoundException("Цепочка друзей между пользователями " + userId + " и " + otherId
+                        + " изменилась во время поиска");
+            }
+        }
+    }
+
+    public List<SingleFlight.Stats> singleFlightStats() {
+        return List.of(commonFriendsFlights.stats());
     }
 
     public User addUser(User user) {
-        return userStorage.addUser(user);
+        User added = userStorage.addUser(user);
+        eventBus.publish(new DomainEvent(DomainEvent.Type.USER_ADDED, added.getId(), null));
+        return added;
     }
 
     public User updateUser(User user) {
-        if (!userStorage.getAllUsers().stream().anyMatch(u -> u.getId().equals(user.getId()))) {
-            throw new NotFoundException("Пользователь с id " + user.getId() + " не найден");
-        }
-        return userStorage.updateUser(user);
+        getUserByIdOrThrow(user.getId());
+        User updated = userStorage.updateUser(user);
+        eventBus.publish(new DomainEvent(DomainEvent.Type.USER_UPDATED, updated.getId(), null));
+        return updated;
     }
 
     public void deleteUser(Integer id) {
-        if (!userStorage.getAllUsers().stream().anyMatch(u -> u.getId().equals(id))) {
-            throw new NotFoundException("Пользователь с id " + id + " не найден");
+        // Новые связи с пользователем создаются только под его блокировкой,
+        // поэтому после удаления под ней же обратный индекс полон
+        friendLocks.withLock(id, () -> {
+            getUserByIdOrThrow(id);
+            userStorage.deleteUser(id);
+            friendGraph.refresh(id);
+            eventBus.publish(new DomainEvent(DomainEvent.Type.USER_DELETED, id, null));
+            for (Integer followerId : userStorage.getInboundFriendIds(id)) {
+                if (userStorage.removeFriend(followerId, id)) {
+                    friendGraph.refresh(followerId);
+                    eventBus.publish(new DomainEvent(DomainEvent.Type.FRIEND_REMOVED, followerId, id));
+                }
+            }
+        });
+        for (Integer filmId : filmStorage.getLikedFilmIds(id)) {
+            if (filmStorage.removeLike(filmId, id)) {
+                eventBus.publish(new DomainEvent(DomainEvent.Type.LIKE_REMOVED, filmId, id));
+            }
         }
-        userStorage.deleteUser(id);
     }
 
     public List<User> getAllUsers() {
@@ -71,6 +177,20 @@ public class UserService {
         return getUserByIdOrThrow(id);
     }
 
+    private static long commonFriendsKey(int userId, int otherId) {
+        // Общие друзья симметричны, поэтому (a, b) и (b, a) — один ключ
+        return ((long) Math.min(userId, otherId) << 32) | Math.max(userId, otherId);
+    }
+
+    private List<User> toUsers(int[] ids) {
+        // Пользователь мог быть удалён после чтения графа — такие id пропускаются
+        List<User> users = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            userStorage.getUserById(id).ifPresent(users::add);
+        }
+        return users;
+    }
+
     private User getUserByIdOrThrow(Integer userId) {
         return userStorage.getUserById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"));
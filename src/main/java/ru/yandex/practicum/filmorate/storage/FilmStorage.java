@@ -2,10 +2,15 @@ package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.Film;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface FilmStorage {
+    Comparator<Film> BY_POPULARITY = Comparator.comparingInt(Film::getRate).reversed()
+            .thenComparing(Film::getId);
+
     Film addFilm(Film film);
 
     Film updateFilm(Film film);
@@ -15,4 +20,17 @@ public interface FilmStorage {
     Optional<Film> getFilmById(Integer id);
 
     List<Film> getAllFilms();
-}
\ No newline at end of file
+
+    List<Film> getPopularFilms(int count);
+
+    boolean addLike(Integer filmId, Integer userId);
+
+    boolean removeLike(Integer filmId, Integer userId);
+
+    Set<Integer> getLikedFilmIds(Integer userId);
+
+    /**
+     * Следующий добавленный фильм получит id больше lastId, даже если фильмов с такими id нет.
+     */
+    void reserveIds(int lastId);
+}
@@ -1,45 +1,120 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Хранилище неизменяемых версий фильмов: каждая запись публикует новую копию,
+ * поэтому читатели получают согласованный снимок без блокировок. Лайки лежат
+ * в {@link PersistentIntSet}, так что новая версия не копирует всё множество.
+ * Записи распределены по шардам, полные выборки выполняются параллельно по шардам.
+ */
 @Component
+@ConditionalOnProperty(name = "filmorate.storage.type", havingValue = "in-memory", matchIfMissing = true)
 public class InMemoryFilmStorage implements FilmStorage {
 
-    private final Map<Integer, Film> films = new HashMap<>();
-    private int nextId = 1;
+    private final ShardedMap<Film> films;
+    private final ReverseIndex likedFilmsByUser = new ReverseIndex();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    public InMemoryFilmStorage() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public InMemoryFilmStorage(int shardCount) {
+        films = new ShardedMap<>(shardCount);
+    }
 
     @Override
     public Film addFilm(Film film) {
-        film.setId(nextId++);
-        films.put(film.getId(), film);
-        return film;
+        film.setId(nextId.getAndIncrement());
+        film.setRate(0);
+        Film snapshot = film.withLikes(PersistentIntSet.empty());
+        films.put(snapshot.getId(), snapshot);
+        return snapshot;
     }
 
     @Override
     public Film updateFilm(Film film) {
-        films.put(film.getId(), film);
-        return film;
+        // Лайки меняются только через addLike/removeLike, обновление их сохраняет.
+        // computeIfPresent не даёт обновлению, пришедшему после удаления, воскресить запись
+        Film updated = films.computeIfPresent(film.getId(), (id, current) -> film.withLikes(current.getLikes()));
+        if (updated == null) {
+            throw new NotFoundException("Фильм с id " + film.getId() + " не найден");
+        }
+        return updated;
     }
 
     @Override
     public void deleteFilm(Integer id) {
-        films.remove(id);
+        Film removed = films.remove(id);
+        if (removed != null) {
+            removed.getLikes().forEach(userId -> likedFilmsByUser.remove(userId, id));
+        }
     }
 
     @Override
     public Optional<Film> getFilmById(Integer id) {
-        return Optional.ofNullable(films.get(id));
+        return id == null ? Optional.empty() : Optional.ofNullable(films.get(id));
     }
 
     @Override
     public List<Film> getAllFilms() {
-        return new ArrayList<>(films.values());
+        return films.values(Film::getId);
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return films.top(FilmStorage.BY_POPULARITY, count);
+    }
+
+    @Override
+    public boolean addLike(Integer filmId, Integer userId) {
+        AtomicBoolean changed = new AtomicBoolean();
+        films.computeIfPresent(filmId, (id, film) -> {
+            PersistentIntSet likes = PersistentIntSet.copyOf(film.getLikes());
+            PersistentIntSet updated = likes.with(userId);
+            if (updated == likes) {
+                return film;
+            }
+            likedFilmsByUser.add(userId, filmId);
+            changed.set(true);
+            return film.withLikes(updated);
+        });
+        return changed.get();
+    }
+
+    @Override
+    public boolean removeLike(Integer filmId, Integer userId) {
+        AtomicBoolean changed = new AtomicBoolean();
+        films.computeIfPresent(filmId, (id, film) -> {
+            PersistentIntSet likes = PersistentIntSet.copyOf(film.getLikes());
+            PersistentIntSet updated = likes.without(userId);
+            if (updated == likes) {
+                return film;
+            }
+            likedFilmsByUser.remove(userId, filmId);
+            changed.set(true);
+            return film.withLikes(updated);
+        });
+        return changed.get();
+    }
+
+    @Override
+    public Set<Integer> getLikedFilmIds(Integer userId) {
+        return likedFilmsByUser.get(userId);
+    }
+
+    @Override
+    public void reserveIds(int lastId) {
+        nextId.accumulateAndGet(lastId + 1, Math::max);
     }
-}
\ No newline at end of file
+}
@@ -1,45 +1,114 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Хранилище неизменяемых версий пользователей: каждая запись публикует новую копию,
+ * поэтому читатели получают согласованный снимок без блокировок.
+ * Записи распределены по шардам, полные выборки выполняются параллельно по шардам.
+ */
 @Component
+@ConditionalOnProperty(name = "filmorate.storage.type", havingValue = "in-memory", matchIfMissing = true)
 public class InMemoryUserStorage implements UserStorage {
 
-    private final Map<Integer, User> users = new HashMap<>();
-    private int nextId = 1;
+    private final ShardedMap<User> users;
+    private final ReverseIndex inboundFriends = new ReverseIndex();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    public InMemoryUserStorage() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public InMemoryUserStorage(int shardCount) {
+        users = new ShardedMap<>(shardCount);
+    }
 
     @Override
     public User addUser(User user) {
-        user.setId(nextId++);
-        users.put(user.getId(), user);
-        return user;
+        user.setId(nextId.getAndIncrement());
+        User snapshot = user.withFriends(Set.of());
+        users.put(snapshot.getId(), snapshot);
+        return snapshot;
     }
 
     @Override
     public User updateUser(User user) {
-        users.put(user.getId(), user);
-        return user;
+        // Друзья меняются только через addFriend/removeFriend, обновление их сохраняет.
+        // computeIfPresent не даёт обновлению, пришедшему после удаления, воскресить запись
+        User updated = users.computeIfPresent(user.getId(), (id, current) -> user.withFriends(current.getFriends()));
+        if (updated == null) {
+            throw new NotFoundException("Пользователь с id " + user.getId() + " не найден");
+        }
+        return updated;
     }
 
     @Override
     public void deleteUser(Integer id) {
-        users.remove(id);
+        User removed = users.remove(id);
+        if (removed != null) {
+            removed.getFriends().forEach(friendId -> inboundFriends.remove(friendId, id));
+        }
     }
 
     @Override
     public Optional<User> getUserById(Integer id) {
-        return Optional.ofNullable(users.get(id));
+        return id == null ? Optional.empty() : Optional.ofNullable(users.get(id));
     }
 
     @Override
     public List<User> getAllUsers() {
-        return new ArrayList<>(users.values());
+        return users.values(User::getId);
+    }
+
+    @Override
+    public boolean addFriend(Integer userId, Integer friendId) {
+        AtomicBoolean changed = new AtomicBoolean();
+        users.computeIfPresent(userId, (id, user) -> {
+            if (user.getFriends().contains(friendId)) {
+                return user;
+            }
+            Set<Integer> friends = new HashSet<>(user.getFriends());
+            friends.add(friendId);
+            inboundFriends.add(friendId, userId);
+            changed.set(true);
+            return user.withFriends(Set.copyOf(friends));
+        });
+        return changed.get();
+    }
+
+    @Override
+    public boolean removeFriend(Integer userId, Integer friendId) {
+        AtomicBoolean changed = new AtomicBoolean();
+        users.computeIfPresent(userId, (id, user) -> {
+            if (!user.getFriends().contains(friendId)) {
+                return user;
+            }
+            Set<Integer> friends = new HashSet<>(user.getFriends());
+            friends.remove(friendId);
+            inboundFriends.remove(friendId, userId);
+            changed.set(true);
+            return user.withFriends(Set.copyOf(friends));
+        });
+        return changed.get();
+    }
+
+    @Override
+    public Set<Integer> getInboundFriendIds(Integer userId) {
+        return inboundFriends.get(userId);
+    }
+
+    @Override
+    public void reserveIds(int lastId) {
+        nextId.accumulateAndGet(lastId + 1, Math::max);
     }
-}
\ No newline at end of file
+}
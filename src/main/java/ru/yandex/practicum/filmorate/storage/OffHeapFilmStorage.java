@@ -0,0 +1,229 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Хранилище фильмов вне кучи: поля фильма лежат в записях фиксированной длины,
+ * строки — в арене, а объекты {@link Film} собираются только при чтении.
+ * Включается свойством filmorate.storage.type=off-heap.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.type", havingValue = "off-heap")
+public class OffHeapFilmStorage implements FilmStorage {
+
+    private static final int ID = 0;
+    private static final int RELEASE_DATE = 4;
+    private static final int DURATION = 12;
+    private static final int NAME = 16;
+    private static final int DESCRIPTION = 24;
+    private static final int RECORD_SIZE = 32;
+
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    private final OffHeapRecordTable records = new OffHeapRecordTable(RECORD_SIZE);
+    private final OffHeapStringArena strings = new OffHeapStringArena();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, PersistentIntSet> likes = new ConcurrentHashMap<>();
+    private final ReverseIndex likedFilmsByUser = new ReverseIndex();
+    private int nextId = 1;
+
+    @Override
+    public Film addFilm(Film film) {
+        lock.writeLock().lock();
+        try {
+            film.setId(nextId++);
+            film.setRate(0);
+            write(film);
+            return read(film.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        lock.writeLock().lock();
+        try {
+            // Лайки меняются только через addLike/removeLike, обновление их сохраняет.
+            // Проверка под блокировкой записи не даёт обновлению, пришедшему после удаления, воскресить запись
+            if (film.getId() == null || film.getId() <= 0 || !records.contains(film.getId())) {
+                throw new NotFoundException("Фильм с id " + film.getId() + " не найден");
+            }
+            write(film);
+            return read(film.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteFilm(Integer id) {
+        if (id == null || id <= 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!records.contains(id)) {
+                return;
+            }
+            ByteBuffer chunk = records.chunkFor(id);
+            int offset = records.offsetOf(id);
+            strings.free(chunk.getLong(offset + NAME));
+            strings.free(chunk.getLong(offset + DESCRIPTION));
+            records.clear(id);
+            Set<Integer> removed = likes.remove(id);
+            if (removed != null) {
+                removed.forEach(userId -> likedFilmsByUser.remove(userId, id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Film> getFilmById(Integer id) {
+        if (id == null || id <= 0) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return records.contains(id) ? Optional.of(read(id)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Film> getAllFilms() {
+        lock.readLock().lock();
+        try {
+            List<Film> result = new ArrayList<>();
+            for (int id = 1; id < nextId; id++) {
+                if (records.contains(id)) {
+                    result.add(read(id));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return getAllFilms().stream()
+                .sorted(BY_POPULARITY)
+                .limit(count)
+                .toList();
+    }
+
+    @Override
+    public boolean addLike(Integer filmId, Integer userId) {
+        return changeLikes(filmId, userId, true);
+    }
+
+    @Override
+    public boolean removeLike(Integer filmId, Integer userId) {
+        return changeLikes(filmId, userId, false);
+    }
+
+    @Override
+    public Set<Integer> getLikedFilmIds(Integer userId) {
+        return likedFilmsByUser.get(userId);
+    }
+
+    @Override
+    public void reserveIds(int lastId) {
+        lock.writeLock().lock();
+        try {
+            nextId = Math.max(nextId, lastId + 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    long allocatedBytes() {
+        return records.allocatedBytes() + strings.allocatedBytes();
+    }
+
+    long freeStringBytes() {
+        return strings.freeBytes();
+    }
+
+    private boolean changeLikes(Integer filmId, Integer userId, boolean add) {
+        lock.readLock().lock();
+        try {
+            if (filmId == null || filmId <= 0 || !records.contains(filmId)) {
+                return false;
+            }
+            AtomicBoolean changed = new AtomicBoolean();
+            likes.compute(filmId, (id, current) -> {
+                PersistentIntSet before = current == null ? PersistentIntSet.empty() : current;
+                PersistentIntSet after = add ? before.with(userId) : before.without(userId);
+                if (after == before) {
+                    return current;
+                }
+                if (add) {
+                    likedFilmsByUser.add(userId, filmId);
+                } else {
+                    likedFilmsByUser.remove(userId, filmId);
+                }
+                changed.set(true);
+                return after.isEmpty() ? null : after;
+            });
+            return changed.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Film film) {
+        int id = film.getId();
+        // Строки прежней версии записи переиспользуются или освобождаются, иначе арена растёт с каждым обновлением
+        boolean existing = records.contains(id);
+        ByteBuffer chunk = records.chunkFor(id);
+        int offset = records.offsetOf(id);
+        chunk.putInt(offset + ID, id);
+        chunk.putLong(offset + RELEASE_DATE,
+                film.getReleaseDate() == null ? NULL_DATE : film.getReleaseDate().toEpochDay());
+        chunk.putInt(offset + DURATION, film.getDuration());
+        chunk.putLong(offset + NAME, replaceString(existing, chunk, offset + NAME, film.getName()));
+        chunk.putLong(offset + DESCRIPTION, replaceString(existing, chunk, offset + DESCRIPTION,
+                film.getDescription()));
+    }
+
+    private long replaceString(boolean existing, ByteBuffer chunk, int position, String value) {
+        return existing ? strings.replace(chunk.getLong(position), value) : strings.put(value);
+    }
+
+    private Film read(int id) {
+        ByteBuffer chunk = records.chunkFor(id);
+        int offset = records.offsetOf(id);
+        Film film = new Film();
+        film.setId(id);
+        long releaseDate = chunk.getLong(offset + RELEASE_DATE);
+        film.setReleaseDate(releaseDate == NULL_DATE ? null : LocalDate.ofEpochDay(releaseDate));
+        film.setDuration(chunk.getInt(offset + DURATION));
+        film.setName(strings.get(chunk.getLong(offset + NAME)));
+        film.setDescription(strings.get(chunk.getLong(offset + DESCRIPTION)));
+        Set<Integer> filmLikes = likes.getOrDefault(id, PersistentIntSet.empty());
+        film.setLikes(filmLikes);
+        film.setRate(filmLikes.size());
+        return film;
+    }
+}
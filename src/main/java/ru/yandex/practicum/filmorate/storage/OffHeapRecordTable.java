@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Таблица записей фиксированной длины вне кучи, адресуемая идентификатором.
+ * Первые четыре байта записи хранят идентификатор, ноль означает пустой слот.
+ * Не потокобезопасна, синхронизацию обеспечивает владелец.
+ */
+class OffHeapRecordTable {
+
+    private static final int RECORDS_PER_CHUNK = 1 << 14;
+
+    private final int recordSize;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+
+    OffHeapRecordTable(int recordSize) {
+        this.recordSize = recordSize;
+    }
+
+    /**
+     * Возвращает буфер, содержащий запись с данным идентификатором, выделяя его при необходимости.
+     */
+    ByteBuffer chunkFor(int id) {
+        int chunkIndex = id / RECORDS_PER_CHUNK;
+        while (chunks.size() <= chunkIndex) {
+            chunks.add(ByteBuffer.allocateDirect(RECORDS_PER_CHUNK * recordSize));
+        }
+        return chunks.get(chunkIndex);
+    }
+
+    ByteBuffer existingChunkFor(int id) {
+        int chunkIndex = id / RECORDS_PER_CHUNK;
+        return chunkIndex < chunks.size() ? chunks.get(chunkIndex) : null;
+    }
+
+    int offsetOf(int id) {
+        return (id % RECORDS_PER_CHUNK) * recordSize;
+    }
+
+    boolean contains(int id) {
+        ByteBuffer chunk = existingChunkFor(id);
+        return chunk != null && chunk.getInt(offsetOf(id)) == id;
+    }
+
+    void clear(int id) {
+        ByteBuffer chunk = existingChunkFor(id);
+        if (chunk != null) {
+            chunk.putInt(offsetOf(id), 0);
+        }
+    }
+
+    int capacity() {
+        return chunks.size() * RECORDS_PER_CHUNK;
+    }
+
+    long allocatedBytes() {
+        return (long) chunks.size() * RECORDS_PER_CHUNK * recordSize;
+    }
+}
@@ -0,0 +1,157 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Арена строк вне кучи: строка лежит в слоте прямого буфера как ёмкость слота, длина и UTF-8,
+ * ссылкой на строку служит пара «номер буфера, смещение», упакованная в long.
+ * <p>
+ * Ёмкость слота округляется до степени двойки. Освобождённые слоты попадают в список
+ * своего размерного класса и переиспользуются следующими строками того же класса, а замена
+ * строкой того же класса пишет прямо в старый слот. Поэтому выделенная память не превышает
+ * пикового объёма живых слотов (не больше удвоенного объёма строк плюс заголовки); сами
+ * буферы операционной системе не возвращаются. Не потокобезопасна, синхронизацию
+ * обеспечивает владелец.
+ */
+class OffHeapStringArena {
+
+    static final long NULL_REF = -1L;
+
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int MIN_SLOT_SHIFT = 4;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private final FreeList[] freeSlots = new FreeList[Integer.SIZE];
+    private ByteBuffer current;
+    private long freeBytes;
+
+    long put(String value) {
+        if (value == null) {
+            return NULL_REF;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long ref = allocate(sizeClass(bytes.length));
+        write(ref, bytes);
+        return ref;
+    }
+
+    /**
+     * Заменяет строку по ссылке ref и возвращает ссылку на новое значение: старый слот
+     * переписывается на месте, если новая строка того же размерного класса, иначе освобождается.
+     */
+    long replace(long ref, String value) {
+        if (ref == NULL_REF) {
+            return put(value);
+        }
+        if (value == null) {
+            free(ref);
+            return NULL_REF;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (sizeClass(bytes.length) == Integer.numberOfTrailingZeros(capacity(ref))) {
+            write(ref, bytes);
+            return ref;
+        }
+        free(ref);
+        long moved = allocate(sizeClass(bytes.length));
+        write(moved, bytes);
+        return moved;
+    }
+
+    void free(long ref) {
+        if (ref == NULL_REF) {
+            return;
+        }
+        int capacity = capacity(ref);
+        int sizeClass = Integer.numberOfTrailingZeros(capacity);
+        if (freeSlots[sizeClass] == null) {
+            freeSlots[sizeClass] = new FreeList();
+        }
+        freeSlots[sizeClass].push(ref);
+        freeBytes += HEADER_SIZE + capacity;
+    }
+
+    String get(long ref) {
+        if (ref == NULL_REF) {
+            return null;
+        }
+        ByteBuffer chunk = chunk(ref);
+        int offset = (int) ref;
+        byte[] bytes = new byte[chunk.getInt(offset + Integer.BYTES)];
+        chunk.get(offset + HEADER_SIZE, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    long allocatedBytes() {
+        return chunks.stream().mapToLong(ByteBuffer::capacity).sum();
+    }
+
+    /**
+     * Байты освобождённых слотов, ожидающих переиспользования.
+     */
+    long freeBytes() {
+        return freeBytes;
+    }
+
+    private long allocate(int sizeClass) {
+        int capacity = 1 << sizeClass;
+        FreeList free = freeSlots[sizeClass];
+        if (free != null && !free.isEmpty()) {
+            freeBytes -= HEADER_SIZE + capacity;
+            return free.pop();
+        }
+        int required = HEADER_SIZE + capacity;
+        if (current == null || current.remaining() < required) {
+            current = ByteBuffer.allocateDirect(Math.max(CHUNK_SIZE, required));
+            chunks.add(current);
+        }
+        long ref = ((long) (chunks.size() - 1) << 32) | current.position();
+        current.putInt(capacity);
+        current.position(current.position() + Integer.BYTES + capacity);
+        return ref;
+    }
+
+    private void write(long ref, byte[] bytes) {
+        ByteBuffer chunk = chunk(ref);
+        int offset = (int) ref;
+        chunk.putInt(offset + Integer.BYTES, bytes.length);
+        chunk.put(offset + HEADER_SIZE, bytes);
+    }
+
+    private int capacity(long ref) {
+        return chunk(ref).getInt((int) ref);
+    }
+
+    private ByteBuffer chunk(long ref) {
+        return chunks.get((int) (ref >>> 32));
+    }
+
+    private static int sizeClass(int length) {
+        return Math.max(MIN_SLOT_SHIFT, Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(length, 1) - 1));
+    }
+
+    private static final class FreeList {
+        private long[] refs = new long[16];
+        private int size;
+
+        void push(long ref) {
+            if (size == refs.length) {
+                refs = Arrays.copyOf(refs, size * 2);
+            }
+            refs[size++] = ref;
+        }
+
+        long pop() {
+            return refs[--size];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
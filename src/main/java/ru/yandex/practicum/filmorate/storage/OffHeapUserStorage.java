@@ -0,0 +1,216 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Хранилище пользователей вне кучи: поля пользователя лежат в записях фиксированной длины,
+ * строки — в арене, а объекты {@link User} собираются только при чтении.
+ * Включается свойством filmorate.storage.type=off-heap.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.type", havingValue = "off-heap")
+public class OffHeapUserStorage implements UserStorage {
+
+    private static final int ID = 0;
+    private static final int BIRTHDAY = 4;
+    private static final int EMAIL = 12;
+    private static final int LOGIN = 20;
+    private static final int NAME = 28;
+    private static final int RECORD_SIZE = 36;
+
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    private final OffHeapRecordTable records = new OffHeapRecordTable(RECORD_SIZE);
+    private final OffHeapStringArena strings = new OffHeapStringArena();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Set<Integer>> friends = new ConcurrentHashMap<>();
+    private final ReverseIndex inboundFriends = new ReverseIndex();
+    private int nextId = 1;
+
+    @Override
+    public User addUser(User user) {
+        lock.writeLock().lock();
+        try {
+            user.setId(nextId++);
+            write(user);
+            return read(user.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public User updateUser(User user) {
+        lock.writeLock().lock();
+        try {
+            // Друзья меняются только через addFriend/removeFriend, обновление их сохраняет.
+            // Проверка под блокировкой записи не даёт обновлению, пришедшему после удаления, воскресить запись
+            if (user.getId() == null || user.getId() <= 0 || !records.contains(user.getId())) {
+                throw new NotFoundException("Пользователь с id " + user.getId() + " не найден");
+            }
+            write(user);
+            return read(user.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteUser(Integer id) {
+        if (id == null || id <= 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!records.contains(id)) {
+                return;
+            }
+            ByteBuffer chunk = records.chunkFor(id);
+            int offset = records.offsetOf(id);
+            strings.free(chunk.getLong(offset + EMAIL));
+            strings.free(chunk.getLong(offset + LOGIN));
+            strings.free(chunk.getLong(offset + NAME));
+            records.clear(id);
+            Set<Integer> removed = friends.remove(id);
+            if (removed != null) {
+                removed.forEach(friendId -> inboundFriends.remove(friendId, id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<User> getUserById(Integer id) {
+        if (id == null || id <= 0) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return records.contains(id) ? Optional.of(read(id)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        lock.readLock().lock();
+        try {
+            List<User> result = new ArrayList<>();
+            for (int id = 1; id < nextId; id++) {
+                if (records.contains(id)) {
+                    result.add(read(id));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean addFriend(Integer userId, Integer friendId) {
+        return changeFriends(userId, friendId, true);
+    }
+
+    @Override
+    public boolean removeFriend(Integer userId, Integer friendId) {
+        return changeFriends(userId, friendId, false);
+    }
+
+    @Override
+    public Set<Integer> getInboundFriendIds(Integer userId) {
+        return inboundFriends.get(userId);
+    }
+
+    @Override
+    public void reserveIds(int lastId) {
+        lock.writeLock().lock();
+        try {
+            nextId = Math.max(nextId, lastId + 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    long allocatedBytes() {
+        return records.allocatedBytes() + strings.allocatedBytes();
+    }
+
+    private boolean changeFriends(Integer userId, Integer friendId, boolean add) {
+        lock.readLock().lock();
+        try {
+            if (userId == null || userId <= 0 || !records.contains(userId)) {
+                return false;
+            }
+            AtomicBoolean changed = new AtomicBoolean();
+            friends.compute(userId, (id, current) -> {
+                Set<Integer> before = current == null ? Set.of() : current;
+                if (before.contains(friendId) == add) {
+                    return current;
+                }
+                Set<Integer> after = new HashSet<>(before);
+                if (add) {
+                    after.add(friendId);
+                    inboundFriends.add(friendId, userId);
+                } else {
+                    after.remove(friendId);
+                    inboundFriends.remove(friendId, userId);
+                }
+                changed.set(true);
+                return after.isEmpty() ? null : Set.copyOf(after);
+            });
+            return changed.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(User user) {
+        int id = user.getId();
+        // Строки прежней версии записи переиспользуются или освобождаются, иначе арена растёт с каждым обновлением
+        boolean existing = records.contains(id);
+        ByteBuffer chunk = records.chunkFor(id);
+        int offset = records.offsetOf(id);
+        chunk.putInt(offset + ID, id);
+        chunk.putLong(offset + BIRTHDAY, user.getBirthday() == null ? NULL_DATE : user.getBirthday().toEpochDay());
+        chunk.putLong(offset + EMAIL, replaceString(existing, chunk, offset + EMAIL, user.getEmail()));
+        chunk.putLong(offset + LOGIN, replaceString(existing, chunk, offset + LOGIN, user.getLogin()));
+        chunk.putLong(offset + NAME, replaceString(existing, chunk, offset + NAME, user.getName()));
+    }
+
+    private long replaceString(boolean existing, ByteBuffer chunk, int position, String value) {
+        return existing ? strings.replace(chunk.getLong(position), value) : strings.put(value);
+    }
+
+    private User read(int id) {
+        ByteBuffer chunk = records.chunkFor(id);
+        int offset = records.offsetOf(id);
+        User user = new User();
+        user.setId(id);
+        long birthday = chunk.getLong(offset + BIRTHDAY);
+        user.setBirthday(birthday == NULL_DATE ? null : LocalDate.ofEpochDay(birthday));
+        user.setEmail(strings.get(chunk.getLong(offset + EMAIL)));
+        user.setLogin(strings.get(chunk.getLong(offset + LOGIN)));
+        user.setName(strings.get(chunk.getLong(offset + NAME)));
+        user.setFriends(friends.getOrDefault(id, Set.of()));
+        return user;
+    }
+}
@@ -0,0 +1,235 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Неизменяемое множество целых чисел в виде префиксного дерева по пять бит значения (HAMT).
+ * Добавление и удаление копируют только путь от корня к листу — не больше семи узлов
+ * по 32 слота, — остальные узлы общие с прежней версией. Поэтому новая версия фильма
+ * с ещё одним лайком стоит O(log32 n), а не копию всех лайков, и размер известен сразу.
+ */
+final class PersistentIntSet extends AbstractSet<Integer> {
+
+    private static final int BITS = 5;
+    private static final int MAX_DEPTH = 7;
+    private static final PersistentIntSet EMPTY = new PersistentIntSet(Node.EMPTY, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentIntSet(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    static PersistentIntSet empty() {
+        return EMPTY;
+    }
+
+    static PersistentIntSet copyOf(Collection<Integer> values) {
+        if (values instanceof PersistentIntSet set) {
+            return set;
+        }
+        PersistentIntSet result = EMPTY;
+        for (Integer value : values) {
+            result = result.with(value);
+        }
+        return result;
+    }
+
+    /**
+     * Множество с добавленным значением; то же множество, если значение уже есть.
+     */
+    PersistentIntSet with(int value) {
+        Node updated = root.with(value, 0);
+        return updated == root ? this : new PersistentIntSet(updated, size + 1);
+    }
+
+    /**
+     * Множество без значения; то же множество, если значения не было.
+     */
+    PersistentIntSet without(int value) {
+        Node updated = root.without(value, 0);
+        if (updated == root) {
+            return this;
+        }
+        return updated == null ? EMPTY : new PersistentIntSet(updated, size - 1);
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return value instanceof Integer id && root.contains(id, 0);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new NodeIterator(root);
+    }
+
+    private static int bit(int value, int shift) {
+        return 1 << ((value >>> shift) & 31);
+    }
+
+    /**
+     * Узел хранит слоты только для занятых позиций: бит в bitmap отмечает позицию,
+     * число единиц ниже него — индекс слота. Слот — либо значение, либо дочерний узел.
+     */
+    private static final class Node {
+
+        private static final Node EMPTY = new Node(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] slots;
+
+        private Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        boolean contains(int value, int shift) {
+            int bit = bit(value, shift);
+            if ((bitmap & bit) == 0) {
+                return false;
+            }
+            Object slot = slots[index(bit)];
+            if (slot instanceof Node child) {
+                return child.contains(value, shift + BITS);
+            }
+            return (Integer) slot == value;
+        }
+
+        Node with(int value, int shift) {
+            int bit = bit(value, shift);
+            int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, copy, 0, index);
+                copy[index] = value;
+                System.arraycopy(slots, index, copy, index + 1, slots.length - index);
+                return new Node(bitmap | bit, copy);
+            }
+            Object slot = slots[index];
+            if (slot instanceof Node child) {
+                Node updated = child.with(value, shift + BITS);
+                return updated == child ? this : replace(index, updated);
+            }
+            int existing = (Integer) slot;
+            return existing == value ? this : replace(index, pair(existing, value, shift + BITS));
+        }
+
+        /**
+         * Узел без значения; тот же узел, если значения нет, и null, если узел опустел.
+         */
+        Node without(int value, int shift) {
+            int bit = bit(value, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = index(bit);
+            Object slot = slots[index];
+            if (slot instanceof Node child) {
+                Node updated = child.without(value, shift + BITS);
+                if (updated == child) {
+                    return this;
+                }
+                if (updated == null) {
+                    return remove(bit, index);
+                }
+                // Узел с единственным значением сворачивается в слот родителя
+                if (updated.slots.length == 1 && !(updated.slots[0] instanceof Node)) {
+                    return replace(index, updated.slots[0]);
+                }
+                return replace(index, updated);
+            }
+            return (Integer) slot == value ? remove(bit, index) : this;
+        }
+
+        private Node replace(int index, Object slot) {
+            Object[] copy = slots.clone();
+            copy[index] = slot;
+            return new Node(bitmap, copy);
+        }
+
+        private Node remove(int bit, int index) {
+            if (slots.length == 1) {
+                return null;
+            }
+            Object[] copy = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, copy, 0, index);
+            System.arraycopy(slots, index + 1, copy, index, copy.length - index);
+            return new Node(bitmap ^ bit, copy);
+        }
+
+        private static Node pair(int first, int second, int shift) {
+            int firstBit = bit(first, shift);
+            int secondBit = bit(second, shift);
+            if (firstBit == secondBit) {
+                return new Node(firstBit, new Object[]{pair(first, second, shift + BITS)});
+            }
+            Object[] slots = Integer.compareUnsigned(firstBit, secondBit) < 0
+                    ? new Object[]{first, second}
+                    : new Object[]{second, first};
+            return new Node(firstBit | secondBit, slots);
+        }
+    }
+
+    private static final class NodeIterator implements Iterator<Integer> {
+
+        private final Node[] nodes = new Node[MAX_DEPTH];
+        private final int[] positions = new int[MAX_DEPTH];
+        private int depth;
+        private Integer next;
+
+        private NodeIterator(Node root) {
+            nodes[0] = root;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Integer next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Integer result = next;
+            advance();
+            return result;
+        }
+
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Node node = nodes[depth];
+                if (positions[depth] == node.slots.length) {
+                    depth--;
+                    continue;
+                }
+                Object slot = node.slots[positions[depth]++];
+                if (slot instanceof Node child) {
+                    depth++;
+                    nodes[depth] = child;
+                    positions[depth] = 0;
+                } else {
+                    next = (Integer) slot;
+                    return;
+                }
+            }
+        }
+    }
+}
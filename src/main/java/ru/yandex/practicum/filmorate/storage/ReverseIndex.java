@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Обратный индекс «идентификатор → множество связанных идентификаторов».
+ * Все изменения одного ключа выполняются атомарно через compute.
+ */
+class ReverseIndex {
+
+    private final Map<Integer, Set<Integer>> index = new ConcurrentHashMap<>();
+
+    void add(Integer key, Integer value) {
+        index.compute(key, (k, values) -> {
+            Set<Integer> result = values == null ? ConcurrentHashMap.newKeySet() : values;
+            result.add(value);
+            return result;
+        });
+    }
+
+    void remove(Integer key, Integer value) {
+        index.computeIfPresent(key, (k, values) -> {
+            values.remove(value);
+            return values.isEmpty() ? null : values;
+        });
+    }
+
+    Set<Integer> get(Integer key) {
+        Set<Integer> values = index.get(key);
+        return values == null ? Set.of() : Set.copyOf(values);
+    }
+}
@@ -0,0 +1,136 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Отображение «идентификатор → значение», разбитое по хешу идентификатора на независимые шарды.
+ * Операции над одной записью затрагивают только её шард, операции над всей таблицей
+ * выполняются параллельно по шардам с последующим слиянием результатов.
+ */
+class ShardedMap<V> {
+
+    private final Map<Integer, V>[] shards;
+    private final int mask;
+
+    @SuppressWarnings("unchecked")
+    ShardedMap(int minShards) {
+        int size = minShards <= 1 ? 1 : Integer.highestOneBit(minShards - 1) << 1;
+        shards = new Map[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+        mask = size - 1;
+    }
+
+    V get(Integer id) {
+        return shardOf(id).get(id);
+    }
+
+    void put(Integer id, V value) {
+        shardOf(id).put(id, value);
+    }
+
+    V remove(Integer id) {
+        return shardOf(id).remove(id);
+    }
+
+    V computeIfPresent(Integer id, BiFunction<Integer, V, V> function) {
+        return shardOf(id).computeIfPresent(id, function);
+    }
+
+    /**
+     * Возвращает все значения, упорядоченные по идентификатору: шарды сортируются
+     * параллельно, затем отсортированные части сливаются.
+     */
+    List<V> values(Function<V, Integer> idOf) {
+        Comparator<V> byId = Comparator.comparing(idOf);
+        return merge(scatter(values -> {
+            List<V> sorted = new ArrayList<>(values);
+            sorted.sort(byId);
+            return sorted;
+        }), byId, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Возвращает первые limit значений в порядке comparator: каждый шард отбирает
+     * свои limit лучших значений, затем частичные результаты сливаются.
+     */
+    List<V> top(Comparator<V> comparator, int limit) {
+        return merge(scatter(values -> topOf(values, comparator, limit)), comparator, limit);
+    }
+
+    <R> List<R> scatter(Function<Collection<V>, R> perShard) {
+        return Arrays.stream(shards)
+                .parallel()
+                .map(shard -> perShard.apply(shard.values()))
+                .toList();
+    }
+
+    int shardCount() {
+        return shards.length;
+    }
+
+    private Map<Integer, V> shardOf(Integer id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return shards[(h ^ (h >>> 16)) & mask];
+    }
+
+    private static <V> List<V> topOf(Collection<V> values, Comparator<V> comparator, int limit) {
+        PriorityQueue<V> heap = new PriorityQueue<>(comparator.reversed());
+        for (V value : values) {
+            heap.offer(value);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<V> result = new ArrayList<>(heap);
+        result.sort(comparator);
+        return result;
+    }
+
+    private static <V> List<V> merge(List<List<V>> parts, Comparator<V> comparator, int limit) {
+        PriorityQueue<Cursor<V>> heads = new PriorityQueue<>((a, b) -> comparator.compare(a.head(), b.head()));
+        int total = 0;
+        for (List<V> part : parts) {
+            total += part.size();
+            if (!part.isEmpty()) {
+                heads.offer(new Cursor<>(part));
+            }
+        }
+        List<V> result = new ArrayList<>(Math.min(total, limit));
+        while (!heads.isEmpty() && result.size() < limit) {
+            Cursor<V> cursor = heads.poll();
+            result.add(cursor.head());
+            if (cursor.advance()) {
+                heads.offer(cursor);
+            }
+        }
+        return result;
+    }
+
+    private static final class Cursor<V> {
+        private final List<V> values;
+        private int position;
+
+        Cursor(List<V> values) {
+            this.values = values;
+        }
+
+        V head() {
+            return values.get(position);
+        }
+
+        boolean advance() {
+            return ++position < values.size();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface UserStorage {
     User addUser(User user);
@@ -15,4 +16,15 @@ public interface UserStorage {
     Optional<User> getUserById(Integer id);
 
     List<User> getAllUsers();
-}
\ No newline at end of file
+
+    boolean addFriend(Integer userId, Integer friendId);
+
+    boolean removeFriend(Integer userId, Integer friendId);
+
+    Set<Integer> getInboundFriendIds(Integer userId);
+
+    /**
+     * Следующий добавленный пользователь получит id больше lastId, даже если пользователей с такими id нет.
+     */
+    void reserveIds(int lastId);
+}
@@ -0,0 +1,205 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+class ReactiveControllersTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void addFilm_validFilm_returnsCreatedFilm() {
+        webTestClient.post().uri("/films")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(film("Test Film", "2000-01-01"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isNumber()
+                .jsonPath("$.name").isEqualTo("Test Film");
+    }
+
+    @Test
+    void addFilm_invalidReleaseDate_returnsBadRequest() {
+        webTestClient.post().uri("/films")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(film("Test Film", "1895-12-27"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Дата релиза не может быть раньше 28 декабря 1895 года");
+    }
+
+    @Test
+    void addFilm_blankName_returnsBadRequest() {
+        webTestClient.post().uri("/films")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(film("", "2000-01-01"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Название фильма не может быть пустым");
+    }
+
+    @Test
+    void getFilmById_unknownId_returnsNotFound() {
+        webTestClient.get().uri("/films/999")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Фильм с id 999 не найден");
+    }
+
+    @Test
+    void friendsAndLikes_fullFlow_matchesServletSemantics() {
+        int first = addUser("first");
+        int second = addUser("second");
+        int common = addUser("common");
+        webTestClient.put().uri("/users/{id}/friends/{friendId}", first, common).exchange().expectStatus().isOk();
+        webTestClient.put().uri("/users/{id}/friends/{friendId}", second, common).exchange().expectStatus().isOk();
+
+        webTestClient.get().uri("/users/{id}/friends/common/{otherId}", first, second)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].login").isEqualTo("common");
+
+        int filmId = addFilm("Liked Film");
+        for (int userId : new int[]{first, second, common}) {
+            webTestClient.put().uri("/films/{id}/like/{userId}", filmId, userId).exchange().expectStatus().isOk();
+        }
+
+        webTestClient.get().uri("/films/popular?count=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(filmId)
+                .jsonPath("$[0].likes.length()").isEqualTo(3);
+    }
+
+    @Test
+    void getFilmById_manyConcurrentRequests_allSucceed() {
+        int filmId = addFilm("Concurrent Film");
+        WebClient client = WebClient.create("http://localhost:" + port);
+
+        List<Integer> statuses = Flux.range(0, 500)
+                .flatMap(i -> client.get().uri("/films/{id}", filmId)
+                        .exchangeToMono(response -> response.releaseBody()
+                                .thenReturn(response.statusCode().value())), 128)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertNotNull(statuses);
+        assertEquals(500, statuses.size());
+        assertTrue(statuses.stream().allMatch(status -> status == 200));
+    }
+
+    @Test
+    void getFilmById_smileAccepted_returnsSmile() throws Exception {
+        int filmId = addFilm("Smile Film");
+
+        byte[] body = webTestClient.get().uri("/films/{id}", filmId)
+                .accept(SMILE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(SMILE)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        ObjectMapper smileMapper = SmileMapper.builder().addModule(new JavaTimeModule()).build();
+        assertEquals("Smile Film", smileMapper.readValue(body, Film.class).getName());
+    }
+
+    @Test
+    void getFilmById_noAcceptHeader_returnsJson() {
+        int filmId = addFilm("JSON Film");
+
+        webTestClient.get().uri("/films/{id}", filmId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("JSON Film");
+    }
+
+    @Test
+    void feed_resumedFromOffset_streamsLaterChanges() {
+        int filmId = addFilm("Feed Film");
+
+        ServerSentEvent<Map<String, Object>> event = WebClient.create("http://localhost:" + port).get()
+                .uri("/feed?after=0")
+                .retrieve()
+                .bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<Map<String, Object>>>() {
+                })
+                .filter(e -> "FILM_ADDED".equals(e.event()) && e.data() != null
+                        && Integer.valueOf(filmId).equals(e.data().get("entityId")))
+                .blockFirst(Duration.ofSeconds(10));
+
+        assertNotNull(event);
+        assertNotNull(event.id());
+    }
+
+    private int addFilm(String name) {
+        Film film = webTestClient.post().uri("/films")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(film(name, "2000-01-01"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Film.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(film);
+        return film.getId();
+    }
+
+    private int addUser(String login) {
+        User user = webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(user(login))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(User.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(user);
+        return user.getId();
+    }
+
+    private Map<String, Object> film(String name, String releaseDate) {
+        return Map.of("name", name, "description", "Description", "releaseDate", releaseDate, "duration", 120);
+    }
+
+    private Map<String, Object> user(String login) {
+        return Map.of("email", login + "@example.com", "login", login, "birthday", "1990-01-01");
+    }
+}
@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Медленные клиенты против сервлетного (Tomcat) и реактивного (Netty) стеков. Каждый медленный
+ * клиент отправляет заголовки POST /films и начало тела и замолкает; затем быстрый клиент читает
+ * /films. Tomcat читает тело на рабочем потоке, и когда медленных клиентов больше, чем потоков,
+ * быстрый запрос ждёт тайм-аута соединения. Netty собирает тело без потока на запрос.
+ * Пул Tomcat уменьшен до {@value #TOMCAT_THREADS}, чтобы хватило сотни соединений.
+ */
+@Slf4j
+class SlowClientComparisonTest {
+
+    private static final int TOMCAT_THREADS = 16;
+    private static final int SLOW_CLIENTS = 100;
+    private static final Duration CONNECTION_TIMEOUT = Duration.ofSeconds(3);
+    private static final Duration FAST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void slowClients_stallTomcatButNotNetty() throws Exception {
+        long servlet = fastReadLatencyMillis("сервлетный стек (Tomcat)",
+                "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                "--server.tomcat.threads.min-spare=" + TOMCAT_THREADS);
+        long reactive = fastReadLatencyMillis("реактивный стек (Netty)", "--spring.profiles.active=reactive");
+
+        assertTrue(reactive < CONNECTION_TIMEOUT.toMillis(),
+                "Быстрый запрос к Netty ждал медленных клиентов " + reactive + " мс");
+        assertTrue(servlet > reactive, "Tomcat ответил быстрее Netty: " + servlet + " против " + reactive + " мс");
+    }
+
+    private long fastReadLatencyMillis(String stack, String... args) throws Exception {
+        List<String> arguments = new ArrayList<>(List.of(args));
+        arguments.addAll(List.of("--server.port=0",
+                "--server.tomcat.connection-timeout=" + CONNECTION_TIMEOUT.toMillis() + "ms",
+                "--filmorate.rate-limit.enabled=false",
+                "--logging.level.org.zalando.logbook=OFF"));
+        try (ConfigurableApplicationContext application = new SpringApplicationBuilder(FilmorateApplication.class)
+                .run(arguments.toArray(String[]::new))) {
+            int port = Integer.parseInt(application.getEnvironment().getProperty("local.server.port"));
+            List<Socket> slowClients = new ArrayList<>();
+            try {
+                for (int i = 0; i < SLOW_CLIENTS; i++) {
+                    slowClients.add(startSlowPost(port));
+                }
+                // Даём серверу принять соединения и раздать их потокам
+                Thread.sleep(500);
+                long start = System.nanoTime();
+                int status;
+                try {
+                    status = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/films"))
+                            .timeout(FAST_TIMEOUT).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (HttpTimeoutException e) {
+                    status = 0;
+                }
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                log.info("{}: {} медленных клиентов, быстрый GET /films — {} мс, статус {}", stack, SLOW_CLIENTS,
+                        millis, status);
+                return status == 200 ? millis : FAST_TIMEOUT.toMillis();
+            } finally {
+                for (Socket socket : slowClients) {
+                    socket.close();
+                }
+            }
+        }
+    }
+
+    private static Socket startSlowPost(int port) throws Exception {
+        Socket socket = new Socket("localhost", port);
+        OutputStream out = socket.getOutputStream();
+        out.write(("POST /films HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/json\r\n"
+                + "Content-Length: 200\r\n\r\n{\"name\":\"Медл").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        return socket;
+    }
+}
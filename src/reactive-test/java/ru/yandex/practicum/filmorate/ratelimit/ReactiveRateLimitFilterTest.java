@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "filmorate.rate-limit.max-in-flight=4")
+@ActiveProfiles("reactive")
+class ReactiveRateLimitFilterTest {
+
+    private static final int STREAMS = 10;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LoadShedder loadShedder;
+
+    @Test
+    void openEventStreams_doNotHoldLoadShedderSlots() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        List<InputStream> streams = new ArrayList<>();
+        try {
+            for (int i = 0; i < STREAMS; i++) {
+                String path = i % 2 == 0 ? "/feed" : "/films/popular/stream";
+                HttpResponse<InputStream> response = client.send(request(path)
+                        .header("Accept", "text/event-stream").build(), HttpResponse.BodyHandlers.ofInputStream());
+                assertEquals(200, response.statusCode(), path);
+                streams.add(response.body());
+                // Первое событие (retry) пришло — поток открыт и ответ уже отправляется
+                assertNotNull(new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))
+                        .readLine());
+            }
+
+            HttpResponse<String> films = client.send(request("/films").build(), HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(200, films.statusCode(), films.body());
+            assertEquals(0, loadShedder.inFlight());
+        } finally {
+            for (InputStream stream : streams) {
+                stream.close();
+            }
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+    }
+}
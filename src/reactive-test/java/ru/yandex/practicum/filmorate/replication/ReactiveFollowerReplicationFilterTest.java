@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveFollowerReplicationFilterTest {
+
+    private static final String FILM = "{\"name\":\"Фильм\",\"description\":\"Описание\","
+            + "\"releaseDate\":\"2000-01-01\",\"duration\":100}";
+
+    private static final HttpClient client = HttpClient.newHttpClient();
+    private static ConfigurableApplicationContext primary;
+    private static ConfigurableApplicationContext follower;
+
+    @BeforeAll
+    static void start() {
+        primary = new SpringApplicationBuilder(FilmorateApplication.class)
+                .run("--server.port=0", "--filmorate.replication.role=primary", "--filmorate.replication.port=0");
+        follower = new SpringApplicationBuilder(FilmorateApplication.class)
+                .run("--server.port=0", "--spring.profiles.active=reactive", "--filmorate.replication.role=follower",
+                        "--filmorate.replication.read-your-writes-timeout-millis=500",
+                        "--filmorate.replication.port=" + primary.getBean(ReplicationServer.class).port());
+    }
+
+    @AfterAll
+    static void stop() {
+        follower.close();
+        primary.close();
+    }
+
+    @Test
+    void writeOnReactiveFollower_isForbidden() throws Exception {
+        HttpResponse<String> response = send(follower, "POST", "/films", FILM, null);
+
+        assertEquals(403, response.statusCode());
+        assertTrue(response.body().contains("Запись возможна только на основном экземпляре"), response.body());
+        assertEquals("[]", send(follower, "GET", "/films", null, null).body());
+    }
+
+    @Test
+    void readWithToken_waitsForReplicatedWrite() throws Exception {
+        HttpResponse<String> added = send(primary, "POST", "/films", FILM, null);
+        String token = added.headers().firstValue(ReplicationLog.VERSION_HEADER).orElseThrow();
+        String id = added.body().replaceAll(".*\"id\":(\\d+).*", "$1");
+
+        HttpResponse<String> read = send(follower, "GET", "/films/" + id, null, token);
+
+        assertEquals(200, read.statusCode());
+        assertTrue(Long.parseLong(read.headers().firstValue(ReplicationLog.VERSION_HEADER).orElseThrow())
+                >= Long.parseLong(token));
+    }
+
+    @Test
+    void unreachableVersion_returnsServiceUnavailable() throws Exception {
+        HttpResponse<String> response = send(follower, "GET", "/films", null, Long.toString(Long.MAX_VALUE));
+
+        assertEquals(503, response.statusCode());
+        assertTrue(response.headers().firstValue("Retry-After").isPresent());
+    }
+
+    private static HttpResponse<String> send(ConfigurableApplicationContext context, String method, String path,
+                                             String body, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:"
+                        + context.getEnvironment().getProperty("local.server.port") + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header(ReplicationLog.VERSION_HEADER, token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Реактивный вариант работает на Netty. Tomcat остаётся в артефакте ради сервлетного варианта,
+ * и без явной фабрики Spring Boot поднял бы WebFlux на нём: автоконфигурация пробует Tomcat первым.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.SingleFlight;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+/**
+ * Неблокирующий вариант {@link AdminController}, включается тем же свойством filmorate.admin.enabled.
+ */
+@RestController
+@Profile("reactive")
+@ConditionalOnProperty(name = "filmorate.admin.enabled", havingValue = "true")
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+public class ReactiveAdminController {
+
+    private final FilmService filmService;
+    private final UserService userService;
+
+    @GetMapping("/single-flight")
+    public Flux<SingleFlight.Stats> getSingleFlightStats() {
+        return Flux.defer(() -> Flux.concat(Flux.fromIterable(filmService.singleFlightStats()),
+                Flux.fromIterable(userService.singleFlightStats())));
+    }
+}
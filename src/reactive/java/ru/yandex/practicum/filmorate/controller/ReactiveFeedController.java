@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import ru.yandex.practicum.filmorate.event.ChangeFeed;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Неблокирующий вариант {@link FeedController}. Ожидание новых записей ленты блокирующее,
+ * поэтому чтение вынесено с цикла событий на виртуальные потоки; отправка идёт
+ * по запросам подписчика, и медленный клиент просто реже читает свой курсор.
+ */
+@RestController
+@Profile("reactive")
+@Slf4j
+public class ReactiveFeedController {
+
+    private final ChangeFeed changeFeed;
+    private final Scheduler readers = Schedulers.fromExecutorService(
+            Executors.newVirtualThreadPerTaskExecutor(), "change-feed");
+
+    public ReactiveFeedController(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    @GetMapping(value = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) Long after) {
+        return Flux.defer(() -> {
+            long start = lastEventId != null ? lastEventId : after != null ? after : changeFeed.head();
+            log.info("Подписка на ленту изменений после смещения {}", start);
+            return Flux.<List<ChangeFeed.Entry>, long[]>generate(() -> new long[]{start}, (cursor, sink) -> {
+                try {
+                    List<ChangeFeed.Entry> entries = changeFeed.read(cursor[0], FeedController.BATCH_SIZE,
+                            FeedController.HEARTBEAT_MILLIS);
+                    if (!entries.isEmpty()) {
+                        cursor[0] = entries.get(entries.size() - 1).offset();
+                    }
+                    sink.next(entries);
+                } catch (InterruptedException e) {
+                    sink.complete();
+                }
+                return cursor;
+            }).subscribeOn(readers);
+        }).concatMapIterable(ReactiveFeedController::toEvents)
+                .startWith(ServerSentEvent.builder().retry(Duration.ofMillis(FeedController.RETRY_MILLIS)).build());
+    }
+
+    @PreDestroy
+    public void close() {
+        readers.dispose();
+    }
+
+    private static List<ServerSentEvent<Object>> toEvents(List<ChangeFeed.Entry> entries) {
+        if (entries.isEmpty()) {
+            return List.of(ServerSentEvent.builder().comment("ping").build());
+        }
+        return entries.stream()
+                .map(entry -> ServerSentEvent.builder(entry.data())
+                        .id(Long.toString(entry.offset()))
+                        .event(entry.name())
+                        .build())
+                .toList();
+    }
+}
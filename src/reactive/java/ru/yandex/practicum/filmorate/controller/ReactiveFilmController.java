@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.PopularFilmEstimate;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.util.function.Function;
+
+/**
+ * Вариант {@link FilmController} для профиля reactive (WebFlux/Netty). Без блокировок здесь
+ * только ввод-вывод: сервисы и хранилища берут блокировки (полосы дружбы, журнал репликации,
+ * хранилища вне кучи), поэтому их вызовы выполняются на boundedElastic, а цикл событий
+ * только читает запросы и пишет ответы — медленный клиент не занимает поток.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/films")
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveFilmController {
+
+    private final FilmService filmService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Film> addFilm(@Valid @RequestBody Mono<Film> film) {
+        return film.publishOn(Schedulers.boundedElastic()).map(f -> {
+            log.info("Добавление фильма: {}", f.getName());
+            return filmService.addFilm(f);
+        });
+    }
+
+    @PutMapping
+    public Mono<Film> updateFilm(@Valid @RequestBody Mono<Film> film) {
+        return film.publishOn(Schedulers.boundedElastic()).map(f -> {
+            log.info("Обновление фильма с id: {}", f.getId());
+            return filmService.updateFilm(f);
+        });
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteFilm(@PathVariable Integer id) {
+        return Mono.<Void>fromRunnable(() -> {
+            log.info("Удаление фильма с id: {}", id);
+            filmService.deleteFilm(id);
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping
+    public Flux<Film> getAllFilms() {
+        return Mono.fromCallable(() -> {
+                    log.info("Получение всех фильмов");
+                    return filmService.getAllFilms();
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(Function.identity());
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Film> getFilmById(@PathVariable Integer id) {
+        return Mono.fromCallable(() -> {
+            log.info("Получение фильма с id: {}", id);
+            return filmService.getFilmById(id);
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PutMapping("/{id}/like/{userId}")
+    public Mono<Void> addLike(@PathVariable Integer id, @PathVariable Integer userId) {
+        return Mono.<Void>fromRunnable(() -> {
+            log.info("Добавление лайка фильму {} от пользователя {}", id, userId);
+            filmService.addLike(id, userId);
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @DeleteMapping("/{id}/like/{userId}")
+    public Mono<Void> removeLike(@PathVariable Integer id, @PathVariable Integer userId) {
+        return Mono.<Void>fromRunnable(() -> {
+            log.info("Удаление лайка фильма {} от пользователя {}", id, userId);
+            filmService.removeLike(id, userId);
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/popular")
+    public Flux<Film> getPopularFilms(@RequestParam(defaultValue = "10") Integer count) {
+        // Совпавшие запросы ждут общий результат подпиской на future, не занимая поток
+        return Mono.fromFuture(() -> {
+                    log.info("Получение {} популярных фильмов", count);
+                    return filmService.getPopularFilmsAsync(count, Schedulers.boundedElastic()::schedule);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(Function.identity());
+    }
+
+    @GetMapping(value = "/popular", params = "approx=true")
+    public Flux<PopularFilmEstimate> getApproximatePopularFilms(@RequestParam(defaultValue = "10") Integer count) {
+        return Mono.fromCallable(() -> {
+                    log.info("Получение {} популярных фильмов по приближённому рейтингу", count);
+                    return filmService.getApproximatePopularFilms(count);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(Function.identity());
+    }
+}
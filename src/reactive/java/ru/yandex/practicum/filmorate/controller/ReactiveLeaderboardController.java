@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import ru.yandex.practicum.filmorate.service.PopularityLeaderboard;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Неблокирующий вариант {@link LeaderboardController}; ожидание новой версии вынесено
+ * на виртуальные потоки, как в {@link ReactiveFeedController}.
+ */
+@RestController
+@Profile("reactive")
+@Slf4j
+public class ReactiveLeaderboardController {
+
+    private final PopularityLeaderboard leaderboard;
+    private final Scheduler waiters = Schedulers.fromExecutorService(
+            Executors.newVirtualThreadPerTaskExecutor(), "leaderboard");
+
+    public ReactiveLeaderboardController(PopularityLeaderboard leaderboard) {
+        this.leaderboard = leaderboard;
+    }
+
+    @GetMapping(value = "/films/popular/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamPopularFilms(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return Flux.defer(() -> {
+            log.info("Подписка на таблицу популярных фильмов");
+            long start = LeaderboardController.knownVersion(leaderboard, lastEventId);
+            return Flux.<ServerSentEvent<String>, long[]>generate(() -> new long[]{start}, (known, sink) -> {
+                try {
+                    PopularityLeaderboard.Update update = leaderboard.awaitNewer(known[0],
+                            FeedController.HEARTBEAT_MILLIS);
+                    if (update == null) {
+                        sink.next(ServerSentEvent.<String>builder().comment("ping").build());
+                        return known;
+                    }
+                    boolean diff = LeaderboardController.isDiff(update, known[0]);
+                    sink.next(ServerSentEvent.builder(diff ? update.diffJson() : update.snapshotJson())
+                            .id(Long.toString(update.version()))
+                            .event(diff ? "diff" : "snapshot")
+                            .build());
+                    known[0] = update.version();
+                } catch (InterruptedException e) {
+                    sink.complete();
+                }
+                return known;
+            }).subscribeOn(waiters);
+        }).startWith(ServerSentEvent.<String>builder()
+                .retry(Duration.ofMillis(FeedController.RETRY_MILLIS)).build());
+    }
+
+    @PreDestroy
+    public void close() {
+        waiters.dispose();
+    }
+}
@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.util.function.Function;
+
+/**
+ * Вариант {@link UserController} для профиля reactive (WebFlux/Netty); сервис вызывается
+ * на boundedElastic, как в {@link ReactiveFilmController}.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/users")
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveUserController {
+
+    private final UserService userService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<User> addUser(@Valid @RequestBody Mono<User> user) {
+        return user.publishOn(Schedulers.boundedElastic()).map(u -> {
+            log.info("Добавление пользователя: {}", u.getLogin());
+            return userService.addUser(u);
+        });
+    }
+
+    @PutMapping
+    public Mono<User> updateUser(@Valid @RequestBody Mono<User> user) {
+        return user.publishOn(Schedulers.boundedElastic()).map(u -> {
+            log.info("Обновление пользователя с id: {}", u.getId());
+            return userService.updateUser(u);
+        });
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteUser(@PathVariable Integer id) {
+        return Mono.<Void>fromRunnable(() -> {
+            log.info("Удаление пользователя с id: {}", id);
+            userService.deleteUser(id);
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping
+    public Flux<User> getAllUsers() {
+        return Mono.fromCallable(() -> {
+                    log.info("Получение всех пользователей");
+                    return userService.getAllUsers();
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(Function.identity());
+    }
+
+    @GetMapping("/{id}")
+    public Mono<User> getUserById(@PathVariable Integer id) {
+        return Mono.fromCallable(() -> {
+            log.info("Получение пользователя с id: {}", id);
+            return userService.getUserById(id);
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PutMapping("/{id}/friends/{friendId}")
+    public Mono<Void> addFriend(@PathVariable Integer id, @PathVariable Integer friendId) {
+        return Mono.<Void>fromRunnable(() -> {
+            log.info("Добавление друга {} пользователю {}", friendId, id);
+            userService.addFriend(id, friendId);
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @DeleteMapping("/{id}/friends/{friendId}")
+    public Mono<Void> removeFriend(@PathVariable Integer id, @PathVariable Integer friendId) {
+        return Mono.<Void>fromRunnable(() -> {
+            log.info("Удаление друга {} у пользователя {}", friendId, id);
+            userService.removeFriend(id, friendId);
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/{id}/friends")
+    public Flux<User> getFriends(@PathVariable Integer id) {
+        return Mono.fromCallable(() -> {
+                    log.info("Получение списка друзей пользователя {}", id);
+                    return userService.getFriends(id);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(Function.identity());
+    }
+
+    @GetMapping("/{id}/friends/common/{otherId}")
+    public Flux<User> getCommonFriends(@PathVariable Integer id, @PathVariable Integer otherId) {
+        return Mono.fromFuture(() -> {
+                    log.info("Получение общих друзей пользователей {} и {}", id, otherId);
+                    return userService.getCommonFriendsAsync(id, otherId, Schedulers.boundedElastic()::schedule);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(Function.identity());
+    }
+
+    @GetMapping("/{id}/path/{otherId}")
+    public Flux<User> getFriendshipPath(@PathVariable Integer id, @PathVariable Integer otherId) {
+        return Mono.fromCallable(() -> {
+                    log.info("Поиск цепочки друзей от пользователя {} до {}", id, otherId);
+                    return userService.getFriendshipPath(id, otherId);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(Function.identity());
+    }
+}
@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ограничение частоты и сброс нагрузки перед контроллерами для реактивного стека.
+ * Место в {@link LoadShedder} освобождается, как только ответ начал отправляться:
+ * как и сервлетный фильтр, выходящий при старте асинхронной обработки, сброс нагрузки
+ * считает работу обработчика, а не время жизни соединения — иначе открытые потоки
+ * событий (/feed, /films/popular/stream) заняли бы все места.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ReactiveRateLimitFilter implements WebFilter {
+
+    private final RateLimitProperties properties;
+    private final RateLimiter rateLimiter;
+    private final LoadShedder loadShedder;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        long waitNanos = rateLimiter.tryAcquire(request.getPath().value(), clientKey(request));
+        if (waitNanos > 0) {
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, Rejections.retryAfterSeconds(waitNanos));
+            return reject(exchange.getResponse(), HttpStatus.TOO_MANY_REQUESTS, Rejections.TOO_MANY_REQUESTS);
+        }
+        if (!loadShedder.tryEnter()) {
+            return reject(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE, Rejections.OVERLOADED);
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                loadShedder.exit();
+            }
+        };
+        exchange.getResponse().beforeCommit(() -> {
+            release.run();
+            return Mono.empty();
+        });
+        return chain.filter(exchange).doFinally(signal -> release.run());
+    }
+
+    private String clientKey(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return rateLimiter.clientKey(remoteAddress == null ? "" : remoteAddress.getHostString(),
+                request.getHeaders().getFirst(Rejections.CLIENT_ID_HEADER));
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response, HttpStatus status, byte[] body) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
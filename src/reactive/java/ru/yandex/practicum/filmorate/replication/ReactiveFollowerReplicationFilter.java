@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * {@link FollowerReplicationFilter} для реактивного стека: ведомый только читает, а без этого
+ * фильтра локальная запись разошлась бы с основным и сломала репликацию. Ожидание версии
+ * из заголовка блокирует поток, поэтому выполняется на boundedElastic, а не на цикле событий.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnProperty(name = "filmorate.replication.role", havingValue = "follower")
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class ReactiveFollowerReplicationFilter implements WebFilter {
+
+    private final ReplicationFollower follower;
+    private final ReplicationProperties properties;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (follower.isFailed()) {
+            return reject(response, HttpStatus.SERVICE_UNAVAILABLE, FollowerReplicationFilter.FAILED);
+        }
+        if (!HttpMethod.GET.equals(exchange.getRequest().getMethod())) {
+            return reject(response, HttpStatus.FORBIDDEN, FollowerReplicationFilter.READ_ONLY);
+        }
+        String token = exchange.getRequest().getHeaders().getFirst(ReplicationLog.VERSION_HEADER);
+        if (token == null) {
+            return proceed(exchange, chain);
+        }
+        long version;
+        try {
+            version = Long.parseLong(token);
+        } catch (NumberFormatException e) {
+            return reject(response, HttpStatus.BAD_REQUEST, FollowerReplicationFilter.BAD_VERSION);
+        }
+        return Mono.fromCallable(() -> follower.awaitVersion(version, properties.getReadYourWritesTimeoutMillis()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(applied -> {
+                    if (applied) {
+                        return proceed(exchange, chain);
+                    }
+                    if (follower.isFailed()) {
+                        return reject(response, HttpStatus.SERVICE_UNAVAILABLE, FollowerReplicationFilter.FAILED);
+                    }
+                    response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                    return reject(response, HttpStatus.SERVICE_UNAVAILABLE, FollowerReplicationFilter.LAGGING);
+                });
+    }
+
+    private Mono<Void> proceed(ServerWebExchange exchange, WebFilterChain chain) {
+        exchange.getResponse().getHeaders().set(ReplicationLog.VERSION_HEADER,
+                Long.toString(follower.appliedVersion()));
+        return chain.filter(exchange);
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response, HttpStatus status, byte[] body) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
+import ru.yandex.practicum.filmorate.profiling.ResourceAccounting;
+import ru.yandex.practicum.filmorate.profiling.ResourceAccountingProperties;
+import ru.yandex.practicum.filmorate.profiling.SlowRequestDetector;
+import ru.yandex.practicum.filmorate.profiling.SlowRequestProperties;
+import ru.yandex.practicum.filmorate.service.ApproximatePopularity;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.FriendGraph;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class AdminControllerTest {
+
+    @Test
+    void getSingleFlightStats_countsCallsPerEndpoint() throws Exception {
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        DomainEventBus eventBus = new DomainEventBus();
+        FilmService filmService = new FilmService(filmStorage, userStorage, eventBus,
+                new ApproximatePopularity(eventBus, 100));
+        UserService userService = new UserService(userStorage, filmStorage, eventBus,
+                new FriendGraph(userStorage, 1000, 6));
+        SlowRequestProperties slowRequestProperties = new SlowRequestProperties();
+        slowRequestProperties.setEnabled(false);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new FilmController(filmService),
+                new AdminController(filmService, userService,
+                        new ResourceAccounting(new ResourceAccountingProperties()),
+                        new SlowRequestDetector(slowRequestProperties))).build();
+
+        mockMvc.perform(get("/films/popular")).andExpect(status().isOk());
+        mockMvc.perform(get("/films/popular")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/admin/single-flight"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("popular-films"))
+                .andExpect(jsonPath("$[0].calls").value(2))
+                .andExpect(jsonPath("$[0].executions").value(2))
+                .andExpect(jsonPath("$[0].coalescingRatio").value(0.0))
+                .andExpect(jsonPath("$[1].name").value("common-friends"))
+                .andExpect(jsonPath("$[1].calls").value(0));
+        eventBus.shutdown();
+    }
+
+    @Test
+    void adminEndpoints_disabledByDefault() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .run("--server.port=0")) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            HttpResponse<String> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/admin/slow-requests")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(404, response.statusCode());
+            assertTrue(context.getBeansOfType(AdminController.class).isEmpty());
+        }
+    }
+}
@@ -54,4 +54,24 @@ class ErrorHandlerTest {
         assertNotNull(response);
         assertEquals("Внутренняя ошибка сервера", response.getError());
     }
-}
\ No newline at end of file
+
+    @Test
+    void handleValidationException_sameMessage_reusesPrecomputedBody() {
+        ErrorResponse first = errorHandler.handleValidationException(new ValidationException("Invalid input data"));
+        ErrorResponse second = errorHandler.handleValidationException(new ValidationException("Invalid input data"));
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void handleServerException_returnsSharedBody() {
+        assertSame(errorHandler.handleServerException(new RuntimeException("first")),
+                errorHandler.handleServerException(new RuntimeException("second")));
+    }
+
+    @Test
+    void domainExceptions_doNotCaptureStackTrace() {
+        assertEquals(0, new NotFoundException("Resource not found").getStackTrace().length);
+        assertEquals(0, new ValidationException("Invalid input data").getStackTrace().length);
+    }
+}
@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import ru.yandex.practicum.filmorate.event.ChangeFeed;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class FeedControllerTest {
+
+    private static final String USER = "{\"email\":\"feed@mail.ru\",\"login\":\"feed\",\"birthday\":\"1990-01-01\"}";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void feed_streamsChangesMadeAfterSubscription() throws Exception {
+        HttpResponse<Stream<String>> stream = client.send(HttpRequest.newBuilder(uri("/feed")).build(),
+                HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, stream.statusCode());
+        assertTrue(stream.headers().firstValue("Content-Type").orElseThrow().startsWith("text/event-stream"));
+
+        addUser();
+
+        try (Stream<String> lines = stream.body()) {
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> awaitLine(lines.iterator(), "event:USER_ADDED"));
+        }
+    }
+
+    @Test
+    void feed_lastEventId_resumesAfterOffset() throws Exception {
+        long before = changeFeed.head();
+        addUser();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (changeFeed.head() == before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        HttpResponse<Stream<String>> stream = client.send(HttpRequest.newBuilder(uri("/feed"))
+                .header("Last-Event-ID", Long.toString(before)).build(), HttpResponse.BodyHandlers.ofLines());
+
+        try (Stream<String> lines = stream.body()) {
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                Iterator<String> iterator = lines.iterator();
+                awaitLine(iterator, "id:" + (before + 1));
+                assertEquals("event:USER_ADDED", iterator.next());
+            });
+        }
+    }
+
+    private void addUser() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/users"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(USER)).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(201, response.statusCode());
+    }
+
+    private static void awaitLine(Iterator<String> lines, String expected) {
+        while (!lines.next().equals(expected)) {
+            // пропускаем чужие события и комментарии
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
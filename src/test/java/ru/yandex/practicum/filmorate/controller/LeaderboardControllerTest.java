@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LeaderboardControllerTest {
+
+    private static final String FILM = "{\"name\":\"Leader\",\"description\":\"Описание\","
+            + "\"releaseDate\":\"2000-01-01\",\"duration\":100}";
+    private static final String USER = "{\"email\":\"fan@mail.ru\",\"login\":\"fan\",\"birthday\":\"1990-01-01\"}";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void stream_startsWithSnapshotThenPushesChanges() throws Exception {
+        HttpResponse<Stream<String>> stream = client.send(HttpRequest.newBuilder(uri("/films/popular/stream"))
+                .build(), HttpResponse.BodyHandlers.ofLines());
+
+        try (Stream<String> lines = stream.body()) {
+            Iterator<String> iterator = lines.iterator();
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                awaitLine(iterator, "event:snapshot");
+                String filmId = post("/films", FILM).replaceAll(".*\"id\":(\\d+).*", "$1");
+                String userId = post("/users", USER).replaceAll(".*\"id\":(\\d+).*", "$1");
+                client.send(HttpRequest.newBuilder(uri("/films/" + filmId + "/like/" + userId))
+                        .PUT(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.discarding());
+
+                String data;
+                do {
+                    awaitLine(iterator, "event:diff");
+                    data = iterator.next();
+                } while (!data.contains("\"filmId\":" + filmId + ",\"name\":\"Leader\",\"likes\":1"));
+                assertTrue(data.startsWith("data:{\"version\":"), data);
+            });
+        }
+    }
+
+    private String post(String path, String body) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private static void awaitLine(Iterator<String> lines, String expected) {
+        while (!lines.next().equals(expected)) {
+            // пропускаем комментарии и служебные поля
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
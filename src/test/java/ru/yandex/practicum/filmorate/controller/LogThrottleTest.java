@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogThrottleTest {
+
+    @Test
+    void tryLog_burstExhausted_countsSuppressedMessages() {
+        LogThrottle throttle = new LogThrottle(0.001, 2);
+
+        assertEquals(0, throttle.tryLog());
+        assertEquals(0, throttle.tryLog());
+        assertEquals(-1, throttle.tryLog());
+        assertEquals(-1, throttle.tryLog());
+    }
+
+    @Test
+    void tryLog_afterPause_reportsSuppressedCount() throws InterruptedException {
+        LogThrottle throttle = new LogThrottle(20, 1);
+
+        assertEquals(0, throttle.tryLog());
+        assertEquals(-1, throttle.tryLog());
+        assertEquals(-1, throttle.tryLog());
+        Thread.sleep(100);
+
+        assertEquals(2, throttle.tryLog());
+    }
+}
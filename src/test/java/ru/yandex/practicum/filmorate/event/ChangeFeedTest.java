@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTest {
+
+    private final DomainEventBus eventBus = new DomainEventBus();
+
+    @AfterEach
+    void tearDown() {
+        eventBus.shutdown();
+    }
+
+    @Test
+    void read_returnsEventsWithConsecutiveOffsets() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed(eventBus, 16);
+        eventBus.publish(new DomainEvent(DomainEvent.Type.FILM_ADDED, 1, null));
+        eventBus.publish(new DomainEvent(DomainEvent.Type.LIKE_ADDED, 1, 2));
+
+        List<ChangeFeed.Entry> first = feed.read(0, 1, 5000);
+        List<ChangeFeed.Entry> rest = feed.read(first.get(0).offset(), 10, 5000);
+
+        assertEquals(new ChangeFeed.Entry(1, new DomainEvent(DomainEvent.Type.FILM_ADDED, 1, null)), first.get(0));
+        assertEquals(2, rest.get(rest.size() - 1).offset());
+        assertEquals("LIKE_ADDED", rest.get(rest.size() - 1).name());
+    }
+
+    @Test
+    void read_nothingNew_returnsEmptyAfterTimeout() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed(eventBus, 16);
+
+        assertTrue(feed.read(0, 10, 50).isEmpty());
+    }
+
+    @Test
+    void read_cursorOverwritten_startsWithReset() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed(eventBus, 4);
+        for (int i = 1; i <= 10; i++) {
+            eventBus.publish(new DomainEvent(DomainEvent.Type.USER_ADDED, i, null));
+        }
+        awaitHead(feed, 10);
+
+        List<ChangeFeed.Entry> entries = feed.read(0, 100, 0);
+
+        assertTrue(entries.get(0).isReset());
+        assertEquals(6, entries.get(0).offset());
+        assertEquals(List.of(7L, 8L, 9L, 10L), entries.stream().skip(1).map(ChangeFeed.Entry::offset).toList());
+    }
+
+    @Test
+    void read_offsetAheadOfHead_returnsReset() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed(eventBus, 4);
+
+        List<ChangeFeed.Entry> entries = feed.read(42, 10, 0);
+
+        assertEquals(List.of(new ChangeFeed.Entry(0, null)), entries);
+    }
+
+    private static void awaitHead(ChangeFeed feed, long head) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (feed.head() < head && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(head, feed.head());
+    }
+}
@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainEventBusTest {
+
+    private final DomainEventBus eventBus = new DomainEventBus();
+
+    @AfterEach
+    void tearDown() {
+        eventBus.shutdown();
+    }
+
+    @Test
+    void publish_deliversEventsInBatchesNotLargerThanBatchSize() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(10);
+        eventBus.subscribe("batches", 100, 4, batch -> {
+            awaitQuietly(release);
+            batchSizes.add(batch.size());
+            batch.forEach(event -> done.countDown());
+        });
+
+        for (int i = 0; i < 10; i++) {
+            eventBus.publish(new DomainEvent(DomainEvent.Type.LIKE_ADDED, i, 1));
+        }
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 4));
+        assertEquals(10, batchSizes.stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void publish_fullQueue_dropsEventsWithoutBlocking() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        DomainEventBus.Subscription subscription = eventBus.subscribe("slow", 2, 1, batch -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+
+        eventBus.publish(new DomainEvent(DomainEvent.Type.FRIEND_ADDED, 1, 2));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            eventBus.publish(new DomainEvent(DomainEvent.Type.FRIEND_ADDED, 1, 2));
+        }
+
+        assertEquals(2, subscription.pendingEvents());
+        assertEquals(8, subscription.droppedEvents());
+        release.countDown();
+    }
+
+    @Test
+    void publish_consumerFails_keepsDeliveringNextBatches() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(2);
+        eventBus.subscribe("failing", 10, 1, batch -> {
+            done.countDown();
+            throw new IllegalStateException("Сбой подписчика");
+        });
+
+        eventBus.publish(new DomainEvent(DomainEvent.Type.LIKE_REMOVED, 1, 1));
+        eventBus.publish(new DomainEvent(DomainEvent.Type.LIKE_REMOVED, 1, 2));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Генератор нагрузки с открытой моделью: запросы уходят по расписанию с заданной частотой,
+ * не дожидаясь ответов на предыдущие. Задержка считается от запланированного момента
+ * отправки, поэтому очередь перед сервером попадает в перцентили, а не прячется
+ * (coordinated omission). Отдельно считается время обслуживания — от фактической отправки.
+ * <p>
+ * Без loadtest.url приложение поднимается в этом же процессе на случайном порту,
+ * с выключенными ограничением частоты и журналированием запросов.
+ * Запуск и параметры — профиль loadtest в pom.xml.
+ */
+public final class LoadGenerator {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int SEED_CONCURRENCY = 64;
+    private static final int SEED_FRIENDS_PER_USER = 5;
+    private static final int SEED_LIKES_PER_USER = 5;
+
+    private record Settings(String url, double rate, int warmupSeconds, int durationSeconds, int films, int users,
+                            TrafficMix mix, Path reportDir) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    System.getProperty("loadtest.url", ""),
+                    Double.parseDouble(System.getProperty("loadtest.rate", "500")),
+                    Integer.getInteger("loadtest.warmup-seconds", 5),
+                    Integer.getInteger("loadtest.duration-seconds", 30),
+                    Integer.getInteger("loadtest.films", 1000),
+                    Integer.getInteger("loadtest.users", 1000),
+                    TrafficMix.parse(System.getProperty("loadtest.mix",
+                            "read-film=40,read-user=15,like=15,friend=10,popular=15,common-friends=5")),
+                    Path.of(System.getProperty("loadtest.report-dir", "target/loadtest")));
+        }
+    }
+
+    private static final class OperationStats {
+        final Histogram responseTime = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+        final Histogram serviceTime = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+        final LongAdder errors = new LongAdder();
+
+        void record(long responseNanos, long serviceNanos, boolean error) {
+            responseTime.recordValue(Math.min(responseNanos, MAX_LATENCY_NANOS));
+            serviceTime.recordValue(Math.min(serviceNanos, MAX_LATENCY_NANOS));
+            if (error) {
+                errors.increment();
+            }
+        }
+    }
+
+    private final Settings settings;
+    private final String baseUrl;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final Map<TrafficMix.Operation, OperationStats> stats = new EnumMap<>(TrafficMix.Operation.class);
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong maxInFlight = new AtomicLong();
+    private final ObjectMapper mapper = new ObjectMapper();
+    // Id созданных записей: на непустом сервере или после удалений они не начинаются с 1 и идут с пропусками
+    private int[] filmIds;
+    private int[] userIds;
+
+    private LoadGenerator(Settings settings, String baseUrl) {
+        this.settings = settings;
+        this.baseUrl = baseUrl;
+        for (TrafficMix.Operation operation : settings.mix().operations()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.fromSystemProperties();
+        ConfigurableApplicationContext application = null;
+        String baseUrl = settings.url();
+        if (baseUrl.isEmpty()) {
+            application = new SpringApplicationBuilder(FilmorateApplication.class).run(
+                    "--server.port=0",
+                    "--filmorate.rate-limit.enabled=false",
+                    "--logging.level.ru.yandex.practicum.filmorate=WARN",
+                    "--logging.level.org.zalando.logbook=OFF");
+            baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            new LoadGenerator(settings, baseUrl).run();
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+    }
+
+    private void run() throws Exception {
+        System.out.printf("Цель: %s, %.0f запросов/с, прогрев %d с, замер %d с%n",
+                baseUrl, settings.rate(), settings.warmupSeconds(), settings.durationSeconds());
+        seed();
+        drive();
+        report();
+    }
+
+    private void seed() throws Exception {
+        long started = System.nanoTime();
+        List<HttpRequest> requests = new ArrayList<>();
+        for (int i = 1; i <= settings.films(); i++) {
+            requests.add(post("/films", "{\"name\":\"Фильм " + i + "\",\"description\":\"Описание\","
+                    + "\"releaseDate\":\"2000-01-01\",\"duration\":100}"));
+        }
+        filmIds = createdIds(sendAll(requests));
+        requests.clear();
+        for (int i = 1; i <= settings.users(); i++) {
+            requests.add(post("/users", "{\"email\":\"user" + i + "@mail.ru\",\"login\":\"user" + i
+                    + "\",\"birthday\":\"1990-01-01\"}"));
+        }
+        userIds = createdIds(sendAll(requests));
+        // Лайки и дружба со смещением к малым id: немногие фильмы и пользователи популярнее остальных
+        Random random = new Random(1);
+        requests.clear();
+        for (int user : userIds) {
+            for (int i = 0; i < SEED_FRIENDS_PER_USER; i++) {
+                requests.add(put("/users/" + user + "/friends/" + skewed(random, userIds)));
+            }
+            for (int i = 0; i < SEED_LIKES_PER_USER; i++) {
+                requests.add(put("/films/" + skewed(random, filmIds) + "/like/" + user));
+            }
+        }
+        sendAll(requests);
+        System.out.printf("Данные созданы за %d мс%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private void drive() throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(2);
+        Random mixRandom = new Random(3);
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(settings.warmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(settings.durationSeconds());
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            TrafficMix.Operation operation = settings.mix().next(mixRandom);
+            HttpRequest request = request(operation, random);
+            boolean measured = intended >= measureFrom;
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                long now = System.nanoTime();
+                if (measured) {
+                    boolean failed = error != null || response.statusCode() >= 500 || response.statusCode() == 429;
+                    stats.get(operation).record(now - intended, now - sent, failed);
+                }
+                inFlight.decrementAndGet();
+            });
+        }
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private HttpRequest request(TrafficMix.Operation operation, SplittableRandom random) {
+        int film = filmIds[random.nextInt(filmIds.length)];
+        int user = userIds[random.nextInt(userIds.length)];
+        int other = userIds[random.nextInt(userIds.length)];
+        return switch (operation) {
+            case READ_FILM -> get("/films/" + film);
+            case READ_USER -> get("/users/" + user);
+            case LIKE -> random.nextInt(4) == 0 ? delete("/films/" + film + "/like/" + user)
+                    : put("/films/" + film + "/like/" + user);
+            case FRIEND -> user == other ? get("/users/" + user + "/friends")
+                    : random.nextBoolean() ? put("/users/" + user + "/friends/" + other)
+                    : delete("/users/" + user + "/friends/" + other);
+            case POPULAR -> get("/films/popular?count=10");
+            case COMMON_FRIENDS -> get("/users/" + user + "/friends/common/" + other);
+        };
+    }
+
+    private void report() throws IOException {
+        Files.createDirectories(settings.reportDir());
+        System.out.printf("%n%-15s %9s %7s %9s %9s %9s %9s %9s %9s %9s%n", "операция", "запросов", "ошибок",
+                "запр/с", "p50, мс", "p90, мс", "p99, мс", "p99.9, мс", "max, мс", "p99 обсл.");
+        long total = 0;
+        long totalErrors = 0;
+        for (Map.Entry<TrafficMix.Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operationStats = entry.getValue();
+            Histogram histogram = operationStats.responseTime;
+            long count = histogram.getTotalCount();
+            total += count;
+            totalErrors += operationStats.errors.sum();
+            System.out.printf("%-15s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey().key, count,
+                    operationStats.errors.sum(), (double) count / settings.durationSeconds(),
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()), millis(operationStats.serviceTime.getValueAtPercentile(99)));
+            try (PrintStream out = new PrintStream(settings.reportDir().resolve(entry.getKey().key + ".hgrm")
+                    .toFile())) {
+                histogram.outputPercentileDistribution(out, 1_000_000.0);
+            }
+        }
+        System.out.printf("%nВсего: %d запросов, %d ошибок, %.1f запр/с (цель %.0f), максимум в полёте: %d%n",
+                total, totalErrors, (double) total / settings.durationSeconds(), settings.rate(), maxInFlight.get());
+        System.out.printf("Распределения задержек (мс) для HdrHistogram plotter: %s%n",
+                settings.reportDir().toAbsolutePath());
+    }
+
+    /**
+     * Отправляет запросы не более чем по SEED_CONCURRENCY одновременно; ответы — в порядке запросов.
+     */
+    private List<HttpResponse<String>> sendAll(List<HttpRequest> requests) throws Exception {
+        Semaphore permits = new Semaphore(SEED_CONCURRENCY);
+        List<CompletableFuture<HttpResponse<String>>> futures = new ArrayList<>(requests.size());
+        for (HttpRequest request : requests) {
+            permits.acquire();
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> permits.release()));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.MINUTES);
+        List<HttpResponse<String>> responses = new ArrayList<>(futures.size());
+        for (CompletableFuture<HttpResponse<String>> future : futures) {
+            responses.add(future.get());
+        }
+        return responses;
+    }
+
+    private int[] createdIds(List<HttpResponse<String>> responses) throws IOException {
+        int[] ids = new int[responses.size()];
+        for (int i = 0; i < ids.length; i++) {
+            HttpResponse<String> response = responses.get(i);
+            if (response.statusCode() >= 300) {
+                throw new IllegalStateException("Не удалось создать данные: " + response.request().uri() + " -> "
+                        + response.statusCode() + " " + response.body());
+            }
+            ids[i] = mapper.readTree(response.body()).get("id").asInt();
+        }
+        return ids;
+    }
+
+    private static int skewed(Random random, int[] ids) {
+        // Квадрат равномерного числа сдвигает выбор к первым созданным записям
+        double u = random.nextDouble();
+        return ids[(int) (u * u * ids.length)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest put(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).PUT(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private HttpRequest delete(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).DELETE().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Доли операций в нагрузке, например {@code read-film=40,like=15,popular=15}.
+ * Вес — относительный, сумма не обязана быть равной 100.
+ */
+final class TrafficMix {
+
+    enum Operation {
+        READ_FILM("read-film"),
+        READ_USER("read-user"),
+        LIKE("like"),
+        FRIEND("friend"),
+        POPULAR("popular"),
+        COMMON_FRIENDS("common-friends");
+
+        final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        static Operation byKey(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equals(key)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Неизвестная операция в loadtest.mix: " + key);
+        }
+    }
+
+    private final List<Operation> operations;
+    private final int[] cumulative;
+
+    private TrafficMix(List<Operation> operations, int[] cumulative) {
+        this.operations = operations;
+        this.cumulative = cumulative;
+    }
+
+    static TrafficMix parse(String spec) {
+        List<Operation> operations = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String[] keyAndWeight = part.trim().split("=");
+            if (keyAndWeight.length != 2) {
+                throw new IllegalArgumentException("Ожидалось операция=вес, получено: " + part);
+            }
+            int weight = Integer.parseInt(keyAndWeight[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Вес операции не может быть отрицательным: " + part);
+            }
+            if (weight > 0) {
+                operations.add(Operation.byKey(keyAndWeight[0].trim()));
+                weights.add(weight);
+            }
+        }
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("В loadtest.mix нет ни одной операции с положительным весом");
+        }
+        int[] cumulative = new int[weights.size()];
+        int sum = 0;
+        for (int i = 0; i < weights.size(); i++) {
+            sum += weights.get(i);
+            cumulative[i] = sum;
+        }
+        return new TrafficMix(List.copyOf(operations), cumulative);
+    }
+
+    Operation next(Random random) {
+        int point = random.nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (point < cumulative[i]) {
+                return operations.get(i);
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    List<Operation> operations() {
+        return operations;
+    }
+}
@@ -0,0 +1,42 @@
+package ru.yandex.practicum.filmorate.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrafficMixTest {
+
+    @Test
+    void next_followsWeights() {
+        TrafficMix mix = TrafficMix.parse("read-film=3, like=1, popular=0");
+        Map<TrafficMix.Operation, Integer> counts = new EnumMap<>(TrafficMix.Operation.class);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 40_000; i++) {
+            counts.merge(mix.next(random), 1, Integer::sum);
+        }
+
+        assertEquals(List.of(TrafficMix.Operation.READ_FILM, TrafficMix.Operation.LIKE), mix.operations());
+        assertEquals(30_000, counts.get(TrafficMix.Operation.READ_FILM), 600);
+        assertEquals(10_000, counts.get(TrafficMix.Operation.LIKE), 600);
+        assertFalse(counts.containsKey(TrafficMix.Operation.POPULAR));
+    }
+
+    @Test
+    void parse_unknownOperation_throws() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> TrafficMix.parse("read-film=1,delete-everything=5"));
+
+        assertEquals("Неизвестная операция в loadtest.mix: delete-everything", e.getMessage());
+    }
+
+    @Test
+    void parse_allWeightsZero_throws() {
+        assertThrows(IllegalArgumentException.class, () -> TrafficMix.parse("like=0"));
+    }
+}
@@ -0,0 +1,162 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.yandex.practicum.filmorate.controller.ErrorHandler;
+import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.controller.UserController;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.ApproximatePopularity;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.FriendGraph;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class JfrEventsTest {
+
+    private static final String STORAGE_EVENT = "ru.yandex.practicum.filmorate.StorageOperation";
+    private static final String SERVICE_EVENT = "ru.yandex.practicum.filmorate.ServiceOperation";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void storageAndServiceCalls_recordedWithIdsAndSizes() throws Exception {
+        FilmStorage filmStorage = new ProfilingFilmStorage(new InMemoryFilmStorage());
+        UserStorage userStorage = new ProfilingUserStorage(new InMemoryUserStorage());
+        DomainEventBus eventBus = new DomainEventBus();
+        FriendGraph friendGraph = new FriendGraph(userStorage, 60_000, 6);
+        FilmService filmService = new FilmService(filmStorage, userStorage, eventBus,
+                new ApproximatePopularity(eventBus, 100));
+        UserService userService = new UserService(userStorage, filmStorage, eventBus, friendGraph);
+        Path file = tempDir.resolve("filmorate.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(STORAGE_EVENT).withThreshold(Duration.ZERO);
+            recording.enable(SERVICE_EVENT).withThreshold(Duration.ZERO);
+            recording.start();
+            filmStorage.addFilm(film());
+            userStorage.addUser(user("first"));
+            userStorage.addUser(user("second"));
+            userService.addFriend(1, 2);
+            filmService.getPopularFilms(10);
+            userService.getCommonFriends(1, 2);
+            userService.getFriends(1);
+            recording.stop();
+            recording.dump(file);
+        } finally {
+            friendGraph.close();
+            eventBus.shutdown();
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+        RecordedEvent addFriend = find(events, STORAGE_EVENT, "addFriend");
+        assertEquals("user", addFriend.getString("storage"));
+        assertEquals(1, addFriend.getInt("entityId"));
+        assertEquals(2, addFriend.getInt("otherId"));
+        assertEquals(1, addFriend.getInt("resultSize"));
+        RecordedEvent popular = find(events, SERVICE_EVENT, "getPopularFilms");
+        assertEquals(10, popular.getInt("count"));
+        assertEquals(1, popular.getInt("resultSize"));
+        RecordedEvent common = find(events, SERVICE_EVENT, "getCommonFriends");
+        assertEquals(1, common.getInt("userId"));
+        assertEquals(2, common.getInt("otherId"));
+        assertEquals(0, common.getInt("resultSize"));
+        assertEquals(1, find(events, SERVICE_EVENT, "getFriends").getInt("resultSize"));
+    }
+
+    @Test
+    void defaultThreshold_skipsFastCalls() throws Exception {
+        FilmStorage filmStorage = new ProfilingFilmStorage(new InMemoryFilmStorage());
+        Path file = tempDir.resolve("threshold.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(STORAGE_EVENT);
+            recording.start();
+            filmStorage.getFilmById(1);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        assertTrue(RecordingFile.readAllEvents(file).stream()
+                .noneMatch(event -> event.getEventType().getName().equals(STORAGE_EVENT)));
+    }
+
+    @Test
+    void updateWithoutId_profilingStorages_returnsNotFound() throws Exception {
+        FilmStorage filmStorage = new ProfilingFilmStorage(new InMemoryFilmStorage());
+        UserStorage userStorage = new ProfilingUserStorage(new InMemoryUserStorage());
+        DomainEventBus eventBus = new DomainEventBus();
+        FriendGraph friendGraph = new FriendGraph(userStorage, 60_000, 6);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+                        new FilmController(new FilmService(filmStorage, userStorage, eventBus,
+                                new ApproximatePopularity(eventBus, 100))),
+                        new UserController(new UserService(userStorage, filmStorage, eventBus, friendGraph)))
+                .setControllerAdvice(new ErrorHandler())
+                .build();
+
+        try (Recording recording = new Recording()) {
+            recording.enable(STORAGE_EVENT).withThreshold(Duration.ZERO);
+            recording.start();
+            mockMvc.perform(put("/films").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\":\"Фильм\",\"description\":\"Описание\","
+                                    + "\"releaseDate\":\"2000-01-01\",\"duration\":100}"))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.error").value("Фильм с id null не найден"));
+            mockMvc.perform(put("/users").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"email\":\"user@mail.ru\",\"login\":\"user\","
+                                    + "\"birthday\":\"1990-01-01\"}"))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.error").value("Пользователь с id null не найден"));
+        } finally {
+            friendGraph.close();
+            eventBus.shutdown();
+        }
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String type, String operation) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(type))
+                .filter(event -> operation.equals(event.getString("operation")))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Нет события " + operation));
+    }
+
+    private static Film film() {
+        Film film = new Film();
+        film.setName("Фильм");
+        film.setDescription("Описание");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@mail.ru");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogHistogramTest {
+
+    @Test
+    void summary_empty_isZero() {
+        assertEquals(new LogHistogram.Summary(0, 0, 0, 0, 0, 0), new LogHistogram().summary());
+    }
+
+    @Test
+    void summary_percentilesWithinBucketError() {
+        LogHistogram histogram = new LogHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        LogHistogram.Summary summary = histogram.summary();
+
+        assertEquals(10_000, summary.count());
+        assertEquals(5_000_500.0, summary.mean(), 0.001);
+        assertEquals(10_000_000, summary.max());
+        assertEquals(5_000_000, summary.p50(), 5_000_000 / 16.0);
+        assertEquals(9_000_000, summary.p90(), 9_000_000 / 16.0);
+        assertEquals(9_900_000, summary.p99(), 9_900_000 / 16.0);
+    }
+
+    @Test
+    void record_negative_isIgnored() {
+        LogHistogram histogram = new LogHistogram();
+        histogram.record(-1);
+        histogram.record(5);
+
+        assertEquals(1, histogram.summary().count());
+        assertEquals(5, histogram.summary().p99());
+    }
+
+    @Test
+    void index_coversWholeRangeWithoutGaps() {
+        assertEquals(7, LogHistogram.index(7));
+        assertEquals(8, LogHistogram.index(8));
+        assertEquals(15, LogHistogram.index(15));
+        assertEquals(16, LogHistogram.index(16));
+        assertEquals(LogHistogram.index(Long.MAX_VALUE - 1), LogHistogram.index(Long.MAX_VALUE));
+        for (long value = 1; value < 100_000; value++) {
+            int index = LogHistogram.index(value);
+            assertTrue(index - LogHistogram.index(value - 1) <= 1, "Разрыв на " + value);
+            assertTrue(Math.abs(LogHistogram.midpoint(index) - value) <= Math.max(1, value / 16), "Погрешность на " + value);
+        }
+    }
+}
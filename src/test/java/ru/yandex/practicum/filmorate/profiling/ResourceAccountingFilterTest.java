@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.yandex.practicum.filmorate.controller.AdminController;
+import ru.yandex.practicum.filmorate.controller.ErrorHandler;
+import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
+import ru.yandex.practicum.filmorate.service.ApproximatePopularity;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.FriendGraph;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ResourceAccountingFilterTest {
+
+    private final DomainEventBus eventBus = new DomainEventBus();
+    private final FriendGraph friendGraph = new FriendGraph(new InMemoryUserStorage(), 1000, 6);
+    private final SlowRequestDetector slowRequestDetector = new SlowRequestDetector(new SlowRequestProperties());
+
+    @AfterEach
+    void tearDown() {
+        friendGraph.close();
+        slowRequestDetector.close();
+        eventBus.shutdown();
+    }
+
+    private MockMvc mockMvc(ResourceAccounting accounting) {
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        FilmService filmService = new FilmService(filmStorage, userStorage, eventBus,
+                new ApproximatePopularity(eventBus, 100));
+        UserService userService = new UserService(userStorage, filmStorage, eventBus, friendGraph);
+        return MockMvcBuilders.standaloneSetup(new FilmController(filmService),
+                        new AdminController(filmService, userService, accounting, slowRequestDetector))
+                .setControllerAdvice(new ErrorHandler())
+                .addFilters(new ResourceAccountingFilter(accounting))
+                .build();
+    }
+
+    private ResourceAccounting accounting(double sampleRate, int maxRoutes) {
+        ResourceAccountingProperties properties = new ResourceAccountingProperties();
+        properties.setSampleRate(sampleRate);
+        properties.setMaxRoutes(maxRoutes);
+        return new ResourceAccounting(properties);
+    }
+
+    @Test
+    void sampledRequests_groupedByRouteTemplate() throws Exception {
+        ResourceAccounting accounting = accounting(1.0, 256);
+        MockMvc mockMvc = mockMvc(accounting);
+
+        mockMvc.perform(get("/films/1")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/films/2")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/films/popular")).andExpect(status().isOk());
+
+        ResourceAccounting.RouteStats byId = find(accounting, "GET /films/{id}");
+        assertEquals(2, byId.samples());
+        assertEquals(2, byId.allocatedBytes().count());
+        assertTrue(byId.allocatedBytes().max() > 0);
+        assertTrue(byId.allocatedBytesTotal() > 0);
+        assertEquals(1, find(accounting, "GET /films/popular").samples());
+    }
+
+    @Test
+    void sampleRateZero_recordsNothing() throws Exception {
+        ResourceAccounting accounting = accounting(0, 256);
+        MockMvc mockMvc = mockMvc(accounting);
+
+        mockMvc.perform(get("/films/popular")).andExpect(status().isOk());
+
+        assertTrue(accounting.report().routes().isEmpty());
+    }
+
+    @Test
+    void routesOverLimit_sharedKey() throws Exception {
+        ResourceAccounting accounting = accounting(1.0, 1);
+        MockMvc mockMvc = mockMvc(accounting);
+
+        mockMvc.perform(get("/films/popular")).andExpect(status().isOk());
+        mockMvc.perform(get("/films")).andExpect(status().isOk());
+        mockMvc.perform(get("/films/1")).andExpect(status().isNotFound());
+
+        assertEquals(1, find(accounting, "GET /films/popular").samples());
+        assertEquals(2, find(accounting, ResourceAccounting.OTHER_ROUTES).samples());
+    }
+
+    @Test
+    void adminEndpoint_reportsAndResets() throws Exception {
+        ResourceAccounting accounting = accounting(1.0, 256);
+        MockMvc mockMvc = mockMvc(accounting);
+
+        mockMvc.perform(get("/films")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/admin/resources"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sampleRate").value(1.0))
+                .andExpect(jsonPath("$.routes[?(@.route == 'GET /films')].samples").value(1))
+                .andExpect(jsonPath("$.routes[?(@.route == 'GET /films')].cpuNanos.count").value(1));
+        mockMvc.perform(delete("/admin/resources")).andExpect(status().isNoContent());
+        mockMvc.perform(get("/admin/resources"))
+                .andExpect(jsonPath("$.routes[?(@.route == 'GET /films')]").isEmpty());
+    }
+
+    private static ResourceAccounting.RouteStats find(ResourceAccounting accounting, String route) {
+        return accounting.report().routes().stream()
+                .filter(stats -> stats.route().equals(route))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Нет маршрута " + route));
+    }
+}
@@ -0,0 +1,162 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.yandex.practicum.filmorate.controller.AdminController;
+import ru.yandex.practicum.filmorate.controller.ErrorHandler;
+import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.ApproximatePopularity;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.FriendGraph;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class SlowRequestFilterTest {
+
+    private static final long STORAGE_DELAY_MILLIS = 60;
+
+    /**
+     * Хранилище, в котором выборка популярных фильмов заметно медленнее порога.
+     */
+    private static class SlowPopularStorage extends InMemoryFilmStorage {
+        @Override
+        public List<Film> getPopularFilms(int count) {
+            try {
+                Thread.sleep(STORAGE_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getPopularFilms(count);
+        }
+    }
+
+    private final DomainEventBus eventBus = new DomainEventBus();
+    private final FriendGraph friendGraph = new FriendGraph(new InMemoryUserStorage(), 1000, 6);
+    private SlowRequestDetector detector;
+
+    @AfterEach
+    void tearDown() {
+        detector.close();
+        friendGraph.close();
+        eventBus.shutdown();
+    }
+
+    private MockMvc mockMvc(int capacity) {
+        SlowRequestProperties.Route popular = new SlowRequestProperties.Route();
+        popular.setPattern("/films/popular");
+        popular.setThresholdMillis(20);
+        SlowRequestProperties properties = new SlowRequestProperties();
+        properties.setDefaultThresholdMillis(0);
+        properties.setSampleIntervalMillis(5);
+        properties.setCapacity(capacity);
+        properties.setRoutes(List.of(popular));
+        detector = new SlowRequestDetector(properties);
+
+        FilmStorage filmStorage = new ProfilingFilmStorage(new SlowPopularStorage());
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        filmStorage.addFilm(film());
+        FilmService filmService = new FilmService(filmStorage, userStorage, eventBus,
+                new ApproximatePopularity(eventBus, 100));
+        UserService userService = new UserService(userStorage, filmStorage, eventBus, friendGraph);
+        return MockMvcBuilders.standaloneSetup(new FilmController(filmService),
+                        new AdminController(filmService, userService,
+                                new ResourceAccounting(new ResourceAccountingProperties()), detector))
+                .setControllerAdvice(new ErrorHandler())
+                .addFilters(new SlowRequestFilter(detector))
+                .build();
+    }
+
+    @Test
+    void slowRequest_capturedWithPhasesAndStack() throws Exception {
+        MockMvc mockMvc = mockMvc(16);
+
+        mockMvc.perform(get("/films/popular").param("count", "5")).andExpect(status().isOk());
+
+        List<SlowRequestDetector.SlowRequest> recent = detector.recent(10);
+        assertEquals(1, recent.size());
+        SlowRequestDetector.SlowRequest slow = recent.get(0);
+        assertEquals("GET", slow.method());
+        assertEquals("/films/popular", slow.route());
+        assertEquals("5", slow.parameters().get("count"));
+        assertEquals(200, slow.status());
+        assertEquals(1, slow.resultSize());
+        assertTrue(slow.durationMicros() >= STORAGE_DELAY_MILLIS * 1000);
+        RequestTrace.Phase storage = slow.phases().stream()
+                .filter(phase -> phase.name().equals("film.getPopularFilms"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1, storage.calls());
+        assertTrue(storage.totalMicros() >= STORAGE_DELAY_MILLIS * 1000);
+        assertTrue(slow.phases().stream().anyMatch(phase -> phase.name().equals("service.getPopularFilms")));
+        assertTrue(slow.stack().stream().anyMatch(frame -> frame.contains("SlowPopularStorage.getPopularFilms")),
+                "Стек снят во время задержки: " + slow.stack());
+    }
+
+    @Test
+    void fastOrUntrackedRequests_notCaptured() throws Exception {
+        MockMvc mockMvc = mockMvc(16);
+
+        mockMvc.perform(get("/films")).andExpect(status().isOk());
+        mockMvc.perform(get("/films/1")).andExpect(status().isOk());
+
+        assertTrue(detector.recent(10).isEmpty());
+    }
+
+    @Test
+    void journal_keepsOnlyLatest() throws Exception {
+        MockMvc mockMvc = mockMvc(2);
+
+        for (int count = 1; count <= 3; count++) {
+            mockMvc.perform(get("/films/popular").param("count", String.valueOf(count)))
+                    .andExpect(status().isOk());
+        }
+
+        List<SlowRequestDetector.SlowRequest> recent = detector.recent(10);
+        assertEquals(2, recent.size());
+        assertEquals("3", recent.get(0).parameters().get("count"));
+        assertEquals("2", recent.get(1).parameters().get("count"));
+    }
+
+    @Test
+    void adminEndpoint_listsAndClears() throws Exception {
+        MockMvc mockMvc = mockMvc(16);
+
+        mockMvc.perform(get("/films/popular")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/admin/slow-requests"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].route").value("/films/popular"))
+                .andExpect(jsonPath("$[0].phases[*].name").value(hasItem("film.getPopularFilms")))
+                .andExpect(jsonPath("$[0].stack[0]").value(startsWith("java.base/")));
+        mockMvc.perform(get("/admin/slow-requests").param("limit", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(delete("/admin/slow-requests")).andExpect(status().isNoContent());
+        mockMvc.perform(get("/admin/slow-requests")).andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    private static Film film() {
+        Film film = new Film();
+        film.setName("Фильм");
+        film.setDescription("Описание");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+}
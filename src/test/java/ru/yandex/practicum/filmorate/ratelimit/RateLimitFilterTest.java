@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
+import ru.yandex.practicum.filmorate.service.ApproximatePopularity;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class RateLimitFilterTest {
+
+    private MockMvc mockMvc(RateLimitProperties properties) {
+        DomainEventBus eventBus = new DomainEventBus();
+        FilmService filmService = new FilmService(new InMemoryFilmStorage(), new InMemoryUserStorage(),
+                eventBus, new ApproximatePopularity(eventBus, 100));
+        RateLimitFilter filter = new RateLimitFilter(properties, new RateLimiter(properties),
+                new LoadShedder(properties));
+        return MockMvcBuilders.standaloneSetup(new FilmController(filmService)).addFilters(filter).build();
+    }
+
+    private RateLimitProperties popularLimitedTo(int burst) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setPattern("/films/popular");
+        route.setPermitsPerSecond(0.01);
+        route.setBurst(burst);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRoutes(List.of(route));
+        return properties;
+    }
+
+    private MockHttpServletRequestBuilder popularFrom(String remoteAddress) {
+        return get("/films/popular").with(request -> {
+            request.setRemoteAddr(remoteAddress);
+            return request;
+        });
+    }
+
+    @Test
+    void limitedRoute_overBurst_returnsTooManyRequests() throws Exception {
+        MockMvc mockMvc = mockMvc(popularLimitedTo(2));
+
+        mockMvc.perform(popularFrom("10.0.0.1")).andExpect(status().isOk());
+        mockMvc.perform(popularFrom("10.0.0.1")).andExpect(status().isOk());
+        mockMvc.perform(popularFrom("10.0.0.1"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.error").value("Слишком много запросов"));
+    }
+
+    @Test
+    void limitedRoute_otherClient_hasOwnBucket() throws Exception {
+        MockMvc mockMvc = mockMvc(popularLimitedTo(1));
+
+        mockMvc.perform(popularFrom("10.0.0.1")).andExpect(status().isOk());
+        mockMvc.perform(popularFrom("10.0.0.1")).andExpect(status().isTooManyRequests());
+        mockMvc.perform(popularFrom("10.0.0.2")).andExpect(status().isOk());
+    }
+
+    @Test
+    void clientIdFromUntrustedAddress_isIgnored() throws Exception {
+        MockMvc mockMvc = mockMvc(popularLimitedTo(1));
+
+        mockMvc.perform(popularFrom("10.0.0.1").header("X-Client-Id", "a")).andExpect(status().isOk());
+        mockMvc.perform(popularFrom("10.0.0.1").header("X-Client-Id", "b"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void clientIdFromTrustedProxy_hasOwnBucket() throws Exception {
+        RateLimitProperties properties = popularLimitedTo(1);
+        properties.setTrustedProxies(List.of("10.0.0.100"));
+        MockMvc mockMvc = mockMvc(properties);
+
+        mockMvc.perform(popularFrom("10.0.0.100").header("X-Client-Id", "a")).andExpect(status().isOk());
+        mockMvc.perform(popularFrom("10.0.0.100").header("X-Client-Id", "a"))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(popularFrom("10.0.0.100").header("X-Client-Id", "b")).andExpect(status().isOk());
+    }
+
+    @Test
+    void unlimitedRoute_isNeverRateLimited() throws Exception {
+        MockMvc mockMvc = mockMvc(popularLimitedTo(1));
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get("/films")).andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void inFlightLimitReached_returnsServiceUnavailable() throws Exception {
+        RateLimitProperties properties = popularLimitedTo(1);
+        properties.setMaxInFlight(0);
+
+        mockMvc(properties).perform(get("/films"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("Сервер перегружен, повторите запрос позже"));
+    }
+
+    @Test
+    void disabled_passesEveryRequest() throws Exception {
+        RateLimitProperties properties = popularLimitedTo(1);
+        properties.setEnabled(false);
+        properties.setMaxInFlight(0);
+        MockMvc mockMvc = mockMvc(properties);
+
+        mockMvc.perform(get("/films/popular")).andExpect(status().isOk());
+        mockMvc.perform(get("/films/popular")).andExpect(status().isOk());
+    }
+}
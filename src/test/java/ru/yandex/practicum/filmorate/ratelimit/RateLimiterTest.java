@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class RateLimiterTest {
+
+    private static final String POPULAR = "/films/popular";
+
+    private RateLimiter rateLimiter;
+
+    @AfterEach
+    void tearDown() {
+        rateLimiter.close();
+    }
+
+    private RateLimiter popularLimitedTo(double permitsPerSecond, int burst, int maxClients) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setPattern(POPULAR);
+        route.setPermitsPerSecond(permitsPerSecond);
+        route.setBurst(burst);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRoutes(List.of(route));
+        properties.setMaxClientsPerRoute(maxClients);
+        // Очистку в тестах вызываем сами
+        properties.setPruneIntervalMillis(Long.MAX_VALUE / 2);
+        rateLimiter = new RateLimiter(properties);
+        return rateLimiter;
+    }
+
+    @Test
+    void tryAcquire_fullTable_newClientsShareOverflowBucket() {
+        RateLimiter limiter = popularLimitedTo(0.01, 1, 2);
+
+        assertEquals(0, limiter.tryAcquire(POPULAR, "10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire(POPULAR, "10.0.0.2"));
+        assertEquals(0, limiter.tryAcquire(POPULAR, "10.0.0.3"));
+        assertTrue(limiter.tryAcquire(POPULAR, "10.0.0.4") > 0);
+
+        assertEquals(2, limiter.trackedClients());
+    }
+
+    @Test
+    void tryAcquire_rotatingKeys_doesNotGrowPastCap() {
+        RateLimiter limiter = popularLimitedTo(1000, 10, 100);
+
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire(POPULAR, "client-" + i);
+        }
+
+        assertEquals(100, limiter.trackedClients());
+    }
+
+    @Test
+    void pruneIdle_removesOnlyRecoveredBuckets() {
+        RateLimiter limiter = popularLimitedTo(0.01, 1, 10);
+        limiter.tryAcquire(POPULAR, "10.0.0.1");
+
+        limiter.pruneIdle(System.nanoTime());
+        assertEquals(1, limiter.trackedClients());
+
+        limiter.pruneIdle(System.nanoTime() + 1000L * 1_000_000_000L);
+        assertEquals(0, limiter.trackedClients());
+    }
+
+    @Test
+    void tryAcquire_overhead() {
+        RateLimiter limiter = popularLimitedTo(1_000_000, 1_000_000, 100_000);
+        for (int i = 0; i < 100_000; i++) {
+            limiter.tryAcquire(POPULAR, "client-" + i);
+        }
+        String[] known = new String[1024];
+        String[] unknown = new String[1024];
+        for (int i = 0; i < known.length; i++) {
+            known[i] = "client-" + i * 97;
+            unknown[i] = "rotating-" + i;
+        }
+
+        long knownNanos = measure(limiter, known);
+        long unknownNanos = measure(limiter, unknown);
+        long unlimitedNanos = measure(limiter, "/films", known);
+        log.info("Ограничение частоты, 100 000 клиентов в таблице: известный клиент {} нс, новый клиент {} нс, "
+                + "маршрут без предела {} нс на запрос", knownNanos, unknownNanos, unlimitedNanos);
+
+        // Порог с запасом для медленных CI, типичные значения — сотни наносекунд
+        assertTrue(knownNanos < 5_000);
+        assertTrue(unknownNanos < 5_000);
+        assertEquals(100_000, limiter.trackedClients());
+    }
+
+    private long measure(RateLimiter limiter, String[] clients) {
+        return measure(limiter, POPULAR, clients);
+    }
+
+    private long measure(RateLimiter limiter, String path, String[] clients) {
+        int iterations = 1_000_000;
+        for (int i = 0; i < iterations; i++) {
+            limiter.tryAcquire(path, clients[i & (clients.length - 1)]);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            limiter.tryAcquire(path, clients[i & (clients.length - 1)]);
+        }
+        return (System.nanoTime() - start) / iterations;
+    }
+}
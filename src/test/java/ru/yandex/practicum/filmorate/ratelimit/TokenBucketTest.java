@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void tryAcquire_allowsBurstThenRejects() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        long now = 5 * SECOND;
+
+        assertTrue(bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now));
+        assertFalse(bucket.tryAcquire(now));
+    }
+
+    @Test
+    void tryAcquire_refillsAtConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(10, 1);
+        long now = 5 * SECOND;
+
+        assertTrue(bucket.tryAcquire(now));
+        assertFalse(bucket.tryAcquire(now + SECOND / 20));
+        assertTrue(bucket.tryAcquire(now + SECOND / 10));
+    }
+
+    @Test
+    void nanosUntilNextPermit_reportsRemainingWait() {
+        TokenBucket bucket = new TokenBucket(10, 1);
+        long now = 5 * SECOND;
+
+        assertEquals(0, bucket.nanosUntilNextPermit(now));
+        bucket.tryAcquire(now);
+
+        assertEquals(SECOND / 10, bucket.nanosUntilNextPermit(now));
+        assertEquals(0, bucket.nanosUntilNextPermit(now + SECOND));
+    }
+}
@@ -0,0 +1,173 @@
+package ru.yandex.practicum.filmorate.replication;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.io.DataOutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationTest {
+
+    private static final String FILM = "{\"name\":\"Фильм\",\"description\":\"Описание\","
+            + "\"releaseDate\":\"2000-01-01\",\"duration\":100}";
+    private static final String USER = "{\"email\":\"user@mail.ru\",\"login\":\"user\",\"birthday\":\"1990-01-01\"}";
+
+    private static final HttpClient client = HttpClient.newHttpClient();
+    private static ConfigurableApplicationContext primary;
+    private static ConfigurableApplicationContext follower;
+
+    @BeforeAll
+    static void start() throws Exception {
+        primary = new SpringApplicationBuilder(FilmorateApplication.class)
+                .run("--server.port=0", "--filmorate.replication.role=primary", "--filmorate.replication.port=0");
+        // Запись до подключения ведомого: он должен догнать журнал с начала
+        send(primary, "POST", "/users", USER);
+        follower = new SpringApplicationBuilder(FilmorateApplication.class)
+                .run("--server.port=0", "--filmorate.replication.role=follower",
+                        "--filmorate.replication.read-your-writes-timeout-millis=500",
+                        "--filmorate.replication.port=" + primary.getBean(ReplicationServer.class).port());
+    }
+
+    @AfterAll
+    static void stop() {
+        follower.close();
+        primary.close();
+    }
+
+    @Test
+    void writeOnPrimary_readWithToken_seesOwnWrite() throws Exception {
+        HttpResponse<String> added = send(primary, "POST", "/films", FILM);
+        assertEquals(201, added.statusCode());
+        String id = added.body().replaceAll(".*\"id\":(\\d+).*", "$1");
+        HttpResponse<String> liked = send(primary, "PUT", "/films/" + id + "/like/1", null);
+        String token = liked.headers().firstValue(ReplicationLog.VERSION_HEADER).orElseThrow();
+
+        HttpResponse<String> read = client.send(HttpRequest.newBuilder(uri(follower, "/films/" + id))
+                .header(ReplicationLog.VERSION_HEADER, token).build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, read.statusCode());
+        assertTrue(read.body().contains("\"rate\":1"), read.body());
+        assertTrue(Long.parseLong(read.headers().firstValue(ReplicationLog.VERSION_HEADER).orElseThrow())
+                >= Long.parseLong(token));
+    }
+
+    @Test
+    void writeOnFollower_isForbidden() throws Exception {
+        HttpResponse<String> response = send(follower, "POST", "/films", FILM);
+
+        assertEquals(403, response.statusCode());
+        assertTrue(response.body().contains("Запись возможна только на основном экземпляре"));
+    }
+
+    @Test
+    void unreachableVersion_returnsServiceUnavailable() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri(follower, "/films"))
+                        .header(ReplicationLog.VERSION_HEADER, Long.toString(Long.MAX_VALUE)).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(503, response.statusCode());
+        assertTrue(response.headers().firstValue("Retry-After").isPresent());
+    }
+
+    @Test
+    void unknownLogEntry_stopsFollowerAndReturnsServiceUnavailable() throws Exception {
+        try (ServerSocket brokenPrimary = new ServerSocket(0)) {
+            Thread server = new Thread(() -> {
+                try (Socket connection = brokenPrimary.accept()) {
+                    DataOutputStream out = new DataOutputStream(connection.getOutputStream());
+                    out.writeLong(42);
+                    out.writeByte(ReplicationServer.STREAM);
+                    // Версия 1 с несуществующим типом записи
+                    out.writeLong(1);
+                    out.writeByte(127);
+                    out.flush();
+                    connection.getInputStream().read();
+                } catch (Exception ignored) {
+                    // ведомый закрыл соединение
+                }
+            });
+            server.start();
+            try (ConfigurableApplicationContext broken = new SpringApplicationBuilder(FilmorateApplication.class)
+                    .run("--server.port=0", "--filmorate.replication.role=follower",
+                            "--filmorate.replication.port=" + brokenPrimary.getLocalPort())) {
+                ReplicationFollower replica = broken.getBean(ReplicationFollower.class);
+                long deadline = System.currentTimeMillis() + 5000;
+                while (!replica.isFailed() && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+
+                HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri(broken, "/films")).build(),
+                        HttpResponse.BodyHandlers.ofString());
+
+                assertTrue(replica.isFailed());
+                assertEquals(0, replica.appliedVersion());
+                assertEquals(503, response.statusCode());
+                assertTrue(response.body().contains("Репликация остановлена"), response.body());
+            }
+            server.join(5000);
+        }
+    }
+
+    @Test
+    void truncatedLog_newFollowerStartsFromSnapshot() throws Exception {
+        try (ConfigurableApplicationContext shortPrimary = new SpringApplicationBuilder(FilmorateApplication.class)
+                .run("--server.port=0", "--filmorate.replication.role=primary", "--filmorate.replication.port=0",
+                        "--filmorate.replication.log-capacity=4")) {
+            for (int i = 0; i < 3; i++) {
+                send(shortPrimary, "POST", "/users", USER.replace("user", "user" + i));
+                send(shortPrimary, "POST", "/films", FILM);
+            }
+            send(shortPrimary, "PUT", "/users/1/friends/2", null);
+            send(shortPrimary, "PUT", "/films/3/like/1", null);
+            // Удалённые id в середине и в конце: ведомый должен выдать следующий id так же, как основной
+            send(shortPrimary, "DELETE", "/films/2", null);
+            send(shortPrimary, "DELETE", "/users/3", null);
+
+            try (ConfigurableApplicationContext lateFollower = new SpringApplicationBuilder(FilmorateApplication.class)
+                    .run("--server.port=0", "--filmorate.replication.role=follower",
+                            "--filmorate.replication.port="
+                                    + shortPrimary.getBean(ReplicationServer.class).port())) {
+                HttpResponse<String> added = send(shortPrimary, "POST", "/films", FILM);
+                HttpResponse<String> addedUser = send(shortPrimary, "POST", "/users", USER);
+                String token = addedUser.headers().firstValue(ReplicationLog.VERSION_HEADER).orElseThrow();
+
+                assertEquals(read(shortPrimary, "/films", token).body(), read(lateFollower, "/films", token).body());
+                assertEquals(read(shortPrimary, "/users", token).body(), read(lateFollower, "/users", token).body());
+                assertTrue(added.body().contains("\"id\":4"), added.body());
+                assertTrue(addedUser.body().contains("\"id\":4"), addedUser.body());
+                assertFalse(lateFollower.getBean(ReplicationFollower.class).isFailed());
+            }
+        }
+    }
+
+    private static HttpResponse<String> read(ConfigurableApplicationContext context, String path, String token)
+            throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(context, path))
+                .header(ReplicationLog.VERSION_HEADER, token).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> send(ConfigurableApplicationContext context, String method, String path,
+                                             String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(context, path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static URI uri(ConfigurableApplicationContext context, String path) {
+        return URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + path);
+    }
+}
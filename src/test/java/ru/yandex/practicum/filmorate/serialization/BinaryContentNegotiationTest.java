@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BinaryContentNegotiationTest {
+
+    private static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final ObjectMapper cborMapper = CBORMapper.builder().addModule(new JavaTimeModule()).build();
+
+    @Test
+    void postAndGetFilm_cborBothWays() throws Exception {
+        Film film = new Film();
+        film.setName("CBOR Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+
+        byte[] created = mockMvc.perform(post("/films")
+                        .contentType(CBOR)
+                        .accept(CBOR)
+                        .content(cborMapper.writeValueAsBytes(film)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        Film createdFilm = cborMapper.readValue(created, Film.class);
+        assertEquals("CBOR Film", createdFilm.getName());
+        assertEquals(LocalDate.of(2000, 1, 1), createdFilm.getReleaseDate());
+
+        byte[] fetched = mockMvc.perform(get("/films/{id}", createdFilm.getId()).accept(CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(createdFilm, cborMapper.readValue(fetched, Film.class));
+    }
+
+    @Test
+    void getPopularFilms_smileAccepted_returnsSmile() throws Exception {
+        mockMvc.perform(get("/films/popular").accept(MediaType.parseMediaType("application/x-jackson-smile")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-jackson-smile"));
+    }
+
+    @Test
+    void getAllUsers_noAcceptHeader_staysJson() throws Exception {
+        mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнение размера и времени кодирования/декодирования JSON, CBOR и Smile
+ * на списке фильмов с большими множествами лайков. Результаты пишутся в лог.
+ */
+@Slf4j
+class BinaryPayloadComparisonTest {
+
+    private static final int ROUNDS = 20;
+
+    @Test
+    void binaryFormats_largeLikeSets_smallerThanJson() throws Exception {
+        List<Film> films = realisticFilms();
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+        ObjectMapper smile = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+
+        int jsonSize = measure("JSON", json, films);
+        int cborSize = measure("CBOR", cbor, films);
+        int smileSize = measure("Smile", smile, films);
+
+        assertTrue(cborSize < jsonSize, "CBOR должен быть компактнее JSON");
+        assertTrue(smileSize < jsonSize, "Smile должен быть компактнее JSON");
+    }
+
+    private int measure(String format, ObjectMapper mapper, List<Film> films) throws Exception {
+        Film[] decoded = null;
+        byte[] encoded = null;
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            encoded = mapper.writeValueAsBytes(films);
+            encodeNanos += System.nanoTime() - start;
+            start = System.nanoTime();
+            decoded = mapper.readValue(encoded, Film[].class);
+            decodeNanos += System.nanoTime() - start;
+        }
+        assertEquals(films, List.of(decoded));
+        log.info("{}: {} байт, кодирование {} мкс, декодирование {} мкс", format, encoded.length,
+                encodeNanos / ROUNDS / 1000, decodeNanos / ROUNDS / 1000);
+        return encoded.length;
+    }
+
+    private List<Film> realisticFilms() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            Film film = new Film();
+            film.setId(i);
+            film.setName("Фильм номер " + i);
+            film.setDescription("Описание фильма номер " + i + ", достаточно длинное для реалистичного ответа");
+            film.setReleaseDate(LocalDate.of(1990, 1, 1).plusDays(i * 97L));
+            film.setDuration(80 + i);
+            Set<Integer> likes = IntStream.range(0, 2_000 * (i % 5 + 1))
+                    .map(like -> 1_000_000 + like * 7)
+                    .boxed()
+                    .collect(Collectors.toSet());
+            film.setLikes(likes);
+            films.add(film);
+        }
+        return films;
+    }
+}
@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedJsonHttpMessageConverterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final CachedJsonHttpMessageConverter converter =
+            new CachedJsonHttpMessageConverter(new JsonFragmentCache(objectMapper, new DomainEventBus(), 200_000));
+
+    @Test
+    void canWrite_entitiesAndEntityLists_onlyForJson() {
+        Type films = new ParameterizedTypeReference<List<Film>>() { }.getType();
+        Type maps = new ParameterizedTypeReference<List<Map<String, Object>>>() { }.getType();
+
+        assertTrue(converter.canWrite(Film.class, Film.class, MediaType.APPLICATION_JSON));
+        assertTrue(converter.canWrite(films, List.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(maps, List.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(Film.class, Film.class, MediaType.APPLICATION_XML));
+        assertFalse(converter.canRead(Film.class, null, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void write_list_matchesJacksonOutput() throws Exception {
+        Film first = film(1, "Film 1", Set.of(1, 2));
+        Film second = film(2, "Film 2", Set.of());
+        List<Film> films = List.of(first, second);
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        converter.write(films, new ParameterizedTypeReference<List<Film>>() { }.getType(),
+                MediaType.APPLICATION_JSON, output);
+
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(films)),
+                objectMapper.readTree(output.getBodyAsBytes()));
+    }
+
+    @Test
+    void write_emptyList_writesEmptyArray() throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        converter.write(List.<User>of(), new ParameterizedTypeReference<List<User>>() { }.getType(),
+                MediaType.APPLICATION_JSON, output);
+
+        assertEquals("[]", output.getBodyAsString());
+    }
+
+    private Film film(int id, String name, Set<Integer> likes) {
+        Film film = new Film();
+        film.setId(id);
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        film.setLikes(likes);
+        return film;
+    }
+}
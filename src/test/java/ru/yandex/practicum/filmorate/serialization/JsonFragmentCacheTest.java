@@ -0,0 +1,123 @@
+package ru.yandex.practicum.filmorate.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.event.DomainEvent;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.OffHeapFilmStorage;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonFragmentCacheTest {
+
+    private ObjectMapper objectMapper;
+    private DomainEventBus eventBus;
+    private JsonFragmentCache cache;
+    private InMemoryFilmStorage filmStorage;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        eventBus = new DomainEventBus();
+        cache = new JsonFragmentCache(objectMapper, eventBus, 200_000);
+        filmStorage = new InMemoryFilmStorage();
+    }
+
+    @Test
+    void toJson_sameSnapshot_returnsCachedBytes() throws Exception {
+        Film film = filmStorage.addFilm(film("Test Film"));
+
+        byte[] first = cache.toJson(film);
+        byte[] second = cache.toJson(filmStorage.getFilmById(film.getId()).get());
+
+        assertSame(first, second);
+        assertArrayEquals(objectMapper.writeValueAsBytes(film), first);
+    }
+
+    @Test
+    void toJson_afterLike_reencodesNewVersion() throws Exception {
+        Film film = filmStorage.addFilm(film("Test Film"));
+        byte[] before = cache.toJson(film);
+
+        filmStorage.addLike(film.getId(), 42);
+        Film liked = filmStorage.getFilmById(film.getId()).get();
+        byte[] after = cache.toJson(liked);
+
+        assertNotSame(before, after);
+        assertArrayEquals(objectMapper.writeValueAsBytes(liked), after);
+    }
+
+    @Test
+    void toJson_equalButRebuiltSnapshot_isCacheHit() {
+        User user = new User();
+        user.setId(1);
+        user.setEmail("test@example.com");
+        user.setLogin("testuser");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        byte[] first = cache.toJson(user);
+
+        User rebuilt = user.withFriends(user.getFriends());
+
+        assertSame(first, cache.toJson(rebuilt));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void toJson_offHeapRebuiltSnapshot_hitUntilFieldsOrLikesChange() {
+        OffHeapFilmStorage offHeap = new OffHeapFilmStorage();
+        Film film = offHeap.addFilm(film("Test Film"));
+        offHeap.addLike(film.getId(), 42);
+        byte[] first = cache.toJson(offHeap.getFilmById(film.getId()).get());
+
+        assertSame(first, cache.toJson(offHeap.getFilmById(film.getId()).get()));
+
+        Film renamed = film("Renamed");
+        renamed.setId(film.getId());
+        offHeap.updateFilm(renamed);
+        byte[] afterUpdate = cache.toJson(offHeap.getFilmById(film.getId()).get());
+        assertNotSame(first, afterUpdate);
+
+        offHeap.addLike(film.getId(), 43);
+        assertNotSame(afterUpdate, cache.toJson(offHeap.getFilmById(film.getId()).get()));
+    }
+
+    @Test
+    void toJson_maxEntriesReached_evictsOneEntry() {
+        JsonFragmentCache small = new JsonFragmentCache(objectMapper, eventBus, 2);
+        for (int i = 0; i < 3; i++) {
+            small.toJson(filmStorage.addFilm(film("Film " + i)));
+        }
+
+        assertEquals(2, small.size());
+    }
+
+    @Test
+    void deleteAndUpdateEvents_evictEntries() {
+        Film film = filmStorage.addFilm(film("Test Film"));
+        Film other = filmStorage.addFilm(film("Other Film"));
+        cache.toJson(film);
+        cache.toJson(other);
+
+        eventBus.publish(new DomainEvent(DomainEvent.Type.FILM_DELETED, film.getId(), null));
+        assertEquals(1, cache.size());
+
+        eventBus.publish(new DomainEvent(DomainEvent.Type.LIKE_ADDED, other.getId(), 42));
+        assertEquals(0, cache.size());
+    }
+
+    private Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        return film;
+    }
+}
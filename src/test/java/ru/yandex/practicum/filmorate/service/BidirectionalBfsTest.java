@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BidirectionalBfsTest {
+
+    @Test
+    void shortestPath_sameUser_returnsSingleVertex() {
+        List<List<Integer>> graph = graph(3);
+
+        assertArrayEquals(new int[]{1}, BidirectionalBfs.shortestPath(adjacency(graph), 1, 1, 6));
+    }
+
+    @Test
+    void shortestPath_chain_respectsMaxDepth() {
+        List<List<Integer>> graph = graph(6);
+        for (int i = 0; i < 5; i++) {
+            link(graph, i, i + 1);
+        }
+
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5}, BidirectionalBfs.shortestPath(adjacency(graph), 0, 5, 5));
+        assertArrayEquals(new int[0], BidirectionalBfs.shortestPath(adjacency(graph), 0, 5, 4));
+    }
+
+    @Test
+    void shortestPath_disconnected_returnsEmpty() {
+        List<List<Integer>> graph = graph(4);
+        link(graph, 0, 1);
+        link(graph, 2, 3);
+
+        assertArrayEquals(new int[0], BidirectionalBfs.shortestPath(adjacency(graph), 0, 3, 10));
+    }
+
+    @Test
+    void shortestPath_randomGraphs_matchesPlainBfsLength() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            int size = 50 + random.nextInt(150);
+            List<List<Integer>> graph = graph(size);
+            for (int edge = 0; edge < size * 2; edge++) {
+                link(graph, random.nextInt(size), random.nextInt(size));
+            }
+            int source = random.nextInt(size);
+            int target = random.nextInt(size);
+
+            int[] path = BidirectionalBfs.shortestPath(adjacency(graph), source, target, size);
+            int expected = plainBfsDistance(graph, source, target);
+
+            if (expected < 0) {
+                assertEquals(0, path.length);
+                continue;
+            }
+            assertEquals(expected + 1, path.length, "Длина пути в раунде " + round);
+            assertEquals(source, path[0]);
+            assertEquals(target, path[path.length - 1]);
+            for (int i = 1; i < path.length; i++) {
+                assertTrue(graph.get(path[i - 1]).contains(path[i]), "Путь должен идти по рёбрам графа");
+            }
+        }
+    }
+
+    @Test
+    void intIntMap_manyKeys_keepsAllValues() {
+        BidirectionalBfs.IntIntMap map = new BidirectionalBfs.IntIntMap();
+        for (int key = -5_000; key < 5_000; key++) {
+            assertTrue(map.putIfAbsent(key, key * 2));
+        }
+
+        assertFalse(map.putIfAbsent(10, 0));
+        for (int key = -5_000; key < 5_000; key++) {
+            assertEquals(key * 2, map.get(key));
+        }
+        assertFalse(map.contains(5_000));
+    }
+
+    private static int plainBfsDistance(List<List<Integer>> graph, int source, int target) {
+        int[] distance = new int[graph.size()];
+        Arrays.fill(distance, -1);
+        distance[source] = 0;
+        Queue<Integer> queue = new ArrayDeque<>(List.of(source));
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int neighbor : graph.get(node)) {
+                if (distance[neighbor] < 0) {
+                    distance[neighbor] = distance[node] + 1;
+                    queue.add(neighbor);
+                }
+            }
+        }
+        return distance[target];
+    }
+
+    private static List<List<Integer>> graph(int size) {
+        List<List<Integer>> graph = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            graph.add(new ArrayList<>());
+        }
+        return graph;
+    }
+
+    private static void link(List<List<Integer>> graph, int a, int b) {
+        if (a != b && !graph.get(a).contains(b)) {
+            graph.get(a).add(b);
+            graph.get(b).add(a);
+        }
+    }
+
+    private static BidirectionalBfs.Adjacency adjacency(List<List<Integer>> graph) {
+        return (id, action) -> graph.get(id).forEach(action::accept);
+    }
+}
@@ -2,14 +2,22 @@ package ru.yandex.practicum.filmorate.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.event.DomainEvent;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.PopularFilmEstimate;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
 import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -18,12 +26,16 @@ class FilmServiceTest {
     private FilmService filmService;
     private InMemoryFilmStorage filmStorage;
     private InMemoryUserStorage userStorage;
+    private DomainEventBus eventBus;
+    private ApproximatePopularity approximatePopularity;
 
     @BeforeEach
     void setUp() {
         filmStorage = new InMemoryFilmStorage();
         userStorage = new InMemoryUserStorage();
-        filmService = new FilmService(filmStorage, userStorage);
+        eventBus = new DomainEventBus();
+        approximatePopularity = new ApproximatePopularity(eventBus, 100);
+        filmService = new FilmService(filmStorage, userStorage, eventBus, approximatePopularity);
     }
 
     @Test
@@ -172,4 +184,160 @@ class FilmServiceTest {
         List<Film> popularFilms = filmService.getPopularFilms(10);
         assertTrue(popularFilms.isEmpty(), "Список должен быть пустым, если нет фильмов");
     }
-}
\ No newline at end of file
+
+    @Test
+    void deleteFilm_removesFilmFromLikedFilmsOfUsers() {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        filmStorage.addFilm(film);
+
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setLogin("testuser");
+        user.setName("Test User");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        userStorage.addUser(user);
+
+        filmService.addLike(1, 1);
+        assertEquals(Set.of(1), filmStorage.getLikedFilmIds(1));
+
+        filmService.deleteFilm(1);
+
+        assertTrue(filmStorage.getLikedFilmIds(1).isEmpty());
+    }
+
+    @Test
+    void getPopularFilms_nonPositiveCount_throwsValidationException() {
+        ValidationException exception = assertThrows(ValidationException.class, () -> filmService.getPopularFilms(0));
+        assertEquals("Количество фильмов должно быть положительным", exception.getMessage());
+    }
+
+    @Test
+    void addAndRemoveLike_publishesEventsOnlyForActualChanges() throws InterruptedException {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        filmStorage.addFilm(film);
+
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setLogin("testuser");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        userStorage.addUser(user);
+
+        BlockingQueue<DomainEvent> received = new LinkedBlockingQueue<>();
+        eventBus.subscribe("test", 16, 4, received::addAll);
+
+        filmService.addLike(1, 1);
+        filmService.addLike(1, 1);
+        filmService.removeLike(1, 1);
+
+        assertEquals(new DomainEvent(DomainEvent.Type.LIKE_ADDED, 1, 1), received.poll(5, TimeUnit.SECONDS));
+        assertEquals(new DomainEvent(DomainEvent.Type.LIKE_REMOVED, 1, 1), received.poll(5, TimeUnit.SECONDS));
+        assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+        eventBus.shutdown();
+    }
+
+    @Test
+    void getApproximatePopularFilms_likesDelivered_returnsFilmsWithEstimates() throws InterruptedException {
+        for (int i = 1; i <= 3; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Description");
+            film.setReleaseDate(LocalDate.of(2000, 1, 1));
+            film.setDuration(120);
+            filmStorage.addFilm(film);
+
+            User user = new User();
+            user.setEmail("user" + i + "@example.com");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            userStorage.addUser(user);
+        }
+        filmService.addLike(2, 1);
+        filmService.addLike(2, 2);
+        filmService.addLike(2, 3);
+        filmService.addLike(3, 1);
+        filmService.addLike(3, 2);
+        filmService.addLike(1, 1);
+        filmService.deleteFilm(1);
+
+        List<PopularFilmEstimate> popular = List.of();
+        for (int attempt = 0; attempt < 100 && popular.size() < 2; attempt++) {
+            Thread.sleep(20);
+            popular = filmService.getApproximatePopularFilms(5);
+        }
+
+        assertEquals(2, popular.size());
+        assertEquals(2, popular.get(0).film().getId());
+        assertEquals(3, popular.get(0).estimatedLikes());
+        assertEquals(0, popular.get(0).maxError());
+        assertEquals(3, popular.get(1).film().getId());
+        assertEquals(2, popular.get(1).estimatedLikes());
+    }
+
+    @Test
+    void getApproximatePopularFilms_countFarAboveCapacity_clampedToSketch() throws InterruptedException {
+        Film film = new Film();
+        film.setName("Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        filmStorage.addFilm(film);
+        User user = new User();
+        user.setEmail("user@example.com");
+        user.setLogin("user");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        userStorage.addUser(user);
+        filmService.addLike(1, 1);
+
+        List<PopularFilmEstimate> popular = List.of();
+        for (int attempt = 0; attempt < 100 && popular.isEmpty(); attempt++) {
+            Thread.sleep(20);
+            popular = filmService.getApproximatePopularFilms(2_000_000_000);
+        }
+
+        assertEquals(1, popular.size());
+        assertEquals(1, filmService.getApproximatePopularFilms(Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void getApproximatePopularFilms_deletedTopFilm_removedFromSketch() throws InterruptedException {
+        for (int i = 1; i <= 3; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Description");
+            film.setReleaseDate(LocalDate.of(2000, 1, 1));
+            film.setDuration(120);
+            filmStorage.addFilm(film);
+
+            User user = new User();
+            user.setEmail("user" + i + "@example.com");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            userStorage.addUser(user);
+        }
+        filmService.addLike(1, 1);
+        filmService.addLike(1, 2);
+        filmService.addLike(1, 3);
+        filmService.addLike(2, 1);
+        filmService.addLike(3, 1);
+        filmService.deleteFilm(1);
+
+        // Пока фильм 1 не удалён из скетча, он первый в рейтинге
+        List<SpaceSavingSketch.Estimate> top = List.of();
+        for (int attempt = 0; attempt < 100 && (top.size() != 2 || top.get(0).id() == 1); attempt++) {
+            Thread.sleep(20);
+            top = approximatePopularity.top(10);
+        }
+
+        assertEquals(List.of(2, 3), top.stream().map(SpaceSavingSketch.Estimate::id).sorted().toList());
+        assertEquals(List.of(2, 3), filmService.getApproximatePopularFilms(2).stream()
+                .map(estimate -> estimate.film().getId()).sorted().toList());
+    }
+}
@@ -0,0 +1,147 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FriendGraphTest {
+
+    private InMemoryUserStorage userStorage;
+    private FriendGraph friendGraph;
+
+    @BeforeEach
+    void setUp() {
+        userStorage = new InMemoryUserStorage();
+        for (int i = 1; i <= 5; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@example.com");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            userStorage.addUser(user);
+        }
+        // Граф строится из уже существующих связей хранилища
+        link(1, 3);
+        link(1, 2);
+        friendGraph = new FriendGraph(userStorage, 60_000, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        friendGraph.close();
+    }
+
+    @Test
+    void friends_initialBuild_returnsSortedIdsFromStorage() {
+        assertArrayEquals(new int[]{2, 3}, friendGraph.friends(1));
+        assertArrayEquals(new int[]{1}, friendGraph.friends(3));
+        assertArrayEquals(new int[0], friendGraph.friends(5));
+        assertArrayEquals(new int[0], friendGraph.friends(100));
+        assertEquals(0, friendGraph.pendingChanges());
+    }
+
+    @Test
+    void refresh_pendingChangesVisibleBeforeAndAfterMerge() {
+        link(2, 3);
+        friendGraph.refresh(2);
+        friendGraph.refresh(3);
+
+        assertEquals(2, friendGraph.pendingChanges());
+        assertArrayEquals(new int[]{1, 3}, friendGraph.friends(2));
+        assertArrayEquals(new int[]{1}, friendGraph.commonFriends(2, 3));
+
+        friendGraph.merge();
+
+        assertEquals(0, friendGraph.pendingChanges());
+        assertArrayEquals(new int[]{1, 3}, friendGraph.friends(2));
+        assertArrayEquals(new int[]{1, 2}, friendGraph.friends(3));
+        assertArrayEquals(new int[]{2, 3}, friendGraph.friends(1));
+        assertArrayEquals(new int[]{1}, friendGraph.commonFriends(2, 3));
+    }
+
+    @Test
+    void refresh_newUserBeyondCurrentGraph_extendsGraphOnMerge() {
+        User user = new User();
+        user.setEmail("late@example.com");
+        user.setLogin("late");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        userStorage.addUser(user);
+        link(6, 5);
+        friendGraph.refresh(6);
+        friendGraph.refresh(5);
+        friendGraph.merge();
+
+        assertArrayEquals(new int[]{5}, friendGraph.friends(6));
+        List<Integer> visited = new ArrayList<>();
+        friendGraph.forEachFriend(5, visited::add);
+        assertEquals(List.of(6), visited);
+    }
+
+    @Test
+    void refresh_deletedUser_hasNoFriends() {
+        userStorage.deleteUser(1);
+        userStorage.removeFriend(2, 1);
+        friendGraph.refresh(1);
+        friendGraph.refresh(2);
+        friendGraph.merge();
+
+        assertArrayEquals(new int[0], friendGraph.friends(1));
+        assertArrayEquals(new int[0], friendGraph.friends(2));
+        assertArrayEquals(new int[]{1}, friendGraph.friends(3));
+    }
+
+    @Test
+    void shortestPath_usesPendingChangesAndMaxDepth() {
+        link(3, 4);
+        link(4, 5);
+        friendGraph.refresh(3);
+        friendGraph.refresh(4);
+        friendGraph.refresh(5);
+
+        assertArrayEquals(new int[]{2, 1, 3, 4}, friendGraph.shortestPath(2, 4));
+        assertArrayEquals(new int[0], friendGraph.shortestPath(2, 5));
+    }
+
+    @Test
+    void refresh_mergeThresholdReached_mergesBatchInBackground() throws InterruptedException {
+        FriendGraph batched = new FriendGraph(userStorage, 60_000, 2, 3);
+        try {
+            link(2, 3);
+            batched.refresh(2);
+            assertEquals(1, batched.pendingChanges());
+
+            batched.refresh(3);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (batched.pendingChanges() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(0, batched.pendingChanges());
+            assertArrayEquals(new int[]{1, 3}, batched.friends(2));
+        } finally {
+            batched.close();
+        }
+    }
+
+    @Test
+    void refresh_afterClose_doesNotThrow() {
+        FriendGraph closed = new FriendGraph(userStorage, 60_000, 1, 3);
+        closed.close();
+        link(2, 3);
+
+        assertDoesNotThrow(() -> closed.refresh(2));
+        assertArrayEquals(new int[]{1, 3}, closed.friends(2));
+    }
+
+    private void link(int userId, int friendId) {
+        userStorage.addFriend(userId, friendId);
+        userStorage.addFriend(friendId, userId);
+    }
+}
@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Время поиска цепочки друзей на графах разной формы в CSR-представлении. По умолчанию графы
+ * содержат миллион рёбер; размер задаётся свойством -Dfilmorate.bench.edges=10000000.
+ */
+@Slf4j
+class FriendshipPathBenchmarkTest {
+
+    private static final int EDGES = Integer.getInteger("filmorate.bench.edges", 1_000_000);
+    private static final int QUERIES = 200;
+    private static final int MAX_DEPTH = 6;
+
+    @Test
+    void shortestPath_uniformRandomGraph() {
+        int users = EDGES / 10;
+        Random random = new Random(1);
+        measure("случайный граф, степень ~20", users, random, (from, to) -> {
+            for (int i = 0; i < EDGES; i++) {
+                from[i] = random.nextInt(users);
+                to[i] = random.nextInt(users);
+            }
+        });
+    }
+
+    @Test
+    void shortestPath_hubHeavyGraph() {
+        int users = EDGES / 10;
+        Random random = new Random(2);
+        // Каждое второе ребро ведёт к одной из сотни «звёзд»
+        measure("граф со звёздами", users, random, (from, to) -> {
+            for (int i = 0; i < EDGES; i++) {
+                from[i] = random.nextInt(users);
+                to[i] = i % 2 == 0 ? random.nextInt(100) : random.nextInt(users);
+            }
+        });
+    }
+
+    @Test
+    void shortestPath_clusteredGraph() {
+        int users = EDGES / 10;
+        Random random = new Random(3);
+        // Плотные сообщества по тысяче пользователей, одно ребро из ста ведёт в другое сообщество
+        measure("сообщества", users, random, (from, to) -> {
+            for (int i = 0; i < EDGES; i++) {
+                int a = random.nextInt(users);
+                from[i] = a;
+                to[i] = i % 100 == 0 ? random.nextInt(users) : Math.min(users - 1, a / 1000 * 1000 + random.nextInt(1000));
+            }
+        });
+    }
+
+    private interface EdgeGenerator {
+        void fill(int[] from, int[] to);
+    }
+
+    private void measure(String shape, int users, Random random, EdgeGenerator generator) {
+        int[] from = new int[EDGES];
+        int[] to = new int[EDGES];
+        generator.fill(from, to);
+        int[] offsets = new int[users + 1];
+        for (int i = 0; i < EDGES; i++) {
+            offsets[from[i] + 1]++;
+            offsets[to[i] + 1]++;
+        }
+        for (int i = 0; i < users; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] targets = new int[EDGES * 2];
+        int[] cursor = Arrays.copyOf(offsets, users);
+        for (int i = 0; i < EDGES; i++) {
+            targets[cursor[from[i]]++] = to[i];
+            targets[cursor[to[i]]++] = from[i];
+        }
+        BidirectionalBfs.Adjacency graph = (id, action) -> {
+            for (int i = offsets[id], end = offsets[id + 1]; i < end; i++) {
+                action.accept(targets[i]);
+            }
+        };
+
+        long[] nanos = new long[QUERIES];
+        int found = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            int source = random.nextInt(users);
+            int target = random.nextInt(users);
+            long start = System.nanoTime();
+            int[] path = BidirectionalBfs.shortestPath(graph, source, target, MAX_DEPTH);
+            nanos[q] = System.nanoTime() - start;
+            if (path.length > 0) {
+                found++;
+                assertEquals(source, path[0]);
+                assertEquals(target, path[path.length - 1]);
+            }
+        }
+        Arrays.sort(nanos);
+        log.info("{}: {} рёбер, путей найдено {}/{}, медиана {} мкс, p99 {} мкс", shape, EDGES, found, QUERIES,
+                nanos[QUERIES / 2] / 1000, nanos[QUERIES * 99 / 100] / 1000);
+        assertTrue(found > 0);
+    }
+}
@@ -0,0 +1,171 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.LeaderboardEntry;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PopularityLeaderboardTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private InMemoryUserStorage userStorage;
+    private DomainEventBus eventBus;
+    private FilmService filmService;
+    private PopularityLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        userStorage = new InMemoryUserStorage();
+        eventBus = new DomainEventBus();
+        filmService = new FilmService(new InMemoryFilmStorage(), userStorage, eventBus,
+                new ApproximatePopularity(eventBus, 100));
+        for (int i = 1; i <= 3; i++) {
+            filmService.addFilm(film("Film " + i));
+        }
+        for (int i = 1; i <= 30; i++) {
+            userStorage.addUser(user("user" + i));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        leaderboard.close();
+        eventBus.shutdown();
+    }
+
+    @Test
+    void like_changingRanking_publishesDiffOfChangedPositions() throws Exception {
+        leaderboard = new PopularityLeaderboard(filmService, mapper, eventBus, 3, 50);
+        PopularityLeaderboard.Snapshot initial = mapper.readValue(leaderboard.current().snapshotJson(),
+                PopularityLeaderboard.Snapshot.class);
+
+        filmService.addLike(2, 1);
+        PopularityLeaderboard.Update update = leaderboard.awaitNewer(1, 5000);
+
+        assertEquals(List.of(1, 2, 3), initial.films().stream().map(LeaderboardEntry::filmId).toList());
+        assertNotNull(update);
+        PopularityLeaderboard.Diff diff = mapper.readValue(update.diffJson(), PopularityLeaderboard.Diff.class);
+        assertEquals(2, diff.version());
+        assertEquals(3, diff.size());
+        assertEquals(List.of(new LeaderboardEntry(1, 2, "Film 2", 1), new LeaderboardEntry(2, 1, "Film 1", 0)),
+                diff.changes());
+    }
+
+    @Test
+    void eventsNotChangingRanking_publishNothing() throws Exception {
+        leaderboard = new PopularityLeaderboard(filmService, mapper, eventBus, 2, 50);
+        filmService.addLike(1, 1);
+        assertNotNull(leaderboard.awaitNewer(1, 5000));
+
+        Film unchanged = film("Film 2");
+        unchanged.setId(2);
+        filmService.updateFilm(unchanged);
+        filmService.addFilm(film("Film 4"));
+
+        assertNull(leaderboard.awaitNewer(2, 300));
+    }
+
+    @Test
+    void burstOfLikes_coalescedIntoOneVersion() throws Exception {
+        ManualScheduler scheduler = new ManualScheduler();
+        leaderboard = new PopularityLeaderboard(filmService, mapper, eventBus, 3, 500, scheduler::now, scheduler);
+        filmService.addLike(3, 1);
+        awaitDelivered(1);
+
+        assertEquals(List.of(TimeUnit.MILLISECONDS.toNanos(500)), scheduler.delays());
+        scheduler.advance(TimeUnit.MILLISECONDS.toNanos(500));
+        scheduler.runPending();
+        assertEquals(2, leaderboard.current().version());
+
+        // Следующий пересчёт не раньше чем через 500 мс после предыдущего, события до него сливаются
+        scheduler.advance(TimeUnit.MILLISECONDS.toNanos(200));
+        for (int userId = 2; userId <= 30; userId++) {
+            filmService.addLike(userId % 2 == 0 ? 1 : 2, userId);
+        }
+        awaitDelivered(30);
+
+        assertEquals(List.of(TimeUnit.MILLISECONDS.toNanos(300)), scheduler.delays());
+        scheduler.advance(TimeUnit.MILLISECONDS.toNanos(300));
+        scheduler.runPending();
+        assertEquals(3, leaderboard.current().version());
+        assertTrue(scheduler.delays().isEmpty());
+        assertEquals(List.of(1, 2, 3), mapper.readValue(leaderboard.current().snapshotJson(),
+                PopularityLeaderboard.Snapshot.class).films().stream().map(LeaderboardEntry::filmId).toList());
+    }
+
+    /**
+     * Часы и планировщик, которыми тест управляет сам: задачи выполняются только по runPending.
+     */
+    private static class ManualScheduler implements PopularityLeaderboard.Scheduler {
+        private final List<Runnable> tasks = new ArrayList<>();
+        private final List<Long> delays = new ArrayList<>();
+        private volatile long now;
+
+        @Override
+        public synchronized void schedule(Runnable task, long delayNanos) {
+            tasks.add(task);
+            delays.add(delayNanos);
+        }
+
+        long now() {
+            return now;
+        }
+
+        void advance(long nanos) {
+            now += nanos;
+        }
+
+        synchronized List<Long> delays() {
+            return List.copyOf(delays);
+        }
+
+        void runPending() {
+            List<Runnable> pending;
+            synchronized (this) {
+                pending = List.copyOf(tasks);
+                tasks.clear();
+                delays.clear();
+            }
+            pending.forEach(Runnable::run);
+        }
+    }
+
+    private void awaitDelivered(long events) throws InterruptedException {
+        // Ждём условие, а не время: доставка шиной асинхронна
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (leaderboard.deliveredEvents() < events) {
+            assertTrue(System.nanoTime() < deadline, "События не доставлены");
+            Thread.sleep(1);
+        }
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        return film;
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,164 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, List<Integer>> flight = new SingleFlight<>("test");
+
+    @Test
+    void execute_concurrentSameKey_sharesOneComputation() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+        List<Integer> result = List.of(1, 2, 3);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<List<Integer>> leader = executor.submit(() -> flight.execute("popular", () -> {
+                computations.incrementAndGet();
+                started.countDown();
+                await(release);
+                return result;
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            List<Future<List<Integer>>> followers = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                followers.add(executor.submit(() -> flight.execute("popular", () -> {
+                    computations.incrementAndGet();
+                    return List.of();
+                })));
+            }
+            // Вызов учитывается до постановки в ожидание, поэтому после счётчика даём потокам дойти до него
+            while (flight.stats().calls() < 8) {
+                Thread.sleep(1);
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            assertSame(result, leader.get(5, TimeUnit.SECONDS));
+            for (Future<List<Integer>> follower : followers) {
+                assertSame(result, follower.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, computations.get());
+        assertEquals(new SingleFlight.Stats("test", 8, 1, 7, 7 / 8.0), flight.stats());
+    }
+
+    @Test
+    void execute_afterCompletion_computesAgain() {
+        AtomicInteger computations = new AtomicInteger();
+
+        flight.execute("popular", () -> List.of(computations.incrementAndGet()));
+        List<Integer> second = flight.execute("popular", () -> List.of(computations.incrementAndGet()));
+
+        assertEquals(List.of(2), second);
+        assertEquals(0, flight.stats().shared());
+    }
+
+    @Test
+    void execute_differentKeys_computedSeparately() {
+        assertEquals(List.of(1), flight.execute("a", () -> List.of(1)));
+        assertEquals(List.of(2), flight.execute("b", () -> List.of(2)));
+    }
+
+    @Test
+    void execute_computationFails_followersGetSameException() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        NotFoundException failure = new NotFoundException("Фильм с id 1 не найден");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> leader = executor.submit(() -> flight.execute("popular", () -> {
+                started.countDown();
+                await(release);
+                throw failure;
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<List<Integer>> follower = executor.submit(() -> flight.execute("popular", List::of));
+            while (flight.stats().calls() < 2) {
+                Thread.sleep(1);
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            assertSame(failure, assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS)).getCause());
+            assertSame(failure, assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS)).getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_afterInvalidate_doesNotJoinEarlierFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<Integer>> stale = executor.submit(() -> flight.execute("popular", () -> {
+                started.countDown();
+                await(release);
+                return List.of(1);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            // Запись завершилась после старта вычисления — следующее чтение её видит
+            flight.invalidate();
+
+            assertEquals(List.of(1, 2), flight.execute("popular", () -> List.of(1, 2)));
+            release.countDown();
+            assertEquals(List.of(1), stale.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, flight.stats().shared());
+    }
+
+    @Test
+    void executeAsync_followerDoesNotBlockAndSharesResult() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+        List<Integer> result = List.of(1, 2, 3);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<List<Integer>> leader = flight.executeAsync("popular", () -> {
+                computations.incrementAndGet();
+                await(release);
+                return result;
+            }, executor);
+            CompletableFuture<List<Integer>> follower = flight.executeAsync("popular", () -> {
+                computations.incrementAndGet();
+                return List.of();
+            }, executor);
+
+            assertFalse(follower.isDone());
+            release.countDown();
+            assertSame(result, leader.get(5, TimeUnit.SECONDS));
+            assertSame(result, follower.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, computations.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    void offer_belowCapacity_countsExactly() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(10);
+        sketch.offer(1);
+        sketch.offer(2);
+        sketch.offer(2);
+
+        assertEquals(List.of(new SpaceSavingSketch.Estimate(2, 2, 0), new SpaceSavingSketch.Estimate(1, 1, 0)),
+                sketch.top(5));
+        assertEquals(3, sketch.total());
+    }
+
+    @Test
+    void offer_skewedStreamOverCapacity_keepsHeavyHittersWithinBounds() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(20);
+        Map<Integer, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            // Пять горячих фильмов получают половину лайков, остальное размазано по длинному хвосту
+            int id = random.nextBoolean() ? random.nextInt(5) : 5 + random.nextInt(50_000);
+            exact.merge(id, 1L, Long::sum);
+            sketch.offer(id);
+        }
+
+        List<SpaceSavingSketch.Estimate> top = sketch.top(5);
+        assertEquals(5, top.size());
+        for (SpaceSavingSketch.Estimate estimate : top) {
+            assertTrue(estimate.id() < 5, "В топе должны быть только горячие фильмы");
+            long actual = exact.get(estimate.id());
+            assertTrue(estimate.count() >= actual);
+            assertTrue(estimate.count() - estimate.error() <= actual);
+            assertTrue(estimate.error() <= sketch.total() / sketch.capacity());
+        }
+    }
+
+    @Test
+    void retract_trackedItem_decrementsCount() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(10);
+        sketch.offer(1);
+        sketch.offer(1);
+        sketch.retract(1);
+        sketch.retract(7);
+
+        assertEquals(List.of(new SpaceSavingSketch.Estimate(1, 1, 0)), sketch.top(1));
+        assertEquals(1, sketch.total());
+    }
+
+    @Test
+    void remove_topItem_dropsItFromRankingAndFreesSlot() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+        for (int i = 0; i < 5; i++) {
+            sketch.offer(1);
+        }
+        sketch.offer(2);
+        sketch.remove(1);
+        sketch.remove(9);
+        sketch.offer(3);
+
+        assertEquals(List.of(new SpaceSavingSketch.Estimate(3, 1, 0), new SpaceSavingSketch.Estimate(2, 1, 0)),
+                sketch.top(5));
+        assertEquals(2, sketch.total());
+    }
+}
@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Пропускная способность изменения дружбы под одной общей блокировкой и под блокировками
+ * по полосам при разном числе потоков. Критическая секция та же, что в
+ * {@link UserService#addFriend}: обе стороны дружбы в хранилище. Результаты пишутся в лог;
+ * число операций на замер задаётся свойством -Dfilmorate.bench.friend-ops=2000000.
+ */
+@Slf4j
+class StripedLockBenchmarkTest {
+
+    private static final int OPERATIONS = Integer.getInteger("filmorate.bench.friend-ops", 200_000);
+    private static final int USERS = 10_000;
+    private static final int[] THREADS = {1, 2, 4, 8};
+
+    @Test
+    void withLocks_throughputScalesWithThreads() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        double[] single = new double[THREADS.length];
+        double[] striped = new double[THREADS.length];
+        for (int i = 0; i < THREADS.length; i++) {
+            single[i] = measure(new StripedLock(1), THREADS[i]);
+            striped[i] = measure(new StripedLock(cores * 4), THREADS[i]);
+            log.info("Дружба, {} потоков: одна блокировка {} оп/мс, полосы {} оп/мс", THREADS[i],
+                    Math.round(single[i]), Math.round(striped[i]));
+        }
+        log.info("Ускорение от 1 до {} потоков ({} ядер): одна блокировка x{}, полосы x{}",
+                THREADS[THREADS.length - 1], cores, String.format("%.2f", single[THREADS.length - 1] / single[0]),
+                String.format("%.2f", striped[THREADS.length - 1] / striped[0]));
+
+        // На одном-двух ядрах потокам негде выполняться параллельно, и сравнивать нечего
+        if (cores >= 4) {
+            int fourThreads = 2;
+            assertTrue(striped[fourThreads] > single[fourThreads],
+                    "Полосы не быстрее одной блокировки на 4 потоках: " + striped[fourThreads] + " против "
+                            + single[fourThreads]);
+        }
+    }
+
+    private double measure(StripedLock locks, int threads) throws Exception {
+        InMemoryUserStorage storage = new InMemoryUserStorage();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@mail.ru");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            storage.addUser(user);
+        }
+        // Прогрев той же нагрузкой, чтобы замер шёл на скомпилированном коде
+        run(locks, storage, threads, OPERATIONS / 4);
+        long start = System.nanoTime();
+        run(locks, storage, threads, OPERATIONS);
+        return OPERATIONS / ((System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    private void run(StripedLock locks, InMemoryUserStorage storage, int threads, int operations) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                SplittableRandom random = new SplittableRandom(t);
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < operations / threads; i++) {
+                        int userId = 1 + random.nextInt(USERS);
+                        int friendId = 1 + random.nextInt(USERS);
+                        boolean add = random.nextBoolean();
+                        locks.withLocks(userId, friendId, () -> {
+                            if (add) {
+                                storage.addFriend(userId, friendId);
+                                storage.addFriend(friendId, userId);
+                            } else {
+                                storage.removeFriend(userId, friendId);
+                                storage.removeFriend(friendId, userId);
+                            }
+                        });
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(5, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
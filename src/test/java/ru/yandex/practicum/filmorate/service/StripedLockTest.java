@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedLockTest {
+
+    @Test
+    void constructor_roundsStripeCountUpToPowerOfTwo() {
+        assertEquals(1, new StripedLock(1).stripeCount());
+        assertEquals(8, new StripedLock(5).stripeCount());
+        assertEquals(16, new StripedLock(16).stripeCount());
+    }
+
+    @Test
+    void withLocks_sameStripe_doesNotDeadlock() {
+        StripedLock lock = new StripedLock(1);
+        AtomicInteger counter = new AtomicInteger();
+
+        lock.withLocks(1, 2, counter::incrementAndGet);
+
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    void withLocks_oppositeOrderFromManyThreads_completesWithoutDeadlock() throws InterruptedException {
+        StripedLock lock = new StripedLock(4);
+        int threads = 8;
+        int iterations = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < threads; t++) {
+            boolean reversed = t % 2 == 0;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < iterations; i++) {
+                    int first = i % 7;
+                    int second = (i + 3) % 7;
+                    lock.withLocks(reversed ? second : first, reversed ? first : second, () -> { });
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS), "Потоки не должны взаимно блокироваться");
+    }
+}
@@ -2,12 +2,20 @@ package ru.yandex.practicum.filmorate.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.event.DomainEventBus;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
 import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -15,11 +23,14 @@ class UserServiceTest {
 
     private UserService userService;
     private InMemoryUserStorage userStorage;
+    private InMemoryFilmStorage filmStorage;
 
     @BeforeEach
     void setUp() {
         userStorage = new InMemoryUserStorage();
-        userService = new UserService(userStorage);
+        filmStorage = new InMemoryFilmStorage();
+        userService = new UserService(userStorage, filmStorage, new DomainEventBus(),
+                new FriendGraph(userStorage, 1000, 6));
     }
 
     @Test
@@ -225,4 +236,102 @@ class UserServiceTest {
         NotFoundException exception = assertThrows(NotFoundException.class, () -> userService.getCommonFriends(1, 999));
         assertEquals("Пользователь с id 999 не найден", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void addAndRemoveFriend_concurrentCalls_keepFriendshipSymmetric() throws InterruptedException {
+        int usersCount = 20;
+        for (int i = 1; i <= usersCount; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@example.com");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            userStorage.addUser(user);
+        }
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 5_000; i++) {
+                    int userId = (i * 7 + seed) % usersCount + 1;
+                    int friendId = (i * 13 + seed * 3) % usersCount + 1;
+                    if (userId == friendId) {
+                        continue;
+                    }
+                    if ((i + seed) % 3 == 0) {
+                        userService.removeFriend(friendId, userId);
+                    } else {
+                        userService.addFriend(userId, friendId);
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        for (User user : userStorage.getAllUsers()) {
+            for (Integer friendId : user.getFriends()) {
+                assertTrue(userStorage.getUserById(friendId).get().getFriends().contains(user.getId()),
+                        "Дружба " + user.getId() + " -> " + friendId + " должна быть взаимной");
+            }
+        }
+    }
+
+    @Test
+    void deleteUser_removesFriendshipsAndLikesOfUser() {
+        for (int i = 1; i <= 3; i++) {
+            User user = new User();
+            user.setEmail("test" + i + "@example.com");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            userStorage.addUser(user);
+        }
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        filmStorage.addFilm(film);
+        userService.addFriend(1, 2);
+        userService.addFriend(3, 1);
+        filmStorage.addLike(film.getId(), 1);
+        filmStorage.addLike(film.getId(), 2);
+
+        userService.deleteUser(1);
+
+        assertTrue(userStorage.getUserById(2).get().getFriends().isEmpty());
+        assertTrue(userStorage.getUserById(3).get().getFriends().isEmpty());
+        assertTrue(userStorage.getInboundFriendIds(1).isEmpty());
+        assertEquals(Set.of(2), filmStorage.getFilmById(film.getId()).get().getLikes());
+        assertTrue(filmStorage.getLikedFilmIds(1).isEmpty());
+    }
+
+    @Test
+    void getFriendshipPath_hopMissingFromStorage_throwsNotFoundException() {
+        for (int i = 1; i <= 3; i++) {
+            User user = new User();
+            user.setEmail("test" + i + "@example.com");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            userStorage.addUser(user);
+        }
+        userService.addFriend(1, 2);
+        userService.addFriend(2, 3);
+        assertEquals(List.of(1, 2, 3), userService.getFriendshipPath(1, 3).stream().map(User::getId).toList());
+
+        // Удаление мимо сервиса: граф по-прежнему ведёт через пользователя 2
+        userStorage.deleteUser(2);
+
+        assertThrows(NotFoundException.class, () -> userService.getFriendshipPath(1, 3));
+    }
+
+    @Test
+    void deleteUser_invalidUserId_throwsNotFoundException() {
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> userService.deleteUser(999));
+        assertEquals("Пользователь с id 999 не найден", exception.getMessage());
+    }
+}
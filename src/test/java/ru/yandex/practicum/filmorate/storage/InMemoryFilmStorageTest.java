@@ -1,15 +1,21 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+@Slf4j
 class InMemoryFilmStorageTest {
 
     private InMemoryFilmStorage filmStorage;
@@ -57,6 +63,20 @@ class InMemoryFilmStorageTest {
         assertEquals(1, filmStorage.getAllFilms().size());
     }
 
+    @Test
+    void updateFilm_deletedFilm_throwsNotFoundAndDoesNotResurrect() {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        filmStorage.addFilm(film);
+        filmStorage.deleteFilm(film.getId());
+
+        assertThrows(NotFoundException.class, () -> filmStorage.updateFilm(film));
+        assertTrue(filmStorage.getFilmById(film.getId()).isEmpty());
+    }
+
     @Test
     void deleteFilm_validId_deletesFilm() {
         Film film = new Film();
@@ -115,4 +135,139 @@ class InMemoryFilmStorageTest {
         assertTrue(films.contains(film1));
         assertTrue(films.contains(film2));
     }
-}
\ No newline at end of file
+
+    @Test
+    void addLike_publishesNewVersionAndKeepsOldSnapshotUnchanged() {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        filmStorage.addFilm(film);
+        Film before = filmStorage.getFilmById(film.getId()).get();
+
+        assertTrue(filmStorage.addLike(film.getId(), 1));
+        assertFalse(filmStorage.addLike(film.getId(), 1));
+
+        assertTrue(before.getLikes().isEmpty());
+        assertEquals(Set.of(1), filmStorage.getFilmById(film.getId()).get().getLikes());
+        assertThrows(UnsupportedOperationException.class, () -> before.getLikes().add(2));
+    }
+
+    @Test
+    void rate_followsLikesAndIgnoresClientValue() {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        film.setRate(100);
+        filmStorage.addFilm(film);
+
+        assertEquals(0, filmStorage.getFilmById(1).get().getRate());
+        filmStorage.addLike(1, 1);
+        filmStorage.addLike(1, 2);
+        filmStorage.removeLike(1, 1);
+        film.setRate(100);
+        filmStorage.updateFilm(film);
+
+        assertEquals(1, filmStorage.getFilmById(1).get().getRate());
+    }
+
+    @Test
+    void removeLike_missingLike_returnsFalse() {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        filmStorage.addFilm(film);
+        filmStorage.addLike(film.getId(), 1);
+
+        assertTrue(filmStorage.removeLike(film.getId(), 1));
+        assertFalse(filmStorage.removeLike(film.getId(), 1));
+        assertFalse(filmStorage.removeLike(999, 1));
+    }
+
+    @Test
+    void getAllFilms_concurrentLikes_readersNeverFail() throws InterruptedException {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        filmStorage.addFilm(film);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 2_000; i++) {
+                filmStorage.addLike(film.getId(), i);
+            }
+            running.set(false);
+        });
+        Thread reader = new Thread(() -> {
+            try {
+                while (running.get()) {
+                    for (Film snapshot : filmStorage.getAllFilms()) {
+                        int count = 0;
+                        for (Integer ignored : snapshot.getLikes()) {
+                            count++;
+                        }
+                        assertEquals(snapshot.getLikes().size(), count);
+                    }
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(2_000, filmStorage.getFilmById(film.getId()).get().getLikes().size());
+    }
+
+    @Test
+    void addLike_hotFilm_costDoesNotGrowWithLikeCount() {
+        Film small = new Film();
+        small.setName("Small");
+        small.setReleaseDate(LocalDate.of(2000, 1, 1));
+        small.setDuration(120);
+        filmStorage.addFilm(small);
+        Film hot = new Film();
+        hot.setName("Hot");
+        hot.setReleaseDate(LocalDate.of(2000, 1, 1));
+        hot.setDuration(120);
+        filmStorage.addFilm(hot);
+        for (int userId = 1; userId <= 1_000; userId++) {
+            filmStorage.addLike(small.getId(), userId);
+        }
+        for (int userId = 1; userId <= 200_000; userId++) {
+            filmStorage.addLike(hot.getId(), userId);
+        }
+
+        long smallNanos = likeAndUnlikeNanos(small.getId());
+        long hotNanos = likeAndUnlikeNanos(hot.getId());
+        log.info("Лайк и снятие лайка: фильм с 1 000 лайков {} нс, с 200 000 лайков {} нс", smallNanos, hotNanos);
+
+        assertEquals(200_000, filmStorage.getFilmById(hot.getId()).get().getRate());
+        // Копия всего множества дала бы разницу в сотни раз, путь в дереве — в пределах пары уровней
+        assertTrue(hotNanos < smallNanos * 10, "Стоимость лайка растёт с числом лайков");
+    }
+
+    private long likeAndUnlikeNanos(int filmId) {
+        int rounds = 20_000;
+        long start = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                filmStorage.addLike(filmId, 1_000_000 + i);
+                filmStorage.removeLike(filmId, 1_000_000 + i);
+            }
+        }
+        return (System.nanoTime() - start) / rounds;
+    }
+}
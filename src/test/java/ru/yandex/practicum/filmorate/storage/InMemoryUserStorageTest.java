@@ -2,11 +2,13 @@ package ru.yandex.practicum.filmorate.storage;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -57,6 +59,19 @@ class InMemoryUserStorageTest {
         assertEquals(1, userStorage.getAllUsers().size());
     }
 
+    @Test
+    void updateUser_deletedUser_throwsNotFoundAndDoesNotResurrect() {
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setLogin("testuser");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        userStorage.addUser(user);
+        userStorage.deleteUser(user.getId());
+
+        assertThrows(NotFoundException.class, () -> userStorage.updateUser(user));
+        assertTrue(userStorage.getUserById(user.getId()).isEmpty());
+    }
+
     @Test
     void deleteUser_validId_deletesUser() {
         User user = new User();
@@ -115,4 +130,37 @@ class InMemoryUserStorageTest {
         assertTrue(users.contains(user1));
         assertTrue(users.contains(user2));
     }
-}
\ No newline at end of file
+
+    @Test
+    void addFriend_publishesNewVersionAndKeepsOldSnapshotUnchanged() {
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setLogin("testuser");
+        user.setName("Test User");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        userStorage.addUser(user);
+        User before = userStorage.getUserById(user.getId()).get();
+
+        assertTrue(userStorage.addFriend(user.getId(), 2));
+        assertFalse(userStorage.addFriend(user.getId(), 2));
+
+        assertTrue(before.getFriends().isEmpty());
+        assertEquals(Set.of(2), userStorage.getUserById(user.getId()).get().getFriends());
+        assertThrows(UnsupportedOperationException.class, () -> before.getFriends().add(3));
+    }
+
+    @Test
+    void removeFriend_missingFriend_returnsFalse() {
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setLogin("testuser");
+        user.setName("Test User");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        userStorage.addUser(user);
+        userStorage.addFriend(user.getId(), 2);
+
+        assertTrue(userStorage.removeFriend(user.getId(), 2));
+        assertFalse(userStorage.removeFriend(user.getId(), 2));
+        assertFalse(userStorage.removeFriend(999, 2));
+    }
+}
@@ -0,0 +1,180 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapFilmStorageTest {
+
+    private OffHeapFilmStorage filmStorage;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new OffHeapFilmStorage();
+    }
+
+    @Test
+    void addFilm_validFilm_roundTripsAllFields() {
+        Film film = new Film();
+        film.setName("Фильм");
+        film.setDescription("Описание");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        film.setRate(5);
+
+        Film addedFilm = filmStorage.addFilm(film);
+
+        assertEquals(1, addedFilm.getId());
+        assertEquals(0, addedFilm.getRate());
+        assertEquals(film, filmStorage.getFilmById(1).get());
+        assertEquals(1, filmStorage.getAllFilms().size());
+    }
+
+    @Test
+    void addFilm_nullDescription_keepsNull() {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+
+        filmStorage.addFilm(film);
+
+        Film stored = filmStorage.getFilmById(film.getId()).get();
+        assertNull(stored.getDescription());
+        assertEquals(0, stored.getRate());
+    }
+
+    @Test
+    void updateFilm_validFilm_updatesFieldsAndKeepsLikes() {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        filmStorage.addFilm(film);
+        filmStorage.addLike(film.getId(), 7);
+
+        Film updatedFilm = new Film();
+        updatedFilm.setId(film.getId());
+        updatedFilm.setName("Updated Film");
+        updatedFilm.setDescription("Updated Description");
+        updatedFilm.setReleaseDate(LocalDate.of(2001, 1, 1));
+        updatedFilm.setDuration(130);
+        filmStorage.updateFilm(updatedFilm);
+
+        Film stored = filmStorage.getFilmById(film.getId()).get();
+        assertEquals("Updated Film", stored.getName());
+        assertEquals(LocalDate.of(2001, 1, 1), stored.getReleaseDate());
+        assertEquals(130, stored.getDuration());
+        assertEquals(Set.of(7), stored.getLikes());
+    }
+
+    @Test
+    void updateFilm_deletedFilm_throwsNotFoundAndDoesNotResurrect() {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        filmStorage.addFilm(film);
+        filmStorage.addLike(film.getId(), 7);
+        filmStorage.deleteFilm(film.getId());
+
+        assertThrows(NotFoundException.class, () -> filmStorage.updateFilm(film));
+        assertTrue(filmStorage.getFilmById(film.getId()).isEmpty());
+        assertTrue(filmStorage.getAllFilms().isEmpty());
+    }
+
+    @Test
+    void deleteFilm_validId_deletesFilmAndLikeIndex() {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        filmStorage.addFilm(film);
+        filmStorage.addLike(film.getId(), 7);
+
+        filmStorage.deleteFilm(film.getId());
+
+        assertTrue(filmStorage.getAllFilms().isEmpty());
+        assertFalse(filmStorage.getFilmById(film.getId()).isPresent());
+        assertTrue(filmStorage.getLikedFilmIds(7).isEmpty());
+        assertFalse(filmStorage.addLike(film.getId(), 8));
+    }
+
+    @Test
+    void getFilmById_invalidId_returnsEmpty() {
+        Optional<Film> result = filmStorage.getFilmById(999_999);
+
+        assertFalse(result.isPresent());
+    }
+
+    @Test
+    void addAndRemoveLike_updatesLikesAndIndex() {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        filmStorage.addFilm(film);
+
+        assertTrue(filmStorage.addLike(film.getId(), 1));
+        assertFalse(filmStorage.addLike(film.getId(), 1));
+        assertEquals(Set.of(1), filmStorage.getLikedFilmIds(1));
+
+        assertTrue(filmStorage.removeLike(film.getId(), 1));
+        assertTrue(filmStorage.getFilmById(film.getId()).get().getLikes().isEmpty());
+        assertTrue(filmStorage.getLikedFilmIds(1).isEmpty());
+    }
+
+    @Test
+    void addFilm_manyFilms_spansSeveralChunks() {
+        for (int i = 0; i < 20_000; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Description " + i);
+            film.setReleaseDate(LocalDate.of(2000, 1, 1).plusDays(i));
+            film.setDuration(90 + i % 60);
+            filmStorage.addFilm(film);
+        }
+
+        List<Film> films = filmStorage.getAllFilms();
+
+        assertEquals(20_000, films.size());
+        assertEquals("Film 19999", filmStorage.getFilmById(20_000).get().getName());
+        assertTrue(filmStorage.allocatedBytes() > 0);
+    }
+
+    @Test
+    void updateAndDelete_reuseStringSpace() {
+        for (int i = 0; i < 100; i++) {
+            Film film = new Film();
+            film.setName("Фильм " + i);
+            film.setDescription("Описание " + i);
+            film.setReleaseDate(LocalDate.of(2000, 1, 1));
+            film.setDuration(120);
+            filmStorage.addFilm(film);
+        }
+        long allocated = filmStorage.allocatedBytes();
+
+        for (int round = 0; round < 2000; round++) {
+            Film film = filmStorage.getFilmById(round % 100 + 1).get();
+            film.setName("Фильм " + round % 100 + (round % 2 == 0 ? " (новая версия с длинным названием)" : ""));
+            film.setDescription("Описание " + round);
+            filmStorage.updateFilm(film);
+        }
+        filmStorage.deleteFilm(1);
+
+        assertEquals(allocated, filmStorage.allocatedBytes());
+        assertTrue(filmStorage.freeStringBytes() > 0);
+    }
+}
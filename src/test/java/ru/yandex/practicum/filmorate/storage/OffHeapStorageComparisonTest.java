@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнение хранилища в куче и вне её: прирост кучи после заполнения, память вне кучи
+ * и длительность полной сборки мусора при живых данных. Результаты пишутся в лог.
+ * По умолчанию 200 тысяч фильмов; число задаётся свойством -Dfilmorate.bench.films=10000000
+ * (вместе с достаточным -Xmx).
+ */
+@Slf4j
+class OffHeapStorageComparisonTest {
+
+    private static final int FILMS = Integer.getInteger("filmorate.bench.films", 200_000);
+    private static final int GC_ROUNDS = 3;
+
+    private record Footprint(long heapBytes, long offHeapBytes, long gcMillis) {
+    }
+
+    @Test
+    void offHeapStorage_keepsFilmsOutOfHeap() {
+        Footprint heap = measure("в куче", InMemoryFilmStorage::new, storage -> 0);
+        Footprint offHeap = measure("вне кучи", OffHeapFilmStorage::new,
+                storage -> ((OffHeapFilmStorage) storage).allocatedBytes());
+
+        assertTrue(offHeap.heapBytes() < heap.heapBytes() / 4,
+                "Хранилище вне кучи заняло в куче " + offHeap.heapBytes() + " байт против " + heap.heapBytes());
+        assertTrue(offHeap.offHeapBytes() > 0);
+    }
+
+    private Footprint measure(String name, Supplier<FilmStorage> factory,
+                              ToLongFunction<FilmStorage> offHeapBytes) {
+        long before = usedHeapAfterGc();
+        FilmStorage storage = factory.get();
+        for (int i = 0; i < FILMS; i++) {
+            Film film = new Film();
+            film.setName("Фильм номер " + i);
+            film.setDescription("Описание фильма номер " + i);
+            film.setReleaseDate(LocalDate.of(1990, 1, 1).plusDays(i % 10_000));
+            film.setDuration(80 + i % 100);
+            storage.addFilm(film);
+        }
+        long heapBytes = usedHeapAfterGc() - before;
+        long gcStart = totalGcMillis();
+        long wallStart = System.nanoTime();
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+        }
+        long gcMillis = Math.max(totalGcMillis() - gcStart, (System.nanoTime() - wallStart) / 1_000_000)
+                / GC_ROUNDS;
+        Footprint footprint = new Footprint(heapBytes, offHeapBytes.applyAsLong(storage), gcMillis);
+        Reference.reachabilityFence(storage);
+        log.info("{} фильмов {}: куча +{} МБ, вне кучи {} МБ, полная сборка {} мс", FILMS, name,
+                footprint.heapBytes() >> 20, footprint.offHeapBytes() >> 20, footprint.gcMillis());
+        return footprint;
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long totalGcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+}
@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapStringArenaTest {
+
+    @Test
+    void put_roundTripsUtf8AndNull() {
+        OffHeapStringArena arena = new OffHeapStringArena();
+
+        long ref = arena.put("Фильм");
+
+        assertEquals("Фильм", arena.get(ref));
+        assertEquals(OffHeapStringArena.NULL_REF, arena.put(null));
+        assertNull(arena.get(OffHeapStringArena.NULL_REF));
+    }
+
+    @Test
+    void replace_sameSizeClass_rewritesInPlace() {
+        OffHeapStringArena arena = new OffHeapStringArena();
+        long ref = arena.put("название 1");
+
+        long replaced = arena.replace(ref, "название 2");
+
+        assertEquals(ref, replaced);
+        assertEquals("название 2", arena.get(replaced));
+        assertEquals(0, arena.freeBytes());
+    }
+
+    @Test
+    void replace_otherSizeClass_freesOldSlotForReuse() {
+        OffHeapStringArena arena = new OffHeapStringArena();
+        long shortRef = arena.put("коротко");
+
+        long longRef = arena.replace(shortRef, "значительно более длинное значение строки");
+        assertNotEquals(shortRef, longRef);
+        assertTrue(arena.freeBytes() > 0);
+        long reused = arena.put("кратко");
+
+        assertEquals(shortRef, reused);
+        assertEquals("кратко", arena.get(reused));
+        assertEquals("значительно более длинное значение строки", arena.get(longRef));
+        assertEquals(0, arena.freeBytes());
+    }
+
+    @Test
+    void churn_boundedByLiveStrings() {
+        OffHeapStringArena arena = new OffHeapStringArena();
+        long[] refs = new long[1000];
+        for (int i = 0; i < refs.length; i++) {
+            refs[i] = arena.put("строка " + i);
+        }
+        long allocated = arena.allocatedBytes();
+
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < refs.length; i++) {
+                refs[i] = arena.replace(refs[i], round % 2 == 0 ? "длинная строка номер " + i + " в раунде " + round
+                        : "строка " + i);
+            }
+        }
+
+        assertTrue(arena.allocatedBytes() <= allocated * 2,
+                "Арена выросла с " + allocated + " до " + arena.allocatedBytes());
+        assertEquals("строка 7", arena.get(refs[7]));
+    }
+}
@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapUserStorageTest {
+
+    private OffHeapUserStorage userStorage;
+
+    @BeforeEach
+    void setUp() {
+        userStorage = new OffHeapUserStorage();
+    }
+
+    @Test
+    void addUser_validUser_roundTripsAllFields() {
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setLogin("testuser");
+        user.setName("Тестовый пользователь");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+
+        User addedUser = userStorage.addUser(user);
+
+        assertEquals(1, addedUser.getId());
+        assertEquals(user, userStorage.getUserById(1).get());
+    }
+
+    @Test
+    void addUser_blankName_nameShouldBeLogin() {
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setLogin("testuser");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+
+        userStorage.addUser(user);
+
+        assertEquals("testuser", userStorage.getUserById(user.getId()).get().getName());
+    }
+
+    @Test
+    void updateUser_validUser_updatesFieldsAndKeepsFriends() {
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setLogin("testuser");
+        user.setName("Test User");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        userStorage.addUser(user);
+        userStorage.addFriend(user.getId(), 2);
+
+        User updatedUser = new User();
+        updatedUser.setId(user.getId());
+        updatedUser.setEmail("updated@example.com");
+        updatedUser.setLogin("updateduser");
+        updatedUser.setName("Updated User");
+        updatedUser.setBirthday(LocalDate.of(1991, 2, 3));
+        userStorage.updateUser(updatedUser);
+
+        User stored = userStorage.getUserById(user.getId()).get();
+        assertEquals("updated@example.com", stored.getEmail());
+        assertEquals("updateduser", stored.getLogin());
+        assertEquals(LocalDate.of(1991, 2, 3), stored.getBirthday());
+        assertEquals(Set.of(2), stored.getFriends());
+    }
+
+    @Test
+    void updateUser_deletedUser_throwsNotFoundAndDoesNotResurrect() {
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setLogin("testuser");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        userStorage.addUser(user);
+        userStorage.addFriend(user.getId(), 2);
+        userStorage.deleteUser(user.getId());
+
+        assertThrows(NotFoundException.class, () -> userStorage.updateUser(user));
+        assertTrue(userStorage.getUserById(user.getId()).isEmpty());
+        assertTrue(userStorage.getAllUsers().isEmpty());
+    }
+
+    @Test
+    void deleteUser_validId_deletesUserAndInboundIndex() {
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setLogin("testuser");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        userStorage.addUser(user);
+        userStorage.addFriend(user.getId(), 2);
+
+        userStorage.deleteUser(user.getId());
+
+        assertTrue(userStorage.getAllUsers().isEmpty());
+        assertTrue(userStorage.getInboundFriendIds(2).isEmpty());
+        assertFalse(userStorage.addFriend(user.getId(), 3));
+    }
+
+    @Test
+    void addAndRemoveFriend_updatesFriendsAndInboundIndex() {
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setLogin("testuser");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        userStorage.addUser(user);
+
+        assertTrue(userStorage.addFriend(user.getId(), 2));
+        assertEquals(Set.of(user.getId()), userStorage.getInboundFriendIds(2));
+
+        assertTrue(userStorage.removeFriend(user.getId(), 2));
+        assertFalse(userStorage.removeFriend(user.getId(), 2));
+        assertTrue(userStorage.getUserById(user.getId()).get().getFriends().isEmpty());
+    }
+}
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentIntSetTest {
+
+    @Test
+    void withAndWithout_randomOperations_matchHashSet() {
+        Random random = new Random(7);
+        Set<Integer> expected = new HashSet<>();
+        PersistentIntSet actual = PersistentIntSet.empty();
+        for (int i = 0; i < 50_000; i++) {
+            // Малые, отрицательные и крайние значения проверяют все уровни дерева
+            int value = switch (random.nextInt(3)) {
+                case 0 -> random.nextInt(2_000);
+                case 1 -> random.nextInt();
+                default -> random.nextBoolean() ? Integer.MIN_VALUE + random.nextInt(4) : Integer.MAX_VALUE - random.nextInt(4);
+            };
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), actual.without(value) != actual);
+                actual = actual.without(value);
+            } else {
+                assertEquals(expected.add(value), actual.with(value) != actual);
+                actual = actual.with(value);
+            }
+            assertEquals(expected.size(), actual.size());
+        }
+
+        assertEquals(expected, actual);
+        assertEquals(expected, new HashSet<>(actual));
+        for (Integer value : expected) {
+            assertTrue(actual.contains(value));
+        }
+    }
+
+    @Test
+    void with_keepsPreviousVersionUnchanged() {
+        PersistentIntSet before = PersistentIntSet.copyOf(List.of(1, 2, 3));
+
+        PersistentIntSet after = before.with(33).without(2);
+
+        assertEquals(Set.of(1, 2, 3), before);
+        assertEquals(Set.of(1, 3, 33), after);
+        assertSame(before, before.with(1));
+        assertSame(before, before.without(4));
+    }
+
+    @Test
+    void without_lastValue_returnsEmpty() {
+        PersistentIntSet set = PersistentIntSet.empty().with(5).with(37).without(5).without(37);
+
+        assertTrue(set.isEmpty());
+        assertFalse(set.iterator().hasNext());
+        assertFalse(set.contains(null));
+        assertThrows(UnsupportedOperationException.class, () -> set.add(1));
+    }
+}
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedMapTest {
+
+    @Test
+    void constructor_roundsShardCountUpToPowerOfTwo() {
+        assertEquals(1, new ShardedMap<Integer>(1).shardCount());
+        assertEquals(8, new ShardedMap<Integer>(6).shardCount());
+    }
+
+    @Test
+    void values_returnsAllValuesOrderedById() {
+        ShardedMap<Integer> map = new ShardedMap<>(4);
+        IntStream.rangeClosed(1, 1000).map(i -> 1001 - i).forEach(i -> map.put(i, i));
+
+        List<Integer> values = map.values(value -> value);
+
+        assertEquals(IntStream.rangeClosed(1, 1000).boxed().toList(), values);
+    }
+
+    @Test
+    void top_returnsBestValuesAcrossShards() {
+        ShardedMap<Integer> map = new ShardedMap<>(8);
+        IntStream.rangeClosed(1, 1000).forEach(i -> map.put(i, i));
+
+        List<Integer> top = map.top(Comparator.<Integer>reverseOrder(), 5);
+
+        assertEquals(List.of(1000, 999, 998, 997, 996), top);
+    }
+
+    @Test
+    void top_limitGreaterThanSize_returnsAllValues() {
+        ShardedMap<Integer> map = new ShardedMap<>(4);
+        map.put(1, 1);
+        map.put(2, 2);
+
+        assertEquals(List.of(1, 2), map.top(Comparator.naturalOrder(), 10));
+    }
+
+    @Test
+    void removeAndCompute_routeToOwningShard() {
+        ShardedMap<Integer> map = new ShardedMap<>(4);
+        map.put(42, 1);
+
+        map.computeIfPresent(42, (id, value) -> value + 1);
+        assertEquals(2, map.get(42));
+
+        assertEquals(2, map.remove(42));
+        assertNull(map.get(42));
+    }
+}